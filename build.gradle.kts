@@ -12,6 +12,9 @@ plugins {
      * The runnable jar will be found in build/libs/projectname-all.jar
      */
     id("com.github.johnrengelman.shadow") version "8.1.1"
+
+    // Microbenchmarks in src/jmh/java, run them with ./gradlew jmh
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 repositories {
@@ -50,12 +53,45 @@ dependencies {
     testRuntimeOnly("org.junit.jupiter:junit-jupiter-engine:$jUnitVersion")
 }
 
-tasks.withType<Test> {
-    // Enables JUnit 5 Jupiter module
-    useJUnitPlatform()
+tasks.test {
+    // Enables JUnit 5 Jupiter module, leaving the throughput measurements to the benchmark task
+    useJUnitPlatform {
+        excludeTags("benchmark")
+    }
+}
+
+// Measures the leaderboard server and the score uploads, best on an idle machine with at least four cores
+tasks.register<Test>("benchmark") {
+    group = "verification"
+    description = "Runs the tests tagged as benchmarks and prints their measurements."
+    testClassesDirs = sourceSets["test"].output.classesDirs
+    classpath = sourceSets["test"].runtimeClasspath
+    useJUnitPlatform {
+        includeTags("benchmark")
+    }
+    // Like MainApp, so that small responses are not held back by Nagle's algorithm
+    systemProperty("sun.net.httpserver.nodelay", "true")
+    testLogging.showStandardStreams = true
 }
 
 application {
     // Define the main class for the application
     mainClass.set("it.unibo.frogger.main.App")
 }
+
+// Plays headless matches in parallel, e.g. ./gradlew runBatch --args="--matches=10000"
+tasks.register<JavaExec>("runBatch") {
+    group = "application"
+    description = "Runs the headless batch simulation of many matches."
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("it.unibo.frogger.main.BatchApp")
+}
+
+// Compares frame times with and without the sprite atlas, e.g. ./gradlew runRenderBenchmark --args="--objects=1000"
+tasks.register<JavaExec>("runRenderBenchmark") {
+    group = "application"
+    description = "Runs the frame-time benchmark of the sprite layer."
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("it.unibo.frogger.main.RenderBenchmark")
+    jvmArgs("-Djavafx.animation.fullspeed=true")
+}
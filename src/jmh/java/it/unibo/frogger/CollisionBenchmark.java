@@ -0,0 +1,100 @@
+package it.unibo.frogger;
+
+import it.unibo.frogger.controller.CollisionDetector;
+import it.unibo.frogger.core.Frog;
+import it.unibo.frogger.core.GameObjectNotControllable;
+import it.unibo.frogger.core.Obstacle;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of checking a frog against a single game object.
+ * Run it with {@code ./gradlew jmh}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollisionBenchmark {
+    private static final int PAIRS = 1024;
+    private static final double SCALE = 0.8;
+
+    private final Frog frog = new Frog(400, 300, 3);
+    private final GameObjectNotControllable[] objects = new GameObjectNotControllable[PAIRS];
+    private final CollisionDetector detector = new CollisionDetector();
+
+    /**
+     * Scatters the objects around the frog, so that about half of the pairs collide.
+     */
+    @Setup
+    public void setup() {
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < PAIRS; i++) {
+            objects[i] = new Obstacle(330 + random.nextInt(140), 230 + random.nextInt(140), 1, i % 3);
+        }
+    }
+
+    /**
+     * Checks every pair with the precomputed hitboxes.
+     *
+     * @param blackhole the sink of the results
+     */
+    @Benchmark
+    @OperationsPerInvocation(PAIRS)
+    public void precomputedHitbox(final Blackhole blackhole) {
+        for (GameObjectNotControllable obj : objects) {
+            blackhole.consume(detector.checkCollision(obj, frog));
+        }
+    }
+
+    /**
+     * Checks every pair scaling and centering the sprite sizes on each check, as was done before hitboxes.
+     *
+     * @param blackhole the sink of the results
+     */
+    @Benchmark
+    @OperationsPerInvocation(PAIRS)
+    public void scaledOnEachCheck(final Blackhole blackhole) {
+        for (GameObjectNotControllable obj : objects) {
+            blackhole.consume(scaledCollision(obj, frog));
+        }
+    }
+
+    /**
+     * The collision check computing hitboxes from the sprite sizes every time.
+     *
+     * @param obj  the game object
+     * @param frog the frog
+     * @return true if there is a collision, false otherwise
+     */
+    private static boolean scaledCollision(final GameObjectNotControllable obj, final Frog frog) {
+        double frogWidth = frog.getWidth() * SCALE;
+        double frogHeight = frog.getHeight() * SCALE;
+        double objWidth = obj.getWidth() * SCALE;
+        double objHeight = obj.getHeight() * SCALE;
+        double frogX = frog.getXPosition() + (frog.getWidth() - frogWidth) / 2;
+        double frogY = frog.getYPosition() + (frog.getHeight() - frogHeight) / 2;
+        double objX = obj.getXPosition() + (obj.getWidth() - objWidth) / 2;
+        double objY = obj.getYPosition() + (obj.getHeight() - objHeight) / 2;
+        return !(frogX + frogWidth <= objX
+                || objX + objWidth <= frogX
+                || frogY + frogHeight <= objY
+                || objY + objHeight <= frogY);
+    }
+}
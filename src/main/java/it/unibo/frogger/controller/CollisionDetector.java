@@ -3,12 +3,13 @@ package it.unibo.frogger.controller;
 import it.unibo.frogger.core.Frog;
 import it.unibo.frogger.core.GameObjectNotControllable;
 import it.unibo.frogger.core.GlobalVariables;
+import it.unibo.frogger.core.Hitbox;
+import it.unibo.frogger.core.Lane;
 import it.unibo.frogger.core.Obstacle;
-import it.unibo.frogger.core.SoundManager;
+import it.unibo.frogger.core.SoundPlayer;
 import it.unibo.frogger.core.Log;
 import it.unibo.frogger.core.Token;
 
-import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -16,7 +17,62 @@ import java.util.List;
  */
 public class CollisionDetector {
     private static final double INVULNERABILITY_TIME = 0.1; // seconds
-    private long lastCollisionTime = 0;
+    private int[] candidates = new int[0];
+    private final long invulnerabilityTicks;
+    private long currentTick = 0;
+    private long lastCollisionTick;
+    private int deathCount = 0;
+    private boolean swept = true;
+    private final SoundPlayer soundPlayer;
+
+    /**
+     * Constructs a new CollisionDetector that plays no sounds,
+     * ticking at the reference tick rate.
+     */
+    public CollisionDetector() {
+        this(SoundPlayer.SILENT, GlobalVariables.REFERENCE_TICK_RATE);
+    }
+
+    /**
+     * Constructs a new CollisionDetector.
+     *
+     * @param soundPlayer the player of the sound effects triggered by collisions
+     * @param tickRate    the number of ticks per second of the simulation
+     */
+    public CollisionDetector(final SoundPlayer soundPlayer, final int tickRate) {
+        this.soundPlayer = soundPlayer;
+        this.invulnerabilityTicks = Math.round(INVULNERABILITY_TIME * tickRate);
+        this.lastCollisionTick = -invulnerabilityTicks;
+    }
+
+    /**
+     * Advances the clock of the detector by one simulation tick.
+     * The invulnerability after a collision is measured in ticks, so that it lasts
+     * the same game time however fast the simulation runs.
+     */
+    public void nextTick() {
+        currentTick++;
+    }
+
+    /**
+     * Gets the number of lives the frog lost in collisions.
+     *
+     * @return the number of lives lost
+     */
+    public int getDeathCount() {
+        return deathCount;
+    }
+
+    /**
+     * Sets whether lane objects are checked over the whole interval they covered during the tick.
+     * Swept collisions are on by default, so that fast objects cannot skip past the frog:
+     * cars would otherwise tunnel through it, and logs move away from under it before it drifts along.
+     *
+     * @param swept true to check the swept interval, false to check only the current position
+     */
+    public void setSwept(final boolean swept) {
+        this.swept = swept;
+    }
 
     /**
      * Checks if there is a collision between the given game object and the frog.
@@ -26,85 +82,103 @@ public class CollisionDetector {
      * @return true if there is a collision, false otherwise
      */
     public boolean checkCollision(final GameObjectNotControllable obj, final Frog frog) {
-        // Add some tolerance to the collision detection
-        double frogWidth = frog.getImageView().getFitWidth() * 0.8; // Reduce hitbox by 20%
-        double frogHeight = frog.getImageView().getFitHeight() * 0.8;
-        double objWidth = obj.getImageView().getFitWidth() * 0.8;
-        double objHeight = obj.getImageView().getFitHeight() * 0.8;
-
-        // Add offset to center the hitbox
-        double frogX = frog.getXPosition() + (frog.getImageView().getFitWidth() - frogWidth) / 2;
-        double frogY = frog.getYPosition() + (frog.getImageView().getFitHeight() - frogHeight) / 2;
-        double objX = obj.getXPosition() + (obj.getImageView().getFitWidth() - objWidth) / 2;
-        double objY = obj.getYPosition() + (obj.getImageView().getFitHeight() - objHeight) / 2;
-
-        // Check for rectangle intersection with adjusted positions and sizes
-        return !(frogX + frogWidth <= objX     // frog is to the left
-                || objX + objWidth <= frogX       // frog is to the right
-                || frogY + frogHeight <= objY     // frog is above
-                || objY + objHeight <= frogY);      // frog is below
+        // Hitboxes are precomputed with some tolerance, so only their positions are needed here
+        return Hitbox.overlaps(frog.getHitbox(), frog.getXPosition(), frog.getYPosition(),
+            obj.getHitbox(), obj.getXPosition(), obj.getYPosition());
     }
 
     /**
      * Handles collisions between the frog and a list of game objects.
+     * Whether the frog stands on a log is decided by {@link #handleCollisions(Frog, LaneIndex)},
+     * from the coverage of the river lanes.
      *
      * @param frog    the frog to check for collisions
      * @param objects the list of game objects to check for collisions
      */
     public void handleCollisions(final Frog frog, final List<GameObjectNotControllable> objects) {
-        long currentTime = System.currentTimeMillis();
-        if (currentTime - lastCollisionTime < INVULNERABILITY_TIME * 1000) {
+        if (currentTick - lastCollisionTick < invulnerabilityTicks) {
             return;
         }
 
-        boolean onLog = false;
-        int logSpeed = 0;
-        int logDirection = 0;
-        int frogY;
-        int[] logCounter = new int[6];
-
-        Iterator<GameObjectNotControllable> iterator = objects.iterator();
-        while (iterator.hasNext()) {
-            GameObjectNotControllable obj = iterator.next();
+        for (int i = 0; i < objects.size(); i++) {
+            GameObjectNotControllable obj = objects.get(i);
             if (checkCollision(obj, frog)) {
                 if (obj instanceof Obstacle) {
                     handleObstacleCollision(frog);
                     return;
                 } else if (obj instanceof Log) {
-                    onLog = true;
-                    logSpeed = ((Log) obj).getSpeed();
-                    logDirection = ((Log) obj).getDirection();
-                    frog.setOnLog(onLog, logSpeed, logDirection);
+                    frog.setOnLog(true, ((Log) obj).getSpeed(), ((Log) obj).getDirection());
                     return;
                 } else if (obj instanceof Token) {
                     handleTokenCollision(frog, (Token) obj);
-                    iterator.remove(); // Remove the token after collection
+                    objects.remove(i); // Remove the token after collection
                     return;
                 }
-            } else {
-                // Check if player missed the log
-                if (obj instanceof Log) {
-                    int logLane = obj.getYPosition() / GlobalVariables.LANE_HEIGHT;
-                    frogY = frog.getYPosition();
-                    int frogLane = frogY / GlobalVariables.LANE_HEIGHT;
-                    if ((frogLane >= 1) && (frogLane <= 5)) {
-                        if (logLane == frogLane) { 
-                            logCounter[logLane]++;
-                        }
-                    }
-                }
             }
         }
-        int logFault = 0;
-        for (int i = 0; i <= 5; i++) {
-            if (logCounter[i] == 3) {
-                logFault++;
-            }
+    }
+
+    /**
+     * Handles collisions between the frog and the objects of the indexed lanes.
+     * Only the lanes whose objects can reach the rows covered by the frog are checked,
+     * and in each of them only the objects around the frog, found by binary search.
+     * Unless disabled with {@link #setSwept(boolean)}, objects are checked over the interval
+     * they covered during the last lane update.
+     * River lanes are not scanned: their coverage map tells in constant time whether the frog
+     * touches a log, and missing every log of the river lane the frog is in costs a life.
+     *
+     * @param frog  the frog to check for collisions
+     * @param index the broad-phase index of the lanes
+     */
+    public void handleCollisions(final Frog frog, final LaneIndex index) {
+        if (currentTick - lastCollisionTick < invulnerabilityTicks) {
+            return;
         }
-        if (logFault > 0) {
-            System.out.println("Log miss detected!");
-            frog.setOnLog(false, 0, 0);
-            handleLogMiss(frog);
+        if (candidates.length < index.getLaneCount()) {
+            candidates = new int[index.getLaneCount()];
+        }
+
+        Hitbox hitbox = frog.getHitbox();
+        int top = frog.getYPosition() + hitbox.getOffsetY();
+        int bottom = top + hitbox.getHeight();
+        int left = frog.getXPosition() + hitbox.getOffsetX();
+        int right = left + hitbox.getWidth();
+        int frogLane = frog.getLanePosition();
+
+        int found = index.findCandidates(top, bottom, candidates);
+        for (int k = 0; k < found; k++) {
+            Lane lane = index.getLane(candidates[k]);
+            int step = swept ? lane.getLastStep() : 0;
+            if (lane.isRiver()) {
+                // Widen the range by the step, since logs may have covered it from where they were
+                if (lane.isCovered(left - Math.max(-step, 0), right + Math.max(step, 0))) {
+                    frog.setOnLog(true, lane.getSpeed(), lane.getDirection());
+                    return;
+                } else if (candidates[k] == frogLane) {
+                    // Player missed the logs of the river lane it is in
+                    frog.setOnLog(false, 0, 0);
+                    handleLogMiss(frog);
+                    return;
+                }
+                continue;
+            }
+            List<GameObjectNotControllable> objects = lane.getObjects();
+            for (int i = lane.findFirstReaching(left - Math.max(-step, 0)); i < objects.size(); i++) {
+                GameObjectNotControllable obj = objects.get(i);
+                if (obj.getXPosition() - Math.max(step, 0) >= right) {
+                    break;
+                }
+                if (Hitbox.overlapsSwept(hitbox, frog.getXPosition(), frog.getYPosition(),
+                        obj.getHitbox(), obj.getXPosition(), obj.getYPosition(), step)) {
+                    if (obj instanceof Obstacle) {
+                        handleObstacleCollision(frog);
+                        return;
+                    } else if (obj instanceof Log) {
+                        frog.setOnLog(true, ((Log) obj).getSpeed(), ((Log) obj).getDirection());
+                        return;
+                    }
+                }
+            }
         }
     }
 
@@ -114,10 +188,11 @@ public class CollisionDetector {
      * @param frog the frog that collided with the obstacle
      */
     private void handleObstacleCollision(final Frog frog) {
-        SoundManager.playSound("collision");
+        soundPlayer.playSound("collision");
         frog.loseLife();
         frog.resetPosition(GlobalVariables.WIDTH / 2, GlobalVariables.HEIGHT - GlobalVariables.JUMP_SIZE);
-        lastCollisionTime = System.currentTimeMillis();
+        lastCollisionTick = currentTick;
+        deathCount++;
     }
 
     /**
@@ -126,10 +201,11 @@ public class CollisionDetector {
      * @param frog the frog that missed the log
      */
     private void handleLogMiss(final Frog frog) {
-        SoundManager.playSound("water");
+        soundPlayer.playSound("water");
         frog.loseLife();
         frog.resetPosition(GlobalVariables.WIDTH / 2, GlobalVariables.HEIGHT - GlobalVariables.JUMP_SIZE);
-        lastCollisionTime = System.currentTimeMillis();
+        lastCollisionTick = currentTick;
+        deathCount++;
     }
 
     /**
@@ -139,7 +215,7 @@ public class CollisionDetector {
      * @param token  the token that the frog collided with
      */
     private void handleTokenCollision(final Frog frog, final Token token) {
-        SoundManager.playSound("token");
+        soundPlayer.playSound("token");
         token.applyEffect(frog);
     }
 }
@@ -0,0 +1,151 @@
+package it.unibo.frogger.controller;
+
+/**
+ * Runs the game simulation at a fixed tick rate, independently of the display refresh rate.
+ * The time elapsed between frames is accumulated and consumed in ticks of fixed length,
+ * so every tick simulates the same amount of game time whatever the frame rate is.
+ * After a stall at most a bounded number of ticks is simulated in a single frame,
+ * and the time that could not be caught up is dropped.
+ */
+public class FixedTimestepLoop {
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final long NO_FRAME = -1;
+
+    private final int tickRate;
+    private final long tickDuration;
+    private final int maxTicksPerFrame;
+    private long lastFrameTime = NO_FRAME;
+    private long accumulator;
+    private long frameCount;
+    private long tickCount;
+    private long droppedTime;
+
+    /**
+     * Constructs a new FixedTimestepLoop.
+     *
+     * @param tickRate         the number of ticks simulated per second
+     * @param maxTicksPerFrame the maximum number of ticks simulated in a single frame
+     */
+    public FixedTimestepLoop(final int tickRate, final int maxTicksPerFrame) {
+        if (tickRate <= 0 || maxTicksPerFrame <= 0) {
+            throw new IllegalArgumentException("Tick rate and ticks per frame must be positive");
+        }
+        this.tickRate = tickRate;
+        this.tickDuration = NANOS_PER_SECOND / tickRate;
+        this.maxTicksPerFrame = maxTicksPerFrame;
+    }
+
+    /**
+     * Advances the simulation to the given frame time, running as many ticks as needed.
+     * The first frame after construction or after {@link #reset()} only starts the clock.
+     *
+     * @param now  the time of the current frame, in nanoseconds
+     * @param tick the action simulating a single tick
+     * @return the number of ticks simulated in this frame
+     */
+    public int advance(final long now, final Runnable tick) {
+        if (lastFrameTime == NO_FRAME) {
+            lastFrameTime = now;
+            return 0;
+        }
+        accumulator += Math.max(0, now - lastFrameTime);
+        lastFrameTime = now;
+
+        int ticks = 0;
+        while (accumulator >= tickDuration && ticks < maxTicksPerFrame) {
+            tick.run();
+            accumulator -= tickDuration;
+            ticks++;
+        }
+        // Drop the time we could not catch up with, instead of spiralling behind
+        if (accumulator >= tickDuration) {
+            droppedTime += accumulator - accumulator % tickDuration;
+            accumulator %= tickDuration;
+        }
+        frameCount++;
+        tickCount += ticks;
+        return ticks;
+    }
+
+    /**
+     * Restarts the clock, discarding the time not simulated yet.
+     * This should be called when the game is paused, so that the paused time is not caught up.
+     */
+    public void reset() {
+        lastFrameTime = NO_FRAME;
+        accumulator = 0;
+    }
+
+    /**
+     * Gets the fraction of a tick accumulated but not simulated yet.
+     *
+     * @return a value between 0 (inclusive) and 1 (exclusive)
+     */
+    public double getAlpha() {
+        return (double) accumulator / tickDuration;
+    }
+
+    /**
+     * Gets the time at which the last simulated tick was due.
+     * Renderers use it to tell how far into the next tick they are drawing.
+     *
+     * @return the time of the last tick, in nanoseconds, or -1 if the clock is not running
+     */
+    public long getLastTickTime() {
+        return lastFrameTime == NO_FRAME ? NO_FRAME : lastFrameTime - accumulator;
+    }
+
+    /**
+     * Gets the time left before the next tick is due, as of the last frame.
+     *
+     * @return the time to the next tick, in nanoseconds
+     */
+    public long getNanosToNextTick() {
+        return tickDuration - accumulator;
+    }
+
+    /**
+     * Gets the average number of ticks simulated per rendered frame.
+     *
+     * @return the ratio between simulated ticks and rendered frames
+     */
+    public double getTicksPerFrame() {
+        return frameCount == 0 ? 0 : (double) tickCount / frameCount;
+    }
+
+    /**
+     * Gets the number of ticks simulated per second.
+     *
+     * @return the tick rate
+     */
+    public int getTickRate() {
+        return tickRate;
+    }
+
+    /**
+     * Gets the total number of ticks simulated.
+     *
+     * @return the number of ticks simulated
+     */
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    /**
+     * Gets the total number of frames that advanced the loop.
+     *
+     * @return the number of frames
+     */
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    /**
+     * Gets the total time dropped because the simulation could not catch up.
+     *
+     * @return the dropped time, in nanoseconds
+     */
+    public long getDroppedTime() {
+        return droppedTime;
+    }
+}
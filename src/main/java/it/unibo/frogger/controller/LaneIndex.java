@@ -0,0 +1,155 @@
+package it.unibo.frogger.controller;
+
+import it.unibo.frogger.core.GameObjectNotControllable;
+import it.unibo.frogger.core.GlobalVariables;
+import it.unibo.frogger.core.Hitbox;
+import it.unibo.frogger.core.Lane;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Broad phase of the collision detection: indexes lanes by the rows of the screen
+ * their objects can collide in.
+ * Objects never change lane or y position, so the vertical band covered by the hitboxes
+ * of each lane is computed once, and a query only returns the lanes whose band overlaps
+ * the given vertical range, whatever the total number of lanes and objects.
+ */
+public class LaneIndex {
+    private final Lane[] lanes;
+    private final int[] bandTops;
+    private final int[] bandBottoms;
+    private final int[][] lanesByRow;
+
+    /**
+     * Constructs a new LaneIndex.
+     *
+     * @param lanes the lanes to index; the index of a lane in the list is its row
+     */
+    public LaneIndex(final List<Lane> lanes) {
+        this.lanes = lanes.toArray(new Lane[0]);
+        this.bandTops = new int[this.lanes.length];
+        this.bandBottoms = new int[this.lanes.length];
+
+        int rows = this.lanes.length;
+        int[] counts = new int[rows];
+        for (int i = 0; i < this.lanes.length; i++) {
+            computeBand(i);
+            if (bandTops[i] < bandBottoms[i]) {
+                for (int row = firstRow(bandTops[i], rows); row <= lastRow(bandBottoms[i], rows); row++) {
+                    counts[row]++;
+                }
+            }
+        }
+        this.lanesByRow = new int[rows][];
+        for (int row = 0; row < rows; row++) {
+            lanesByRow[row] = new int[counts[row]];
+        }
+        Arrays.fill(counts, 0);
+        for (int i = 0; i < this.lanes.length; i++) {
+            if (bandTops[i] < bandBottoms[i]) {
+                for (int row = firstRow(bandTops[i], rows); row <= lastRow(bandBottoms[i], rows); row++) {
+                    lanesByRow[row][counts[row]++] = i;
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the lanes whose objects can collide with something spanning the given vertical range.
+     *
+     * @param top        the top of the range, inclusive
+     * @param bottom     the bottom of the range, exclusive
+     * @param candidates the array receiving the indices of the candidate lanes;
+     *                   it must be able to hold {@link #getLaneCount()} lanes
+     * @return the number of candidate lanes
+     */
+    public int findCandidates(final int top, final int bottom, final int[] candidates) {
+        int rows = lanesByRow.length;
+        int found = 0;
+        for (int row = firstRow(top, rows); row <= lastRow(bottom, rows); row++) {
+            for (int lane : lanesByRow[row]) {
+                if (bandTops[lane] < bottom && top < bandBottoms[lane] && !contains(candidates, found, lane)) {
+                    candidates[found++] = lane;
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Gets the lane at the given row.
+     *
+     * @param row the row of the lane
+     * @return the lane
+     */
+    public Lane getLane(final int row) {
+        return lanes[row];
+    }
+
+    /**
+     * Gets the number of indexed lanes.
+     *
+     * @return the number of lanes
+     */
+    public int getLaneCount() {
+        return lanes.length;
+    }
+
+    /**
+     * Computes the vertical band covered by the hitboxes of the objects of a lane.
+     * Lanes without objects get an empty band.
+     *
+     * @param lane the index of the lane
+     */
+    private void computeBand(final int lane) {
+        int top = Integer.MAX_VALUE;
+        int bottom = Integer.MIN_VALUE;
+        for (GameObjectNotControllable obj : lanes[lane].getObjects()) {
+            Hitbox hitbox = obj.getHitbox();
+            top = Math.min(top, obj.getYPosition() + hitbox.getOffsetY());
+            bottom = Math.max(bottom, obj.getYPosition() + hitbox.getOffsetY() + hitbox.getHeight());
+        }
+        bandTops[lane] = top;
+        bandBottoms[lane] = bottom;
+    }
+
+    /**
+     * Gets the row containing the given y position, clamped to the indexed rows.
+     *
+     * @param top  the y position
+     * @param rows the number of rows
+     * @return the row
+     */
+    private static int firstRow(final int top, final int rows) {
+        return Math.max(0, Math.min(rows - 1, Math.floorDiv(top, GlobalVariables.LANE_HEIGHT)));
+    }
+
+    /**
+     * Gets the row containing the pixel just above the given y position, clamped to the indexed rows.
+     *
+     * @param bottom the exclusive y position
+     * @param rows   the number of rows
+     * @return the row
+     */
+    private static int lastRow(final int bottom, final int rows) {
+        return Math.max(0, Math.min(rows - 1, Math.floorDiv(bottom - 1, GlobalVariables.LANE_HEIGHT)));
+    }
+
+    /**
+     * Checks whether the first values of an array contain the given value.
+     *
+     * @param values the array
+     * @param count  the number of values to look at
+     * @param value  the value to find
+     * @return true if the value is found, false otherwise
+     */
+    private static boolean contains(final int[] values, final int count, final int value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,76 +1,77 @@
 package it.unibo.frogger.controller;
 
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
 import it.unibo.frogger.view.MatchView;
-import it.unibo.frogger.core.Frog;
-import it.unibo.frogger.core.GameObjectNotControllable;
+import it.unibo.frogger.core.Direction;
 import it.unibo.frogger.core.GlobalVariables;
-import it.unibo.frogger.core.Lane;
+import it.unibo.frogger.core.Match;
 import it.unibo.frogger.core.PlayerScoreManager;
 import it.unibo.frogger.core.SoundManager;
-import it.unibo.frogger.core.Token;
 import it.unibo.frogger.main.MainApp;
 import javafx.animation.AnimationTimer;
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
+import javafx.application.Platform;
 import javafx.scene.input.KeyCode;
-import javafx.util.Duration;
-
-import java.util.List;
 
 /**
  * This class controls the game logic and interactions for the Frogger game.
+ * The match is simulated on its own thread; the JavaFX thread only forwards input
+ * and draws the latest snapshot of the world published by the simulation.
  */
 public class MatchController implements ViewObserver {
-    private Timeline timeline;
-    private double timeLeft = GlobalVariables.GAME_DURATION;
-    private Frog frog;
-    private List<Lane> lanes;
+    private static final int TOP_SCORES = 5;
+
     private MatchView view;
-    private CollisionDetector collisionDetector;
-    private boolean isPaused;
+    private SimulationThread simulation;
+    private MatchPhase phase = MatchPhase.RUNNING;
     private AnimationTimer gameLoop;
-    private List<GameObjectNotControllable> objects;
     private MainApp mainApp;
-    private int currentScore = 0;
+    private int shownSecondsLeft = GlobalVariables.GAME_DURATION;
+    private long renderedSequence = -1;
+    private long firstTick = -1;
+    private long renderNanos;
+    private long renderedFrames;
+    private WorldSnapshot snapshot;
+    private boolean interpolation = true;
 
     /**
      * Constructs a new MatchController.
+     * The match is simulated at its own tick rate, whatever the display refresh rate is.
      *
-     * @param frog    the frog character in the game
-     * @param lanes   the list of lanes in the game
-     * @param objects the list of game objects not in lanes
+     * @param match   the match to control
      * @param view    the view to render the game
      * @param mainApp the main application instance
      */
-    public MatchController(
-        final Frog frog, 
-        final List<Lane> lanes, 
-        final List<GameObjectNotControllable> objects, 
-        final MatchView view, 
-        final MainApp mainApp
-    ) {
-        this.frog = frog;
-        this.lanes = lanes;
-        this.objects = objects;
+    public MatchController(final Match match, final MatchView view, final MainApp mainApp) {
         this.view = view;
-        this.collisionDetector = new CollisionDetector();
-        this.isPaused = false;
+        this.simulation = new SimulationThread(match);
+        this.snapshot = simulation.acquireSnapshot();
         this.mainApp = mainApp;
+        view.renderBackground(match.getLanes());
         SoundManager.loadSoundEffects();
         SoundManager.playBackgroundMusic("/Frogger_Theme.mp3");
+        simulation.start();
         startGameLoop();
-        startTimer();
     }
 
     /**
      * Starts the game loop.
+     * Each frame plays the sounds triggered by the simulation and draws its latest snapshot.
      */
     private void startGameLoop() {
         gameLoop = new AnimationTimer() {
             @Override
             public void handle(final long now) {
-                if (!isPaused) {
-                    update();
+                String sound;
+                while ((sound = simulation.pollSound()) != null) {
+                    SoundManager.playSound(sound);
+                }
+                snapshot = simulation.acquireSnapshot();
+                if (snapshot.isOver()) {
+                    gameOver();
+                    return;
                 }
                 updateView();
             }
@@ -79,89 +80,55 @@ public class MatchController implements ViewObserver {
     }
 
     /**
-     * Updates the game state.
+     * Gets the phase the match is in.
+     *
+     * @return the current phase of the match
      */
-    private void update() {
-        // Update game state
-        for (Lane lane : lanes) {
-            lane.updateObjectsPosition();
-        }
-
-        // Check collisions with lane objects
-        for (Lane lane : lanes) {
-            collisionDetector.handleCollisions(frog, lane.getObjects());
-        }
-
-        // Check collisions with tokens and other objects not in lanes
-        collisionDetector.handleCollisions(frog, objects);
-
-        // Update frog position if on log
-        frog.updatePosition();
-
-        // Check frog on top lane:
-        // reset frog position, update score, increment game level
-        if (frog.getLanePosition() == GlobalVariables.LANE_END) {
-            frog.resetPosition(GlobalVariables.WIDTH / 2, GlobalVariables.HEIGHT - GlobalVariables.JUMP_SIZE);
-            updateScore(100);
-            incrementLevel();
-        }
-
-        // Check game over conditions
-        if (frog.getLives() <= 0) {
-            gameOver();
-        }
+    public MatchPhase getPhase() {
+        return phase;
     }
 
     /**
-     * Increments the game level by increasing the speed of logs and obstacles.
+     * Moves the match to another phase, if the current phase allows it.
+     *
+     * @param next the phase to move to
+     * @return true if the match moved to the phase, false if the transition is not allowed
      */
-    private void incrementLevel() {
-        SoundManager.playSound("levelup");
-        for (Lane lane : lanes) {
-            lane.incrementSpeed(1); // Increment speed by 1 (adjust as needed)
+    private boolean moveTo(final MatchPhase next) {
+        if (!phase.canMoveTo(next)) {
+            return false;
         }
-
-        boolean tokenFlag = false;
-        for (GameObjectNotControllable obj : objects) {
-            if (obj instanceof Token) {
-                tokenFlag = true;
-            }
-
-        }
-        if (tokenFlag == false) {
-            addTokenInValidPosition();
-        }
-
-        resetTimer();
+        phase = next;
+        return true;
     }
 
     /**
-     * Adds a token in a valid position within the game.
+     * Sets whether sprites are drawn between their positions of the last two ticks.
+     * Interpolation keeps motion smooth when the display refreshes faster than the simulation ticks,
+     * at the cost of drawing the world up to one tick late.
+     *
+     * @param interpolation true to interpolate positions, false to draw the last tick as it is
      */
-    private void addTokenInValidPosition() {
-        int laneIndex;
-        int xPosition = (
-            (int) (Math.random() * (GlobalVariables.WIDTH / GlobalVariables.LANE_HEIGHT))
-        ) * GlobalVariables.LANE_HEIGHT;
-
-        do {
-            laneIndex = (int) (Math.random() * 10) + 1;
-            if ((laneIndex == 1) || (laneIndex == 6) || (laneIndex == 11)) {
-                laneIndex = 0;
-            }
-        } while (laneIndex == 0);
-        int yPosition = laneIndex * GlobalVariables.LANE_HEIGHT;
+    public void setInterpolation(final boolean interpolation) {
+        this.interpolation = interpolation;
+    }
 
-        Token token = new Token(xPosition, yPosition);
-        objects.add(token);
+    /**
+     * Gets the average number of simulation ticks per rendered frame.
+     *
+     * @return the ratio between simulated ticks and rendered frames
+     */
+    public double getTicksPerFrame() {
+        return renderedFrames == 0 ? 0 : (double) (snapshot.getTickCount() - firstTick) / renderedFrames;
     }
 
     /**
-     * Resets the game timer.
+     * Gets the average time spent issuing the draw calls of a frame.
+     *
+     * @return the average render time per frame, in nanoseconds
      */
-    private void resetTimer() {
-        timeLeft = GlobalVariables.GAME_DURATION;
-        timeline.playFromStart();
+    public double getAverageRenderNanos() {
+        return renderedFrames == 0 ? 0 : (double) renderNanos / renderedFrames;
     }
 
     /**
@@ -174,120 +141,137 @@ public class MatchController implements ViewObserver {
         if (code == KeyCode.P) {
             togglePause();
         } else {
-            frog.move(code);
-            if (code == KeyCode.UP) {
-                updateScore(10);
+            Direction direction = toDirection(code);
+            if (direction != null && phase == MatchPhase.RUNNING) {
+                simulation.move(direction);
             }
         }
     }
 
     /**
-     * Updates the view to reflect the current game state.
+     * Converts a key code into the direction of movement it stands for.
+     *
+     * @param code the key code of the input
+     * @return the direction of movement, or null if the key does not move the frog
+     */
+    private static Direction toDirection(final KeyCode code) {
+        switch (code) {
+            case UP: return Direction.UP;
+            case DOWN: return Direction.DOWN;
+            case LEFT: return Direction.LEFT;
+            case RIGHT: return Direction.RIGHT;
+            default: return null;
+        }
+    }
+
+    /**
+     * Updates the view to reflect the latest snapshot of the world.
      */
     @Override
     public void updateView() {
-        if (frog.getLives() <= 0) {
-            view.renderGameOver(calculateScore());
-            return;
+        long start = System.nanoTime();
+        if (firstTick < 0) {
+            firstTick = snapshot.getTickCount();
         }
-
-        view.clearScene();
-
-        // Render lanes
-        for (int i = 0; i < lanes.size(); i++) {
-            Lane lane = lanes.get(i);
-            if (i == 0 || i == 6 || i == 12) {
-                view.renderGroundLane(lane, i);
-            } else if (i >= 1 && i <= 5) {
-                view.renderLogLane(lane, i);
-            } else {
-                view.renderTrafficLane(lane, i);
-            }
+        if (interpolation) {
+            // Sprites move between ticks, so they are drawn on every frame
+            view.renderSnapshot(snapshot, snapshot.getAlpha(System.nanoTime()));
+        } else if (snapshot.getSequence() != renderedSequence) {
+            // Sprites only move when the simulation published a new snapshot
+            view.renderSnapshot(snapshot, 1);
+            renderedSequence = snapshot.getSequence();
         }
 
-        // Render tokens using objects list
-        for (GameObjectNotControllable obj : objects) {
-            if (obj instanceof Token) {
-                view.renderToken(obj);
-            }
-        }
-
-        view.renderFrog(frog);
-        view.renderLives(frog);
-        view.renderScore(currentScore);
-    }
+        view.renderHud(snapshot.getLives(), snapshot.getScore());
+        renderNanos += System.nanoTime() - start;
+        renderedFrames++;
 
-    /**
-     * Starts the game timer.
-     */
-    private void startTimer() {
-        timeline = new Timeline(new KeyFrame(Duration.seconds(1), event -> {
-            if (timeLeft > 0) {
-                timeLeft--;  // Decrement the time
-                double progress = timeLeft / GlobalVariables.GAME_DURATION;  // Calculate the remaining percentage
-                view.updateTimerDisplay(progress);  // Update the timer display in the view
-            } else {
-                view.updateTimerDisplay(0);  // If the time is up, the bar is empty
-                timeline.stop();
-                gameOver();  // Call the function when the time is up
-            }
-        }));
-        timeline.setCycleCount(Timeline.INDEFINITE);  // Repeat the cycle
-        timeline.play();  // Start the timer
-    }
-
-    /**
-     * Stops the game timer.
-     */
-    private void stopTimer() {
-        this.timeline.stop();
+        // Update the timer display in the view once per second
+        int secondsLeft = snapshot.getSecondsLeft();
+        if (secondsLeft != shownSecondsLeft) {
+            shownSecondsLeft = secondsLeft;
+            view.updateTimerDisplay((double) secondsLeft / GlobalVariables.GAME_DURATION);
+        }
     }
 
     /**
      * Toggles the pause state of the game.
+     * Nothing happens once the match is ending.
      */
     public void togglePause() {
-        isPaused = !isPaused;
-        mainApp.showSettingsButton(isPaused);
-        mainApp.showPausedLabel(isPaused);
-        if (isPaused) {
-            timeline.pause();  // Pause the timer
-        } else {
-            timeline.play();  // Resume the timer
+        if (!moveTo(phase == MatchPhase.PAUSED ? MatchPhase.RUNNING : MatchPhase.PAUSED)) {
+            return;
         }
+        boolean paused = phase == MatchPhase.PAUSED;
+        simulation.setPaused(paused);
+        mainApp.showSettingsButton(paused);
+        mainApp.showPausedLabel(paused);
     }
 
     /**
-     * Handles the game over state.
+     * Handles the game over state, only the first time the match ends.
+     * The game over screen is shown straight away, while the score is saved and the leaderboard
+     * and the rank of the player loaded in the background, so the JavaFX thread never waits on the scores file.
      */
     private void gameOver() {
+        if (!moveTo(MatchPhase.ENDING)) {
+            return;
+        }
         stop();
-        stopTimer();
+        view.updateTimerDisplay((double) snapshot.getSecondsLeft() / GlobalVariables.GAME_DURATION);
         SoundManager.stopBackgroundMusic();
         SoundManager.playGameOverMusic();
         int finalScore = calculateScore();
         String playerName = view.getPlayerName();
-        PlayerScoreManager.saveScore(playerName, finalScore);
+        long playTimeMillis = snapshot.getPlayTimeMillis();
         view.renderGameOver(finalScore);
         System.out.println("Punteggio " + finalScore);
+
+        CompletableFuture.supplyAsync(() -> PlayerScoreManager.saveScore(playerName, finalScore, playTimeMillis))
+            .whenComplete((saved, error) -> {
+                if (error != null) {
+                    error.printStackTrace();
+                }
+                List<Map.Entry<String, Integer>> shown = PlayerScoreManager.getTopScores(TOP_SCORES);
+                // A score that was not saved has no rank among the saved ones
+                boolean ranked = error == null && saved;
+                long rank = ranked ? PlayerScoreManager.getRank(finalScore) : 0;
+                long total = ranked ? PlayerScoreManager.getScoreCount() : 0;
+                Platform.runLater(() -> showLeaderboard(shown, rank, total));
+            });
+    }
+
+    /**
+     * Shows the leaderboard and the rank of the player on the game over screen, and ends the match.
+     *
+     * @param topScores the best scores, from the highest
+     * @param rank      the rank of the final score among all the saved scores
+     * @param total     the number of saved scores, or 0 to leave the rank out
+     */
+    private void showLeaderboard(final List<Map.Entry<String, Integer>> topScores, final long rank, final long total) {
+        if (moveTo(MatchPhase.OVER)) {
+            view.renderTopScores(topScores, rank, total);
+        }
     }
 
     /**
-     * Stops the game loop.
+     * Stops the game loop and the simulation.
      */
     public void stop() {
         gameLoop.stop();
+        simulation.stop();
     }
 
     /**
      * Updates the score by a given value.
+     * The points are added by the simulation thread, so they show up in the next snapshots.
      *
      * @param value the value to add to the current score
-     * @return the updated score
+     * @return the score expected once the points are added
      */
     public int updateScore(final int value) {
-        currentScore += value;
-        return currentScore;
+        simulation.addScore(value);
+        return snapshot.getScore() + value;
     }
 
     /**
@@ -297,6 +281,6 @@ public class MatchController implements ViewObserver {
      */
     private int calculateScore() {
         // Implement score calculation logic
-        return currentScore;
+        return snapshot.getScore();
     }
 }
@@ -0,0 +1,32 @@
+package it.unibo.frogger.controller;
+
+/**
+ * The phases a match goes through, from the first frame to the game over screen.
+ * A match only moves forward: it can be paused and resumed while it runs,
+ * but once it is ending it never runs again.
+ */
+public enum MatchPhase {
+    /** The match is simulated and drawn. */
+    RUNNING,
+    /** The simulation is suspended until the player resumes it. */
+    PAUSED,
+    /** The match is over: the score is being saved and the leaderboard loaded. */
+    ENDING,
+    /** The game over screen shows the final score and the leaderboard. */
+    OVER;
+
+    /**
+     * Checks whether a match in this phase can move to another one.
+     *
+     * @param next the phase to move to
+     * @return true if the transition is allowed, false otherwise
+     */
+    public boolean canMoveTo(final MatchPhase next) {
+        switch (this) {
+            case RUNNING: return next == PAUSED || next == ENDING;
+            case PAUSED: return next == RUNNING || next == ENDING;
+            case ENDING: return next == OVER;
+            default: return false;
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package it.unibo.frogger.controller;
+
+import it.unibo.frogger.core.Direction;
+import it.unibo.frogger.core.Frog;
+import it.unibo.frogger.core.GameObjectNotControllable;
+import it.unibo.frogger.core.GlobalVariables;
+import it.unibo.frogger.core.Lane;
+import it.unibo.frogger.core.Match;
+import it.unibo.frogger.core.SoundPlayer;
+import it.unibo.frogger.core.Token;
+
+import java.util.List;
+
+/**
+ * This class runs the rules of a match one tick at a time.
+ * It does not depend on JavaFX, so matches can be simulated both by the game
+ * and headless, for instance by the batch runner.
+ */
+public class MatchSimulation {
+    private final Match match;
+    private final Frog frog;
+    private final List<Lane> lanes;
+    private final List<GameObjectNotControllable> objects;
+    private final CollisionDetector collisionDetector;
+    private final LaneIndex laneIndex;
+    private final SoundPlayer soundPlayer;
+    private final int ticksPerGame;
+    private final int[] deathsByLane = new int[GlobalVariables.LANE_NUMBER];
+    private int ticksLeft;
+    private long tickCount;
+    private int score;
+    private int level;
+
+    /**
+     * Constructs a new MatchSimulation.
+     *
+     * @param match       the match to simulate
+     * @param soundPlayer the player of the sound effects triggered by the game
+     */
+    public MatchSimulation(final Match match, final SoundPlayer soundPlayer) {
+        this.match = match;
+        this.frog = match.getFrog();
+        this.lanes = match.getLanes();
+        this.objects = match.getObjects();
+        this.soundPlayer = soundPlayer;
+        this.collisionDetector = new CollisionDetector(soundPlayer, match.getTickRate());
+        this.laneIndex = new LaneIndex(lanes);
+        this.ticksPerGame = GlobalVariables.GAME_DURATION * match.getTickRate();
+        this.ticksLeft = ticksPerGame;
+    }
+
+    /**
+     * Advances the match by a single tick.
+     * Nothing happens once the match is over.
+     */
+    public void tick() {
+        if (isOver()) {
+            return;
+        }
+        tickCount++;
+        collisionDetector.nextTick();
+
+        // Update game state, with indexed loops so that a tick allocates nothing
+        for (int i = 0; i < lanes.size(); i++) {
+            lanes.get(i).updateObjectsPosition();
+        }
+
+        // Check collisions with lane objects
+        int frogLane = frog.getLanePosition();
+        int deaths = collisionDetector.getDeathCount();
+        collisionDetector.handleCollisions(frog, laneIndex);
+
+        // Check collisions with tokens and other objects not in lanes
+        collisionDetector.handleCollisions(frog, objects);
+        if (collisionDetector.getDeathCount() > deaths) {
+            deathsByLane[frogLane]++;
+        }
+
+        // Update frog position if on log
+        frog.updatePosition();
+
+        // Check frog on top lane:
+        // reset frog position, update score, increment game level
+        if (frog.getLanePosition() == GlobalVariables.LANE_END) {
+            frog.resetPosition(GlobalVariables.WIDTH / 2, GlobalVariables.HEIGHT - GlobalVariables.JUMP_SIZE);
+            updateScore(100);
+            incrementLevel();
+        }
+
+        if (ticksLeft > 0) {
+            ticksLeft--;
+        }
+    }
+
+    /**
+     * Moves the frog in the given direction.
+     * Moving up is rewarded with points.
+     *
+     * @param direction the direction of movement
+     */
+    public void move(final Direction direction) {
+        if (isOver()) {
+            return;
+        }
+        frog.move(direction);
+        soundPlayer.playSound("jump");
+        if (direction == Direction.UP) {
+            updateScore(10);
+        }
+    }
+
+    /**
+     * Increments the game level by increasing the speed of logs and obstacles.
+     */
+    private void incrementLevel() {
+        soundPlayer.playSound("levelup");
+        level++;
+        for (int i = 0; i < lanes.size(); i++) {
+            lanes.get(i).incrementSpeed(1); // Increment speed by 1 (adjust as needed)
+        }
+
+        boolean tokenFlag = false;
+        for (int i = 0; i < objects.size(); i++) {
+            if (objects.get(i) instanceof Token) {
+                tokenFlag = true;
+            }
+        }
+        if (tokenFlag == false) {
+            match.addTokenInValidPosition();
+        }
+
+        ticksLeft = ticksPerGame;
+    }
+
+    /**
+     * Checks whether the match is over, because the frog has no lives left or the time is up.
+     *
+     * @return true if the match is over, false otherwise
+     */
+    public boolean isOver() {
+        return frog.getLives() <= 0 || ticksLeft <= 0;
+    }
+
+    /**
+     * Updates the score by a given value.
+     *
+     * @param value the value to add to the current score
+     * @return the updated score
+     */
+    public int updateScore(final int value) {
+        score += value;
+        return score;
+    }
+
+    /**
+     * Gets the current score.
+     *
+     * @return the current score
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Gets the number of levels completed.
+     *
+     * @return the number of levels completed
+     */
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * Gets the number of ticks simulated.
+     *
+     * @return the number of ticks simulated
+     */
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    /**
+     * Gets the number of whole seconds left to complete the level.
+     *
+     * @return the seconds left, rounded up
+     */
+    public int getSecondsLeft() {
+        return (ticksLeft + match.getTickRate() - 1) / match.getTickRate();
+    }
+
+    /**
+     * Gets the number of lives lost in the given lane.
+     *
+     * @param lane the index of the lane, from the top of the screen
+     * @return the number of lives lost in the lane
+     */
+    public int getDeaths(final int lane) {
+        return deathsByLane[lane];
+    }
+
+    /**
+     * Gets the simulated match.
+     *
+     * @return the match
+     */
+    public Match getMatch() {
+        return match;
+    }
+}
@@ -0,0 +1,176 @@
+package it.unibo.frogger.controller;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import it.unibo.frogger.core.Direction;
+import it.unibo.frogger.core.GlobalVariables;
+import it.unibo.frogger.core.Lane;
+import it.unibo.frogger.core.Match;
+
+/**
+ * Runs a match on a dedicated thread at its fixed tick rate, apart from the thread drawing it.
+ * The two threads never wait for each other: moves and score bonuses reach the simulation
+ * through lock-free queues, and the simulation publishes a {@link WorldSnapshot} through a
+ * {@link TripleBuffer} each time the world changes. Sound effects triggered by the rules are
+ * queued back, so the drawing thread can play them.
+ */
+public class SimulationThread implements Runnable {
+    private static final int INPUT_CAPACITY = 64;
+    private static final int EVENT_CAPACITY = 64;
+    private static final int EXTRA_OBJECTS = 4;
+    private static final long PAUSE_POLL_NANOS = 50_000_000L;
+
+    private final MatchSimulation simulation;
+    private final FixedTimestepLoop loop;
+    private final Runnable tick;
+    private final TripleBuffer<WorldSnapshot> snapshots;
+    private final SpscQueue<Direction> moves = new SpscQueue<>(INPUT_CAPACITY);
+    private final SpscQueue<String> sounds = new SpscQueue<>(EVENT_CAPACITY);
+    private final AtomicInteger pendingScore = new AtomicInteger();
+    private final Thread thread;
+    private long published;
+    private volatile boolean paused;
+    private volatile boolean running = true;
+
+    /**
+     * Constructs a new SimulationThread. The simulation starts with {@link #start()}.
+     *
+     * @param match the match to simulate
+     */
+    public SimulationThread(final Match match) {
+        this.simulation = new MatchSimulation(match, sounds::offer);
+        this.loop = new FixedTimestepLoop(match.getTickRate(), GlobalVariables.MAX_CATCH_UP_TICKS);
+        this.tick = simulation::tick;
+
+        int capacity = match.getObjects().size() + EXTRA_OBJECTS;
+        for (Lane lane : match.getLanes()) {
+            capacity += lane.getObjects().size();
+        }
+        this.snapshots = new TripleBuffer<>(
+            new WorldSnapshot(capacity), new WorldSnapshot(capacity), new WorldSnapshot(capacity));
+        publish(); // The initial world is ready before the first tick
+
+        this.thread = new Thread(this, "simulation");
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * Starts simulating the match.
+     */
+    public void start() {
+        thread.start();
+    }
+
+    /**
+     * Stops simulating the match, without waiting for the thread to end.
+     */
+    public void stop() {
+        running = false;
+        LockSupport.unpark(thread);
+    }
+
+    /**
+     * Pauses or resumes the simulation. Moves queued while paused are dropped, so that a pause
+     * never stores jumps that would all happen on resume.
+     *
+     * @param paused true to pause the simulation, false to resume it
+     */
+    public void setPaused(final boolean paused) {
+        this.paused = paused;
+        LockSupport.unpark(thread);
+    }
+
+    /**
+     * Queues a move of the frog. Only a single thread may queue moves.
+     * The move is dropped if too many moves are waiting already.
+     *
+     * @param direction the direction of movement
+     */
+    public void move(final Direction direction) {
+        if (moves.offer(direction)) {
+            LockSupport.unpark(thread); // Apply it now instead of at the next tick
+        }
+    }
+
+    /**
+     * Queues points to add to the score.
+     *
+     * @param value the points to add
+     */
+    public void addScore(final int value) {
+        pendingScore.addAndGet(value);
+        LockSupport.unpark(thread);
+    }
+
+    /**
+     * Gets the latest world published by the simulation. Only a single thread may read the world.
+     *
+     * @return the latest snapshot, valid until the next call
+     */
+    public WorldSnapshot acquireSnapshot() {
+        return snapshots.acquire();
+    }
+
+    /**
+     * Takes the next sound effect triggered by the simulation. Only a single thread may take them.
+     *
+     * @return the name of the sound effect, or null if there is none
+     */
+    public String pollSound() {
+        return sounds.poll();
+    }
+
+    /**
+     * Simulates the match until it is over or stopped, sleeping until the next tick is due.
+     */
+    @Override
+    public void run() {
+        while (running) {
+            boolean changed = applyInputs(!paused);
+            if (paused) {
+                loop.reset();
+            } else {
+                changed |= loop.advance(System.nanoTime(), tick) > 0;
+            }
+            if (changed) {
+                publish();
+            }
+            if (simulation.isOver()) {
+                return;
+            }
+            LockSupport.parkNanos(paused ? PAUSE_POLL_NANOS : loop.getNanosToNextTick());
+        }
+    }
+
+    /**
+     * Applies the queued score bonuses and either applies or drops the queued moves.
+     *
+     * @param applyMoves true to apply the queued moves, false to drop them
+     * @return true if anything was applied, false otherwise
+     */
+    private boolean applyInputs(final boolean applyMoves) {
+        boolean applied = false;
+        Direction direction;
+        while ((direction = moves.poll()) != null) {
+            if (applyMoves) {
+                simulation.move(direction);
+                applied = true;
+            }
+        }
+        int score = pendingScore.getAndSet(0);
+        if (score != 0) {
+            simulation.updateScore(score);
+            applied = true;
+        }
+        return applied;
+    }
+
+    /**
+     * Copies the world into the write buffer and publishes it.
+     */
+    private void publish() {
+        snapshots.getWriteBuffer().capture(simulation, published++, loop.getLastTickTime());
+        snapshots.publish();
+    }
+}
@@ -0,0 +1,61 @@
+package it.unibo.frogger.controller;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded lock-free queue between a single producer thread and a single consumer thread.
+ * Elements are stored in a preallocated ring, so offering and polling never allocate or block.
+ *
+ * @param <E> the type of the elements
+ */
+public class SpscQueue<E> {
+    private final Object[] ring;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong(); // Next slot to read, written by the consumer
+    private final AtomicLong tail = new AtomicLong(); // Next slot to write, written by the producer
+
+    /**
+     * Constructs a new SpscQueue.
+     *
+     * @param capacity the maximum number of elements, rounded up to a power of two
+     */
+    public SpscQueue(final int capacity) {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.ring = new Object[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Adds an element at the end of the queue. Only the producer thread may call this.
+     *
+     * @param element the element to add
+     * @return true if the element was added, false if the queue is full
+     */
+    public boolean offer(final E element) {
+        long t = tail.get();
+        if (t - head.get() == ring.length) {
+            return false;
+        }
+        ring[(int) (t & mask)] = element;
+        tail.lazySet(t + 1); // Publishes the element to the consumer
+        return true;
+    }
+
+    /**
+     * Removes the element at the head of the queue. Only the consumer thread may call this.
+     *
+     * @return the element, or null if the queue is empty
+     */
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        long h = head.get();
+        if (h == tail.get()) {
+            return null;
+        }
+        int index = (int) (h & mask);
+        E element = (E) ring[index];
+        ring[index] = null;
+        head.lazySet(h + 1); // Frees the slot for the producer
+        return element;
+    }
+}
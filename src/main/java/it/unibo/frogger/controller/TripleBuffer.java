@@ -0,0 +1,66 @@
+package it.unibo.frogger.controller;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands values over from a single writer thread to a single reader thread without locks.
+ * Three preallocated buffers rotate between the writer, the reader and a shared slot:
+ * the writer fills its buffer and swaps it with the shared one, and the reader swaps its
+ * buffer with the shared one when a newer value was published. Neither side ever waits
+ * for the other, and the reader always sees the latest complete value.
+ *
+ * @param <T> the type of the buffers
+ */
+public class TripleBuffer<T> {
+    private static final int INDEX_MASK = 0b11;
+    private static final int FRESH = 0b100;
+
+    private final Object[] buffers;
+    private final AtomicInteger shared = new AtomicInteger(1);
+    private int writeIndex;
+    private int readIndex = 2;
+
+    /**
+     * Constructs a new TripleBuffer.
+     *
+     * @param first  the first buffer
+     * @param second the second buffer
+     * @param third  the third buffer
+     */
+    public TripleBuffer(final T first, final T second, final T third) {
+        this.buffers = new Object[] {first, second, third};
+    }
+
+    /**
+     * Gets the buffer the writer fills. Only the writer thread may call this.
+     *
+     * @return the buffer to write
+     */
+    @SuppressWarnings("unchecked")
+    public T getWriteBuffer() {
+        return (T) buffers[writeIndex];
+    }
+
+    /**
+     * Publishes the write buffer to the reader and takes a free buffer to write next.
+     * Only the writer thread may call this.
+     */
+    public void publish() {
+        writeIndex = shared.getAndSet(writeIndex | FRESH) & INDEX_MASK;
+    }
+
+    /**
+     * Gets the latest published buffer. Only the reader thread may call this.
+     * The buffer stays valid until the next call, and is the same as the previous one
+     * if nothing was published in between.
+     *
+     * @return the latest published buffer
+     */
+    @SuppressWarnings("unchecked")
+    public T acquire() {
+        if ((shared.get() & FRESH) != 0) {
+            readIndex = shared.getAndSet(readIndex) & INDEX_MASK;
+        }
+        return (T) buffers[readIndex];
+    }
+}
@@ -0,0 +1,237 @@
+package it.unibo.frogger.controller;
+
+import java.util.Arrays;
+import java.util.List;
+
+import it.unibo.frogger.core.Frog;
+import it.unibo.frogger.core.GameObjectNotControllable;
+import it.unibo.frogger.core.Lane;
+import it.unibo.frogger.core.Match;
+import it.unibo.frogger.core.Sprite;
+
+/**
+ * A copy of everything the view draws, taken by the simulation thread after it advanced.
+ * Snapshots are preallocated and reused through a {@link TripleBuffer}: the simulation thread
+ * fills one while the view reads another, and a published snapshot is never modified
+ * until the view has moved on to a newer one.
+ * Entities are stored in drawing order: lane objects, then the other objects, then the frog.
+ */
+public class WorldSnapshot {
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+
+    private Sprite[] sprites;
+    private int[] xs;
+    private int[] previousXs;
+    private int[] ys;
+    private int count;
+    private long sequence;
+    private long tickCount;
+    private long tickTime;
+    private long tickDuration;
+    private int lives;
+    private int score;
+    private int secondsLeft;
+    private boolean over;
+
+    /**
+     * Constructs a new WorldSnapshot able to hold the given number of entities without growing.
+     *
+     * @param capacity the number of entities
+     */
+    public WorldSnapshot(final int capacity) {
+        this.sprites = new Sprite[capacity];
+        this.xs = new int[capacity];
+        this.previousXs = new int[capacity];
+        this.ys = new int[capacity];
+    }
+
+    /**
+     * Copies the state of a simulation into this snapshot.
+     *
+     * @param simulation the simulation to copy
+     * @param sequence   the number of snapshots published before this one
+     * @param tickTime   the time at which the last tick was due, in nanoseconds, or -1 if unknown
+     */
+    public void capture(final MatchSimulation simulation, final long sequence, final long tickTime) {
+        Match match = simulation.getMatch();
+        count = 0;
+        List<Lane> lanes = match.getLanes();
+        for (int i = 0; i < lanes.size(); i++) {
+            addAll(lanes.get(i).getObjects());
+        }
+        addAll(match.getObjects());
+        Frog frog = match.getFrog();
+        add(frog.getSprite(), frog.getPreviousXPosition(), frog.getXPosition(), frog.getYPosition());
+
+        this.sequence = sequence;
+        this.tickCount = simulation.getTickCount();
+        this.tickTime = tickTime;
+        this.tickDuration = NANOS_PER_SECOND / match.getTickRate();
+        this.lives = frog.getLives();
+        this.score = simulation.getScore();
+        this.secondsLeft = simulation.getSecondsLeft();
+        this.over = simulation.isOver();
+    }
+
+    /**
+     * Adds a list of objects to the snapshot.
+     *
+     * @param objects the objects to add
+     */
+    private void addAll(final List<GameObjectNotControllable> objects) {
+        for (int i = 0; i < objects.size(); i++) {
+            GameObjectNotControllable obj = objects.get(i);
+            add(obj.getSprite(), obj.getPreviousXPosition(), obj.getXPosition(), obj.getYPosition());
+        }
+    }
+
+    /**
+     * Adds an entity to the snapshot, growing it if it is full.
+     *
+     * @param sprite    the sprite of the entity
+     * @param previousX the x position of the entity before the last tick
+     * @param x         the x position of the entity
+     * @param y         the y position of the entity
+     */
+    private void add(final Sprite sprite, final int previousX, final int x, final int y) {
+        if (count == sprites.length) {
+            int capacity = Math.max(1, count * 2);
+            sprites = Arrays.copyOf(sprites, capacity);
+            xs = Arrays.copyOf(xs, capacity);
+            previousXs = Arrays.copyOf(previousXs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+        }
+        sprites[count] = sprite;
+        xs[count] = x;
+        previousXs[count] = previousX;
+        ys[count] = y;
+        count++;
+    }
+
+    /**
+     * Gets the number of entities in the snapshot.
+     *
+     * @return the number of entities
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the sprite of an entity.
+     *
+     * @param index the index of the entity
+     * @return the sprite of the entity
+     */
+    public Sprite getSprite(final int index) {
+        return sprites[index];
+    }
+
+    /**
+     * Gets the x position of an entity.
+     *
+     * @param index the index of the entity
+     * @return the x position of the entity
+     */
+    public int getX(final int index) {
+        return xs[index];
+    }
+
+    /**
+     * Gets the x position of an entity between the last two ticks.
+     *
+     * @param index the index of the entity
+     * @param alpha how far between the two ticks, from 0 (previous tick) to 1 (last tick)
+     * @return the interpolated x position of the entity
+     */
+    public double getX(final int index, final double alpha) {
+        return previousXs[index] + (xs[index] - previousXs[index]) * alpha;
+    }
+
+    /**
+     * Gets how far the given time is between the last tick and the next one.
+     *
+     * @param now the time, in nanoseconds
+     * @return a value between 0 (the last tick was just simulated) and 1 (the next tick is due)
+     */
+    public double getAlpha(final long now) {
+        if (tickTime < 0) {
+            return 1;
+        }
+        return Math.max(0, Math.min(1, (double) (now - tickTime) / tickDuration));
+    }
+
+    /**
+     * Gets the y position of an entity.
+     *
+     * @param index the index of the entity
+     * @return the y position of the entity
+     */
+    public int getY(final int index) {
+        return ys[index];
+    }
+
+    /**
+     * Gets the number of snapshots published before this one.
+     *
+     * @return the sequence number of the snapshot
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Gets the number of ticks simulated when the snapshot was taken.
+     *
+     * @return the number of ticks
+     */
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    /**
+     * Gets the time played when the snapshot was taken, leaving out the time spent paused.
+     *
+     * @return the simulated time, in milliseconds
+     */
+    public long getPlayTimeMillis() {
+        return tickCount * tickDuration / NANOS_PER_MILLI;
+    }
+
+    /**
+     * Gets the lives of the frog.
+     *
+     * @return the lives of the frog
+     */
+    public int getLives() {
+        return lives;
+    }
+
+    /**
+     * Gets the score.
+     *
+     * @return the score
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Gets the number of whole seconds left to complete the level.
+     *
+     * @return the seconds left
+     */
+    public int getSecondsLeft() {
+        return secondsLeft;
+    }
+
+    /**
+     * Checks whether the match was over when the snapshot was taken.
+     *
+     * @return true if the match is over, false otherwise
+     */
+    public boolean isOver() {
+        return over;
+    }
+}
@@ -0,0 +1,400 @@
+package it.unibo.frogger.core;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stores every score ever made in a binary file mapped in memory.
+ * The file starts with a header holding a magic number, the format version and the number
+ * of records, followed by fixed-width records: the id of the player name, the score and
+ * when it was made, in epoch milliseconds. Names are kept once each in a separate name table,
+ * one UTF-8 line per name, the line number being the id. A new name is forced to the disk before
+ * it is handed out, so a record on the disk never refers to a name the name table lost.
+ * Scanning the records reads them straight from the mapping, without allocating anything,
+ * and appending writes a record and then bumps the count in the header, so a record is never
+ * seen before it is complete.
+ */
+public class BinaryScoreFile implements Closeable {
+    /** The number of bytes of the header. */
+    public static final int HEADER_SIZE = 16;
+    /** The number of bytes of a record. */
+    public static final int RECORD_SIZE = 16;
+    /** The version of the format written by this class. */
+    public static final int VERSION = 1;
+
+    private static final int MAGIC = 0x46525343; // "FRSC"
+    private static final int VERSION_OFFSET = 4;
+    private static final int COUNT_OFFSET = 8;
+    private static final int SCORE_OFFSET = 4;
+    private static final int TIMESTAMP_OFFSET = 8;
+    private static final int MIN_CAPACITY = 1024;
+
+    private final FileChannel channel;
+    private final FileChannel namesChannel;
+    private final List<String> names = new ArrayList<>();
+    // Looked up without the lock, so that finding a player never waits for a commit
+    private final Map<String, Integer> nameIds = new ConcurrentHashMap<>();
+    private MappedByteBuffer records;
+    private long count;
+
+    /**
+     * Receives the records of the file, in the order they were appended.
+     */
+    @FunctionalInterface
+    public interface RecordVisitor {
+        /**
+         * Visits a record.
+         * The name is the one held by the name table, shared by every record of the player.
+         *
+         * @param nameId    the id of the player name
+         * @param name      the name of the player
+         * @param score     the score
+         * @param timestamp when the score was made, in epoch milliseconds, or 0 if unknown
+         */
+        void visit(int nameId, String name, int score, long timestamp);
+    }
+
+    /**
+     * Opens a score file, creating it and its name table if they do not exist.
+     *
+     * @param recordsPath the path of the records file
+     * @param namesPath   the path of the name table
+     * @throws IOException if the files cannot be read, are not score files or refer to unknown names
+     */
+    public BinaryScoreFile(final Path recordsPath, final Path namesPath) throws IOException {
+        this.channel = FileChannel.open(recordsPath,
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        FileChannel table = null;
+        try {
+            table = FileChannel.open(namesPath,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            if (channel.size() == 0) {
+                map(MIN_CAPACITY);
+                records.putInt(0, MAGIC);
+                records.putInt(VERSION_OFFSET, VERSION);
+                records.putLong(COUNT_OFFSET, 0);
+            } else {
+                if (channel.size() < HEADER_SIZE) {
+                    throw new IOException("Not a score file: " + recordsPath);
+                }
+                map((channel.size() - HEADER_SIZE) / RECORD_SIZE);
+                readHeader(recordsPath);
+            }
+            readNames(table);
+            checkNameIds(recordsPath);
+        } catch (IOException e) {
+            if (table != null) {
+                table.close();
+            }
+            channel.close();
+            throw e;
+        }
+        this.namesChannel = table;
+    }
+
+    /**
+     * Imports the records of a text score log into a new score file.
+     * Malformed lines of the log are skipped, and a missing log gives an empty file.
+     * New names are not forced one by one, only the name table and the records once at the end:
+     * if the import fails, the files created so far are deleted, so that it can be tried again.
+     *
+     * @param log         the text log to import
+     * @param recordsPath the path of the records file to create
+     * @param namesPath   the path of the name table to create
+     * @return the score file, holding every record of the log
+     * @throws IOException if the log cannot be read or the score file already exists
+     */
+    public static BinaryScoreFile importFrom(final ScoreLog log, final Path recordsPath, final Path namesPath)
+        throws IOException {
+        if (Files.exists(recordsPath)) {
+            throw new IOException("The score file already exists: " + recordsPath);
+        }
+        BinaryScoreFile file = new BinaryScoreFile(recordsPath, namesPath);
+        try {
+            IOException[] failure = new IOException[1];
+            log.read((buffer, nameOffset, nameLength, score, timestamp) -> {
+                if (failure[0] == null) {
+                    try {
+                        String name = new String(buffer, nameOffset, nameLength, StandardCharsets.UTF_8);
+                        file.append(name, score, timestamp, false);
+                    } catch (IOException e) {
+                        failure[0] = e;
+                    }
+                }
+            });
+            if (failure[0] != null) {
+                throw failure[0];
+            }
+            file.namesChannel.force(false);
+            file.force();
+        } catch (IOException e) {
+            file.close();
+            Files.deleteIfExists(recordsPath);
+            Files.deleteIfExists(namesPath);
+            throw e;
+        }
+        return file;
+    }
+
+    /**
+     * Appends a record, adding the name to the name table if it is new.
+     * Line breaks in the name are replaced with spaces, since the name table is line based.
+     *
+     * @param name      the name of the player
+     * @param score     the score
+     * @param timestamp when the score was made, in epoch milliseconds
+     * @return the id of the name of the player
+     * @throws IOException if the files cannot be written
+     */
+    public synchronized int append(final String name, final int score, final long timestamp) throws IOException {
+        return append(name, score, timestamp, true);
+    }
+
+    /**
+     * Appends a record, adding the name to the name table if it is new.
+     *
+     * @param name       the name of the player
+     * @param score      the score
+     * @param timestamp  when the score was made, in epoch milliseconds
+     * @param forceNames whether a new name is forced to the disk before the record refers to it
+     * @return the id of the name of the player
+     * @throws IOException if the files cannot be written
+     */
+    private synchronized int append(final String name, final int score, final long timestamp,
+        final boolean forceNames) throws IOException {
+        int nameId = getNameId(name, forceNames);
+        if (HEADER_SIZE + (count + 1) * RECORD_SIZE > records.capacity()) {
+            map(Math.max(MIN_CAPACITY, count * 2));
+        }
+        int offset = (int) (HEADER_SIZE + count * RECORD_SIZE);
+        records.putInt(offset, nameId);
+        records.putInt(offset + SCORE_OFFSET, score);
+        records.putLong(offset + TIMESTAMP_OFFSET, timestamp);
+        count++;
+        records.putLong(COUNT_OFFSET, count);
+        return nameId;
+    }
+
+    /**
+     * Visits every record of the file.
+     *
+     * @param visitor the visitor to hand the records to
+     * @return the number of records visited
+     */
+    public synchronized long scan(final RecordVisitor visitor) {
+        return scan(0, visitor);
+    }
+
+    /**
+     * Visits the records of the file from a given one on.
+     *
+     * @param from    the number of records to skip
+     * @param visitor the visitor to hand the records to
+     * @return the number of records visited
+     */
+    public synchronized long scan(final long from, final RecordVisitor visitor) {
+        MappedByteBuffer buffer = records;
+        int end = (int) (HEADER_SIZE + count * RECORD_SIZE);
+        for (int offset = (int) (HEADER_SIZE + Math.min(from, count) * RECORD_SIZE); offset < end;
+            offset += RECORD_SIZE) {
+            int nameId = buffer.getInt(offset);
+            visitor.visit(nameId, names.get(nameId), buffer.getInt(offset + SCORE_OFFSET),
+                buffer.getLong(offset + TIMESTAMP_OFFSET));
+        }
+        return count - Math.min(from, count);
+    }
+
+    /**
+     * Gets the id of a name, appending it to the name table if it is new.
+     * Line breaks in the name are replaced with spaces, since the name table is line based.
+     * A new name is on the disk when this method returns, so records may refer to it at once.
+     *
+     * @param playerName the name of the player
+     * @return the id of the name
+     * @throws IOException if the name table cannot be written
+     */
+    public synchronized int getNameId(final String playerName) throws IOException {
+        return getNameId(playerName, true);
+    }
+
+    /**
+     * Gets the id of a name, appending it to the name table if it is new.
+     *
+     * @param playerName the name of the player
+     * @param force      whether a new name is forced to the disk before its id is handed out
+     * @return the id of the name
+     * @throws IOException if the name table cannot be written
+     */
+    private synchronized int getNameId(final String playerName, final boolean force) throws IOException {
+        String name = sanitize(playerName);
+        Integer id = nameIds.get(name);
+        if (id != null) {
+            return id;
+        }
+        ByteBuffer line = ByteBuffer.wrap((name + "\n").getBytes(StandardCharsets.UTF_8));
+        long position = namesChannel.size();
+        while (line.hasRemaining()) {
+            position += namesChannel.write(line, position);
+        }
+        if (force) {
+            namesChannel.force(false);
+        }
+        names.add(name);
+        nameIds.put(name, names.size() - 1);
+        return names.size() - 1;
+    }
+
+    /**
+     * Gets the id of a name, without adding it to the name table.
+     *
+     * @param name the name of the player
+     * @return the id of the name, or -1 if no score was ever made under that name
+     */
+    public int findNameId(final String name) {
+        return nameIds.getOrDefault(sanitize(name), -1);
+    }
+
+    /**
+     * Gets the name of a player from its id.
+     *
+     * @param nameId the id of the name
+     * @return the name of the player
+     */
+    public synchronized String getName(final int nameId) {
+        return names.get(nameId);
+    }
+
+    /**
+     * Gets the number of records of the file.
+     *
+     * @return the number of records
+     */
+    public synchronized long getRecordCount() {
+        return count;
+    }
+
+    /**
+     * Writes the records still in memory to the disk.
+     */
+    public synchronized void force() {
+        records.force();
+    }
+
+    /**
+     * Closes the file, writing the records to the disk first.
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        records.force();
+        try {
+            namesChannel.close();
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Checks the header of the file and reads the number of records.
+     *
+     * @param recordsPath the path of the file, to report errors
+     * @throws IOException if the header does not belong to a score file of this version
+     */
+    private void readHeader(final Path recordsPath) throws IOException {
+        if (records.getInt(0) != MAGIC) {
+            throw new IOException("Not a score file: " + recordsPath);
+        }
+        int version = records.getInt(VERSION_OFFSET);
+        if (version != VERSION) {
+            throw new IOException("Unsupported score file version " + version + ": " + recordsPath);
+        }
+        count = records.getLong(COUNT_OFFSET);
+        if (count < 0 || HEADER_SIZE + count * RECORD_SIZE > channel.size()) {
+            throw new IOException("Truncated score file: " + recordsPath);
+        }
+    }
+
+    /**
+     * Reads the name table, dropping a last line cut short by a crash.
+     * Such a name was never handed out, since names are forced to the disk before.
+     *
+     * @param table the name table
+     * @throws IOException if the name table cannot be read
+     */
+    private void readNames(final FileChannel table) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) table.size());
+        while (buffer.hasRemaining()) {
+            if (table.read(buffer, buffer.position()) < 0) {
+                break;
+            }
+        }
+        byte[] bytes = buffer.array();
+        int start = 0;
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] == '\n') {
+                String name = new String(bytes, start, i - start, StandardCharsets.UTF_8);
+                nameIds.put(name, names.size());
+                names.add(name);
+                start = i + 1;
+            }
+        }
+        if (start < bytes.length) {
+            table.truncate(start);
+        }
+    }
+
+    /**
+     * Checks that every record refers to a name of the name table.
+     *
+     * @param recordsPath the path of the file, to report errors
+     * @throws IOException if a record refers to a name the name table does not hold
+     */
+    private void checkNameIds(final Path recordsPath) throws IOException {
+        int end = (int) (HEADER_SIZE + count * RECORD_SIZE);
+        for (int offset = HEADER_SIZE; offset < end; offset += RECORD_SIZE) {
+            int nameId = records.getInt(offset);
+            if (nameId < 0 || nameId >= names.size()) {
+                throw new IOException("Corrupt score file, record " + (offset - HEADER_SIZE) / RECORD_SIZE
+                    + " refers to the unknown name " + nameId + ": " + recordsPath);
+            }
+        }
+    }
+
+    /**
+     * Maps the file with room for a number of records, growing the file if needed.
+     *
+     * @param capacity the number of records the mapping must hold
+     * @throws IOException if the file cannot be mapped
+     */
+    private void map(final long capacity) throws IOException {
+        long size = HEADER_SIZE + capacity * RECORD_SIZE;
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("The score file cannot hold more than " + count + " records");
+        }
+        records = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        records.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Makes a name fit on a single line of the name table.
+     *
+     * @param name the name of the player
+     * @return the name, with line breaks replaced by spaces
+     */
+    private static String sanitize(final String name) {
+        return name.replace('\n', ' ').replace('\r', ' ');
+    }
+}
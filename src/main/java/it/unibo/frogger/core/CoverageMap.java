@@ -0,0 +1,102 @@
+package it.unibo.frogger.core;
+
+/**
+ * Keeps track of which pixels of a lane are covered by the hitboxes of its objects.
+ * Each pixel stores how many hitboxes cover it, and a bitset mirrors which pixels are covered
+ * at all, so checking whether a range touches any object reads a couple of words for a
+ * range as wide as the frog, whatever the number of objects in the lane.
+ * Moving an object only updates the pixels it left and the ones it reached.
+ */
+public class CoverageMap {
+    private final int length;
+    private final int[] depth;
+    private final long[] covered;
+
+    /**
+     * Constructs a new CoverageMap with no pixel covered.
+     *
+     * @param length the number of pixels of the lane
+     */
+    public CoverageMap(final int length) {
+        this.length = length;
+        this.depth = new int[length];
+        this.covered = new long[(length + Long.SIZE - 1) / Long.SIZE];
+    }
+
+    /**
+     * Covers the range of an object placed in the lane.
+     *
+     * @param from the start of the range, inclusive
+     * @param to   the end of the range, exclusive
+     */
+    public void add(final int from, final int to) {
+        for (int x = Math.max(0, from); x < Math.min(length, to); x++) {
+            if (depth[x]++ == 0) {
+                covered[x >>> 6] |= 1L << x;
+            }
+        }
+    }
+
+    /**
+     * Uncovers the range of an object removed from the lane.
+     *
+     * @param from the start of the range, inclusive
+     * @param to   the end of the range, exclusive
+     */
+    public void remove(final int from, final int to) {
+        for (int x = Math.max(0, from); x < Math.min(length, to); x++) {
+            if (--depth[x] == 0) {
+                covered[x >>> 6] &= ~(1L << x);
+            }
+        }
+    }
+
+    /**
+     * Moves the range of an object, updating only the pixels that are not in both ranges.
+     *
+     * @param oldFrom the start of the old range, inclusive
+     * @param oldTo   the end of the old range, exclusive
+     * @param newFrom the start of the new range, inclusive
+     * @param newTo   the end of the new range, exclusive
+     */
+    public void move(final int oldFrom, final int oldTo, final int newFrom, final int newTo) {
+        // Pixels left behind, on either side of the new range
+        remove(oldFrom, Math.min(oldTo, newFrom));
+        remove(Math.max(oldFrom, newTo), oldTo);
+        // Pixels reached, on either side of the old range
+        add(newFrom, Math.min(newTo, oldFrom));
+        add(Math.max(newFrom, oldTo), newTo);
+    }
+
+    /**
+     * Checks whether any pixel of the given range is covered.
+     * Pixels outside the lane are never covered.
+     *
+     * @param from the start of the range, inclusive
+     * @param to   the end of the range, exclusive
+     * @return true if at least one pixel of the range is covered, false otherwise
+     */
+    public boolean isCovered(final int from, final int to) {
+        int start = Math.max(0, from);
+        int end = Math.min(length, to);
+        if (start >= end) {
+            return false;
+        }
+        int first = start >>> 6;
+        int last = (end - 1) >>> 6;
+        long startMask = -1L << start;
+        long endMask = -1L >>> (Long.SIZE - 1 - ((end - 1) & (Long.SIZE - 1)));
+        if (first == last) {
+            return (covered[first] & startMask & endMask) != 0;
+        }
+        if ((covered[first] & startMask) != 0 || (covered[last] & endMask) != 0) {
+            return true;
+        }
+        for (int word = first + 1; word < last; word++) {
+            if (covered[word] != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,15 @@
+package it.unibo.frogger.core;
+
+/**
+ * The directions in which a controllable game object can move.
+ */
+public enum Direction {
+    /** Towards the top of the screen. */
+    UP,
+    /** Towards the bottom of the screen. */
+    DOWN,
+    /** Towards the left of the screen. */
+    LEFT,
+    /** Towards the right of the screen. */
+    RIGHT
+}
@@ -1,20 +1,16 @@
 package it.unibo.frogger.core;
 
-import javafx.scene.image.Image;
-import javafx.scene.image.ImageView;
-import javafx.scene.input.KeyCode;
-
 /**
  * This class represents the frog character in the game.
  */
 public class Frog extends GameObjectControllable {
     private int lives;
-    private ImageView imageView;
     private boolean onLog = false;
     private int logSpeed = 0;
     private int logDirection = 0;
-
-    private static final String IMAGE_PATH = "/froggy1.png"; // Path to your image
+    private int tickRate = GlobalVariables.REFERENCE_TICK_RATE;
+    private int subPixel = 0;
+    private int previousXPosition;
 
     /**
      * Constructs a new Frog.
@@ -25,10 +21,8 @@ public class Frog extends GameObjectControllable {
      */
     public Frog(final int x, final int y, final int lives) {
         super(x, y);
-        this.imageView = new ImageView(new Image(Frog.class.getResourceAsStream(IMAGE_PATH)));
-        this.imageView.setFitWidth(40); // Set appropriate size
-        this.imageView.setFitHeight(40); // Set appropriate size
         this.lives = lives;
+        this.previousXPosition = x;
     }
 
     /**
@@ -41,12 +35,49 @@ public class Frog extends GameObjectControllable {
     }
 
     /**
-     * Gets the image view of the frog.
+     * Gets the sprite used to draw the frog.
+     *
+     * @return the sprite of the frog
+     */
+    public Sprite getSprite() {
+        return Sprite.FROG;
+    }
+
+    /**
+     * Gets the area of the frog that takes part in collisions.
      *
-     * @return the image view of the frog
+     * @return the hitbox of the frog
      */
-    public ImageView getImageView() {
-        return imageView;
+    public Hitbox getHitbox() {
+        return Sprite.FROG.getHitbox();
+    }
+
+    /**
+     * Gets the width of the frog.
+     *
+     * @return the width of the frog
+     */
+    public int getWidth() {
+        return Sprite.FROG.getWidth();
+    }
+
+    /**
+     * Gets the height of the frog.
+     *
+     * @return the height of the frog
+     */
+    public int getHeight() {
+        return Sprite.FROG.getHeight();
+    }
+
+    /**
+     * Gets the x position the frog drifted from in the last update.
+     * After a jump or a reset it is the current position, so that jumps are drawn instantly.
+     *
+     * @return the previous x position of the frog
+     */
+    public int getPreviousXPosition() {
+        return previousXPosition;
     }
 
     /**
@@ -86,35 +117,30 @@ public class Frog extends GameObjectControllable {
     }
 
     /**
-     * Moves the frog based on the given key code.
+     * Moves the frog in the given direction.
      *
-     * @param code the key code of the input
+     * @param direction the direction of movement
      */
-    public void move(final KeyCode code) {
-        switch (code) {
+    public void move(final Direction direction) {
+        switch (direction) {
             case UP: 
                 setYPosition(getYPosition() - GlobalVariables.JUMP_SIZE); 
-                SoundManager.playSound("jump");
                 break;
             case DOWN: 
                 setYPosition(getYPosition() + GlobalVariables.JUMP_SIZE); 
-                SoundManager.playSound("jump");
                 break;
             case LEFT: 
                 setXPosition(getXPosition() - GlobalVariables.JUMP_SIZE); 
-                SoundManager.playSound("jump");
                 break;
             case RIGHT: 
                 setXPosition(getXPosition() + GlobalVariables.JUMP_SIZE); 
-                SoundManager.playSound("jump");
                 break;
             default: break;
         }
         // Limit movement within window boundaries
         setXPosition(Math.max(0, Math.min(getXPosition(), GlobalVariables.WIDTH - GlobalVariables.JUMP_SIZE)));
         setYPosition(Math.max(0, Math.min(getYPosition(), GlobalVariables.HEIGHT - GlobalVariables.JUMP_SIZE)));
-        imageView.setX(getXPosition());
-        imageView.setY(getYPosition());
+        previousXPosition = getXPosition(); // Jumps are not interpolated
     }
 
     /**
@@ -126,8 +152,7 @@ public class Frog extends GameObjectControllable {
     public void resetPosition(final int x, final int y) {
         setXPosition(x);
         setYPosition(y);
-        imageView.setX(x);
-        imageView.setY(y);
+        previousXPosition = x;
     }
 
     /**
@@ -145,14 +170,27 @@ public class Frog extends GameObjectControllable {
         } else {
             this.logSpeed = 0;
             this.logDirection = 0;
+            this.subPixel = 0;
         }
     }
 
+    /**
+     * Sets the tick rate at which the frog is updated.
+     * The drift of the frog on a log is scaled like the speed of the lanes.
+     *
+     * @param tickRate the number of updates per second
+     */
+    public void setTickRate(final int tickRate) {
+        this.tickRate = tickRate;
+        this.subPixel = 0;
+    }
+
     /**
      * Updates the position of the frog if it is on a log.
      */
     public void updatePosition() {
         int frogLane = getLanePosition();
+        previousXPosition = getXPosition();
 
         //frog on middle lane
         if (frogLane == 6) {
@@ -167,9 +205,11 @@ public class Frog extends GameObjectControllable {
         }
 
         if (this.onLog) {
-            setXPosition(getXPosition() + this.logSpeed * this.logDirection);
+            subPixel += this.logSpeed * this.logDirection * GlobalVariables.REFERENCE_TICK_RATE;
+            int step = subPixel / tickRate;
+            subPixel -= step * tickRate;
+            setXPosition(getXPosition() + step);
             setXPosition(Math.max(0, Math.min(getXPosition(), GlobalVariables.WIDTH - GlobalVariables.JUMP_SIZE)));
-            imageView.setX(getXPosition() + this.logSpeed * this.logDirection);
         }
     }
 
@@ -1,7 +1,5 @@
 package it.unibo.frogger.core;
 
-import javafx.scene.input.KeyCode;
-
 /**
  * Represents a game object that can be controlled by the player.
  * This class provides basic properties and methods for game objects
@@ -59,11 +57,11 @@ public abstract class GameObjectControllable {
     }
 
     /**
-     * Moves the game object based on the specified key code.
+     * Moves the game object in the specified direction.
      * This method should be implemented by subclasses to define
      * specific behavior for moving the game object.
      *
-     * @param code the key code representing the direction of movement
+     * @param direction the direction of movement
      */
-    public abstract void move(KeyCode code);
+    public abstract void move(Direction direction);
 }
@@ -1,32 +1,35 @@
 package it.unibo.frogger.core;
 
-import javafx.scene.image.ImageView;
-
 /**
  * Represents a game object that cannot be controlled by the player.
  * This class provides basic properties and methods for game objects
- * such as position and image representation.
+ * such as position, size and the sprite used to draw them.
  */
 public abstract class GameObjectNotControllable {
     private int xPosition;
+    private int previousXPosition;
     private int yPosition;
     private int width;
-    private ImageView imageView;
+    private int height;
+    private Sprite sprite;
+    private Hitbox hitbox;
 
     /**
      * Constructs a new GameObjectNotControllable at the specified position
-     * with the specified image.
+     * with the specified sprite, drawn at the sprite size.
      *
      * @param xPosition the x-coordinate of the game object
      * @param yPosition the y-coordinate of the game object
-     * @param width the width of the game object
-     * @param imageView the image representation of the game object
+     * @param sprite the sprite used to draw the game object
      */
-    public GameObjectNotControllable(final int xPosition, final int yPosition,final int width, final ImageView imageView) {
+    public GameObjectNotControllable(final int xPosition, final int yPosition, final Sprite sprite) {
         this.xPosition = xPosition;
+        this.previousXPosition = xPosition;
         this.yPosition = yPosition;
-        this.width = width;
-        this.imageView = imageView;
+        this.width = sprite.getWidth();
+        this.height = sprite.getHeight();
+        this.sprite = sprite;
+        this.hitbox = sprite.getHitbox();
     }
 
     /**
@@ -45,7 +48,25 @@ public abstract class GameObjectNotControllable {
      */
     public void setXPosition(final int xPosition) {
         this.xPosition = xPosition;
-        this.imageView.setX(xPosition);
+    }
+
+    /**
+     * Gets the x-coordinate the game object moved from in the last update.
+     * Renderers blend it with the current one to draw positions between updates.
+     *
+     * @return the previous x-coordinate of the game object
+     */
+    public int getPreviousXPosition() {
+        return previousXPosition;
+    }
+
+    /**
+     * Sets the x-coordinate the game object moved from in the last update.
+     *
+     * @param previousXPosition the previous x-coordinate of the game object
+     */
+    public void setPreviousXPosition(final int previousXPosition) {
+        this.previousXPosition = previousXPosition;
     }
 
     /**
@@ -64,7 +85,6 @@ public abstract class GameObjectNotControllable {
      */
     public void setYPosition(final int yPosition) {
         this.yPosition = yPosition;
-        this.imageView.setY(yPosition);
     }
 
     /**
@@ -79,21 +99,34 @@ public abstract class GameObjectNotControllable {
     }
 
     /**
-     * Gets the image representation of the game object.
+     * Gets the sprite used to draw the game object.
      *
-     * @return the image representation of the game object
+     * @return the sprite of the game object
      */
-    public ImageView getImageView() {
-        return imageView;
+    public Sprite getSprite() {
+        return sprite;
     }
 
     /**
-     * Sets the image representation of the game object.
+     * Sets the sprite used to draw the game object.
+     * The game object takes the size and hitbox of the new sprite.
      *
-     * @param imageView the new image representation of the game object
+     * @param sprite the new sprite of the game object
      */
-    public void setImageView(final ImageView imageView) {
-        this.imageView = imageView;
+    public void setSprite(final Sprite sprite) {
+        this.sprite = sprite;
+        this.width = sprite.getWidth();
+        this.height = sprite.getHeight();
+        this.hitbox = sprite.getHitbox();
+    }
+
+    /**
+     * Gets the area of the game object that takes part in collisions.
+     *
+     * @return the hitbox of the game object
+     */
+    public Hitbox getHitbox() {
+        return hitbox;
     }
 
     /**
@@ -112,4 +145,13 @@ public abstract class GameObjectNotControllable {
     {
         return width;
     }
+
+    /**
+     * Gets the height of the game object.
+     *
+     * @return the height of the game object
+     */
+    public int getHeight() {
+        return height;
+    }
 }
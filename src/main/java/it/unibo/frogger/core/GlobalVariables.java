@@ -66,11 +66,37 @@ public final class GlobalVariables {
      */
     public static final int OBSTACLE_Y_OFFSET = 12;
 
+    /**
+     * The number of logs in each river lane.
+     */
+    public static final int LOGS_PER_LANE = 3;
+
+    /**
+     * The number of obstacles in each traffic lane.
+     */
+    public static final int OBSTACLES_PER_LANE = 3;
+
     /**
      * The duration of the game in seconds.
      */
     public static final int GAME_DURATION = 60;
 
+    /**
+     * The tick rate, in ticks per second, at which lane and log speeds are expressed.
+     * A speed of one means one pixel per tick at this rate.
+     */
+    public static final int REFERENCE_TICK_RATE = 60;
+
+    /**
+     * The default tick rate of the simulation, in ticks per second.
+     */
+    public static final int TICK_RATE = 120;
+
+    /**
+     * The maximum number of ticks simulated in a single frame to catch up after a stall.
+     */
+    public static final int MAX_CATCH_UP_TICKS = 8;
+
     /**
      * The width of the logs by type.
      */
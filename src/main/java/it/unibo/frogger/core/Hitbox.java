@@ -0,0 +1,125 @@
+package it.unibo.frogger.core;
+
+/**
+ * The area of a game object that takes part in collisions, relative to its position.
+ * Hitboxes are smaller than the sprite and centered on it, to add some tolerance to collisions.
+ * They are computed once for each sprite, so checking two of them only takes integer compares.
+ */
+public final class Hitbox {
+    private static final double SCALE = 0.8; // Reduce hitbox by 20%
+
+    private final int offsetX;
+    private final int offsetY;
+    private final int width;
+    private final int height;
+
+    /**
+     * Constructs a new Hitbox.
+     *
+     * @param offsetX the horizontal distance of the hitbox from the position of the object
+     * @param offsetY the vertical distance of the hitbox from the position of the object
+     * @param width   the width of the hitbox
+     * @param height  the height of the hitbox
+     */
+    public Hitbox(final int offsetX, final int offsetY, final int width, final int height) {
+        this.offsetX = offsetX;
+        this.offsetY = offsetY;
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Creates the hitbox of an object drawn at the given size, scaled down and centered on it.
+     *
+     * @param spriteWidth  the width the object is drawn at
+     * @param spriteHeight the height the object is drawn at
+     * @return the hitbox
+     */
+    public static Hitbox centered(final int spriteWidth, final int spriteHeight) {
+        int width = (int) Math.round(spriteWidth * SCALE);
+        int height = (int) Math.round(spriteHeight * SCALE);
+        return new Hitbox((spriteWidth - width) / 2, (spriteHeight - height) / 2, width, height);
+    }
+
+    /**
+     * Checks if two hitboxes overlap.
+     *
+     * @param first   the first hitbox
+     * @param firstX  the x position of the object owning the first hitbox
+     * @param firstY  the y position of the object owning the first hitbox
+     * @param second  the second hitbox
+     * @param secondX the x position of the object owning the second hitbox
+     * @param secondY the y position of the object owning the second hitbox
+     * @return true if the hitboxes overlap, false otherwise
+     */
+    public static boolean overlaps(
+        final Hitbox first, final int firstX, final int firstY,
+        final Hitbox second, final int secondX, final int secondY
+    ) {
+        int dx = secondX + second.offsetX - firstX - first.offsetX;
+        int dy = secondY + second.offsetY - firstY - first.offsetY;
+        return dx < first.width && -dx < second.width
+            && dy < first.height && -dy < second.height;
+    }
+
+    /**
+     * Checks if a hitbox overlaps the area swept by another one moving horizontally.
+     * The moving hitbox is tested over the whole interval it covered during the move,
+     * so it cannot skip past the other one however large the move is.
+     *
+     * @param first   the still hitbox
+     * @param firstX  the x position of the object owning the still hitbox
+     * @param firstY  the y position of the object owning the still hitbox
+     * @param second  the moving hitbox
+     * @param secondX the x position of the moving object at the end of the move
+     * @param secondY the y position of the moving object
+     * @param step    the horizontal displacement of the moving object, negative when moving left
+     * @return true if the hitboxes overlap at some point of the move, false otherwise
+     */
+    public static boolean overlapsSwept(
+        final Hitbox first, final int firstX, final int firstY,
+        final Hitbox second, final int secondX, final int secondY, final int step
+    ) {
+        // The swept area starts where the leftmost of the two positions is and grows by the step
+        int dx = secondX - Math.max(step, 0) + second.offsetX - firstX - first.offsetX;
+        int dy = secondY + second.offsetY - firstY - first.offsetY;
+        return dx < first.width && -dx < second.width + Math.abs(step)
+            && dy < first.height && -dy < second.height;
+    }
+
+    /**
+     * Gets the horizontal distance of the hitbox from the position of the object.
+     *
+     * @return the horizontal offset
+     */
+    public int getOffsetX() {
+        return offsetX;
+    }
+
+    /**
+     * Gets the vertical distance of the hitbox from the position of the object.
+     *
+     * @return the vertical offset
+     */
+    public int getOffsetY() {
+        return offsetY;
+    }
+
+    /**
+     * Gets the width of the hitbox.
+     *
+     * @return the width
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Gets the height of the hitbox.
+     *
+     * @return the height
+     */
+    public int getHeight() {
+        return height;
+    }
+}
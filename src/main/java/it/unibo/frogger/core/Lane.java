@@ -4,14 +4,22 @@ import java.util.List;
 
 /**
  * This class represents a lane in the game, which contains objects that move at a certain speed and direction.
+ * The objects are kept sorted by x position, so that the ones overlapping a range can be found by binary search.
+ * River lanes also keep a {@link CoverageMap} of their logs, telling which pixels can hold the frog.
  */
 public class Lane {
     private int speed;
     private int direction;
     private List<GameObjectNotControllable> objects;
+    private int tickRate = GlobalVariables.REFERENCE_TICK_RATE;
+    private int subPixel;
+    private int maxWidth;
+    private int lastStep;
+    private final CoverageMap coverage;
 
     /**
      * Constructs a new Lane.
+     * The list of objects is sorted by x position and must not be modified afterwards.
      *
      * @param speed     the speed at which objects in the lane move
      * @param direction the direction in which objects in the lane move (1 for right, -1 for left)
@@ -21,6 +29,20 @@ public class Lane {
         this.speed = speed;
         this.direction = direction;
         this.objects = objects;
+        boolean river = !objects.isEmpty();
+        for (GameObjectNotControllable obj : objects) {
+            maxWidth = Math.max(maxWidth, obj.getWidth());
+            river &= obj instanceof Log;
+        }
+        sortByPosition();
+
+        this.coverage = river ? new CoverageMap(GlobalVariables.WIDTH) : null;
+        if (river) {
+            for (GameObjectNotControllable obj : objects) {
+                int left = obj.getXPosition() + obj.getHitbox().getOffsetX();
+                coverage.add(left, left + obj.getHitbox().getWidth());
+            }
+        }
     }
 
     /**
@@ -39,14 +61,26 @@ public class Lane {
      */
     public void incrementSpeed(final int increment) {
         this.speed += increment;
-        // Update speed of all objects in the lane
-        for (GameObjectNotControllable obj : objects) {
-            if (obj instanceof Log) {
-                ((Log) obj).setSpeed(this.speed);
+        // Update speed of all the logs, which river lanes are only made of
+        if (isRiver()) {
+            for (int i = 0; i < objects.size(); i++) {
+                ((Log) objects.get(i)).setSpeed(this.speed);
             }
         }
     }
 
+    /**
+     * Sets the tick rate at which the lane is updated.
+     * The speed of the lane is scaled so that objects cover the same distance per second
+     * whatever the tick rate is.
+     *
+     * @param tickRate the number of updates per second
+     */
+    public void setTickRate(final int tickRate) {
+        this.tickRate = tickRate;
+        this.subPixel = 0;
+    }
+
     /**
      * Gets the direction of the lane.
      *
@@ -70,21 +104,122 @@ public class Lane {
      * If an object moves off-screen, its position is reset to the opposite side.
      */
     public void updateObjectsPosition() {
-        for (GameObjectNotControllable obj : objects) {
-            int newX = obj.getXPosition() + (speed * direction);
+        int step = nextStep();
+        lastStep = step;
+        boolean wrapped = false;
+        // Indexed loop, so that no iterator is allocated on every tick
+        for (int i = 0; i < objects.size(); i++) {
+            GameObjectNotControllable obj = objects.get(i);
+            int oldX = obj.getXPosition();
+            int newX = oldX + step;
             obj.setPosition(newX, obj.getYPosition());
 
             // Reset position if it moves off-screen
             if (newX > GlobalVariables.WIDTH) { 
-                obj.setPosition((int) -obj.getImageView().getFitWidth(), obj.getYPosition());
-            } else if (newX < -obj.getImageView().getFitWidth()) {
+                obj.setPosition(-obj.getWidth(), obj.getYPosition());
+                wrapped = true;
+            } else if (newX < -obj.getWidth()) {
                 int posX = GlobalVariables.WIDTH;
                 obj.setPosition(posX, obj.getYPosition());
+                wrapped = true;
+            }
+
+            // Objects reset to the other side come from just outside it, instead of streaking across the screen
+            obj.setPreviousXPosition(obj.getXPosition() - step);
+
+            if (coverage != null) {
+                int offset = obj.getHitbox().getOffsetX();
+                int width = obj.getHitbox().getWidth();
+                coverage.move(oldX + offset, oldX + offset + width,
+                    obj.getXPosition() + offset, obj.getXPosition() + offset + width);
+            }
+        }
+        // Objects move together, so only the ones reset to the other side break the order
+        if (wrapped) {
+            sortByPosition();
+        }
+    }
+
+    /**
+     * Checks if the lane is a river lane, where the frog needs a log to stand on.
+     *
+     * @return true if all the objects of the lane are logs, false otherwise
+     */
+    public boolean isRiver() {
+        return coverage != null;
+    }
+
+    /**
+     * Checks if any log of a river lane overlaps the given range with its hitbox.
+     *
+     * @param from the start of the range, inclusive
+     * @param to   the end of the range, exclusive
+     * @return true if the range touches a log, false otherwise or if the lane is not a river lane
+     */
+    public boolean isCovered(final int from, final int to) {
+        return coverage != null && coverage.isCovered(from, to);
+    }
+
+    /**
+     * Gets the horizontal displacement of the objects in the last update.
+     * Objects reset to the opposite side did not move by this amount.
+     *
+     * @return the displacement in pixels, negative when moving left
+     */
+    public int getLastStep() {
+        return lastStep;
+    }
+
+    /**
+     * Finds the first object that may overlap a range starting at the given x position.
+     * Objects from the returned index onwards are sorted by x position, so callers can
+     * stop scanning at the first one starting after the end of their range.
+     *
+     * @param x the start of the range
+     * @return the index of the first object that may overlap the range,
+     *         or the number of objects if none can
+     */
+    public int findFirstReaching(final int x) {
+        // First object whose start is after x - maxWidth: those before it end before x
+        int low = 0;
+        int high = objects.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (objects.get(mid).getXPosition() + maxWidth <= x) {
+                low = mid + 1;
+            } else {
+                high = mid;
             }
-            if (obj instanceof Log) {
-                
-               // System.out.println("N: "+obj.hashCode()+" X:"+newX+" L:"+obj.getImageView().getFitWidth());
+        }
+        return low;
+    }
+
+    /**
+     * Sorts the objects of the lane by x position.
+     * An insertion sort is used because the list is nearly sorted after a wrap-around.
+     */
+    private void sortByPosition() {
+        for (int i = 1; i < objects.size(); i++) {
+            GameObjectNotControllable obj = objects.get(i);
+            int j = i - 1;
+            while (j >= 0 && objects.get(j).getXPosition() > obj.getXPosition()) {
+                objects.set(j + 1, objects.get(j));
+                j--;
             }
+            objects.set(j + 1, obj);
         }
     }
+
+    /**
+     * Computes how many pixels the objects move in this update.
+     * The fractional part of the movement is carried over to the next updates.
+     *
+     * @return the displacement of this update, in pixels
+     */
+    private int nextStep() {
+        subPixel += speed * direction * GlobalVariables.REFERENCE_TICK_RATE;
+        int step = subPixel / tickRate;
+        subPixel -= step * tickRate;
+        return step;
+    }
 }
@@ -0,0 +1,127 @@
+package it.unibo.frogger.core;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Keeps track of the free space along a lane and places objects in it without overlaps.
+ * Free space is stored as a sorted list of disjoint intervals, and each placement picks
+ * uniformly among all the positions where the object fits, so it takes time proportional
+ * to the number of objects already placed, whatever the density of the lane.
+ */
+public class LaneAllocator {
+    /**
+     * The value returned when an object does not fit anywhere in the lane.
+     */
+    public static final int NO_SPACE = -1;
+
+    private int[] starts;
+    private int[] ends;
+    private int count;
+
+    /**
+     * Constructs a new LaneAllocator for a lane that is completely free.
+     *
+     * @param length the length of the lane
+     */
+    public LaneAllocator(final int length) {
+        this.starts = new int[4];
+        this.ends = new int[4];
+        this.starts[0] = 0;
+        this.ends[0] = length;
+        this.count = 1;
+    }
+
+    /**
+     * Places an object of the given width at a random free position.
+     *
+     * @param width  the width of the object
+     * @param random the random generator picking the position
+     * @return the x position of the object, or {@link #NO_SPACE} if it does not fit
+     */
+    public int allocate(final int width, final SplittableRandom random) {
+        long positions = 0;
+        for (int i = 0; i < count; i++) {
+            positions += Math.max(0, ends[i] - starts[i] - width + 1);
+        }
+        if (positions == 0) {
+            return NO_SPACE;
+        }
+        long choice = random.nextLong(positions);
+        for (int i = 0; i < count; i++) {
+            int fits = Math.max(0, ends[i] - starts[i] - width + 1);
+            if (choice < fits) {
+                int x = starts[i] + (int) choice;
+                reserve(i, x, x + width);
+                return x;
+            }
+            choice -= fits;
+        }
+        return NO_SPACE;
+    }
+
+    /**
+     * Gets the total free length left in the lane.
+     *
+     * @return the free length
+     */
+    public int getFreeLength() {
+        int free = 0;
+        for (int i = 0; i < count; i++) {
+            free += ends[i] - starts[i];
+        }
+        return free;
+    }
+
+    /**
+     * Removes the range [from, to) from the free interval at the given index.
+     *
+     * @param index the index of the free interval containing the range
+     * @param from  the start of the range, inclusive
+     * @param to    the end of the range, exclusive
+     */
+    private void reserve(final int index, final int from, final int to) {
+        int end = ends[index];
+        if (from == starts[index]) {
+            starts[index] = to;
+        } else {
+            ends[index] = from;
+            if (to < end) {
+                insert(index + 1, to, end);
+            }
+        }
+        if (starts[index] >= ends[index]) {
+            remove(index);
+        }
+    }
+
+    /**
+     * Inserts a free interval at the given index.
+     *
+     * @param index the index of the new interval
+     * @param start the start of the interval, inclusive
+     * @param end   the end of the interval, exclusive
+     */
+    private void insert(final int index, final int start, final int end) {
+        if (count == starts.length) {
+            starts = Arrays.copyOf(starts, count * 2);
+            ends = Arrays.copyOf(ends, count * 2);
+        }
+        System.arraycopy(starts, index, starts, index + 1, count - index);
+        System.arraycopy(ends, index, ends, index + 1, count - index);
+        starts[index] = start;
+        ends[index] = end;
+        count++;
+    }
+
+    /**
+     * Removes the free interval at the given index.
+     *
+     * @param index the index of the interval
+     */
+    private void remove(final int index) {
+        System.arraycopy(starts, index + 1, starts, index, count - index - 1);
+        System.arraycopy(ends, index + 1, ends, index, count - index - 1);
+        count--;
+    }
+}
@@ -0,0 +1,160 @@
+package it.unibo.frogger.core;
+
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The leaderboard of the game, backed by the {@link BinaryScoreFile} of every score ever made.
+ * The file is scanned once, keeping only the best scores in a {@link TopScores} table,
+ * and each new score is offered to the table once the {@link ScoreWriter} wrote it to the file,
+ * so reading the best scores never touches the file again and costs as much as the scores it returns.
+ * The leaderboard never writes the file itself, leaving that to the writer thread alone.
+ * Every score is also counted in a {@link RankIndex}, which tells the rank of any score,
+ * and offered to the {@link PeriodTopScores} of its day and of its week.
+ * Whenever the best scores change, an immutable copy of them is published, so reading the best
+ * scores never waits for a score being recorded.
+ */
+public class Leaderboard {
+    private final TopScores top;
+    private static final int RETAINED_DAYS = 7;
+    private static final int RETAINED_WEEKS = 4;
+
+    private final RankIndex ranks = new RankIndex();
+    private final PeriodTopScores daily;
+    private final PeriodTopScores weekly;
+    private volatile long version;
+    private volatile List<Map.Entry<String, Integer>> topSnapshot;
+
+    /**
+     * Constructs a new Leaderboard, scanning the whole history of the score file.
+     * Days start at midnight in the default time zone.
+     *
+     * @param file     the file of every score
+     * @param capacity the number of best scores to keep, overall and for each day and week
+     */
+    public Leaderboard(final BinaryScoreFile file, final int capacity) {
+        this(file, capacity, ZoneId.systemDefault());
+    }
+
+    /**
+     * Constructs a new Leaderboard, scanning the whole history of the score file.
+     *
+     * @param file     the file of every score
+     * @param capacity the number of best scores to keep, overall and for each day and week
+     * @param zone     the time zone days start in
+     */
+    public Leaderboard(final BinaryScoreFile file, final int capacity, final ZoneId zone) {
+        this.top = new TopScores(capacity);
+        this.daily = PeriodTopScores.daily(RETAINED_DAYS, capacity, zone);
+        this.weekly = PeriodTopScores.weekly(RETAINED_WEEKS, capacity, zone);
+        file.scan(this::offer);
+        topSnapshot = List.copyOf(top.get(capacity));
+    }
+
+    /**
+     * Shows a new score in the leaderboard, once it is written to the score file.
+     *
+     * @param name      the name of the player
+     * @param score     the score
+     * @param timestamp when the score was made, in epoch milliseconds
+     */
+    public synchronized void record(final String name, final int score, final long timestamp) {
+        if (top.offer(name, score, timestamp)) {
+            topSnapshot = List.copyOf(top.get(top.capacity()));
+        }
+        ranks.add(score);
+        daily.offer(name, score, timestamp);
+        weekly.offer(name, score, timestamp);
+        version++;
+    }
+
+    /**
+     * Gets a number that changes every time a score shows up in the leaderboard.
+     * It can be read without waiting for the leaderboard, to tell whether an earlier answer still holds.
+     *
+     * @return the number of scores recorded since the history was scanned
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Gets the best scores, up to the capacity of the leaderboard, from the latest published copy.
+     *
+     * @param limit the maximum number of scores to get
+     * @return the names and scores of the players, from the highest score
+     */
+    public List<Map.Entry<String, Integer>> getTop(final int limit) {
+        List<Map.Entry<String, Integer>> snapshot = topSnapshot;
+        return snapshot.subList(0, Math.min(limit, snapshot.size()));
+    }
+
+    /**
+     * Gets the best scores of the day holding a given time.
+     *
+     * @param timestamp a time in the day, in epoch milliseconds
+     * @param limit     the maximum number of scores to get
+     * @return the names and scores of the players, from the highest score
+     */
+    public synchronized List<Map.Entry<String, Integer>> getDailyTop(final long timestamp, final int limit) {
+        return daily.get(timestamp, limit);
+    }
+
+    /**
+     * Gets the best scores of the ISO week holding a given time.
+     *
+     * @param timestamp a time in the week, in epoch milliseconds
+     * @param limit     the maximum number of scores to get
+     * @return the names and scores of the players, from the highest score
+     */
+    public synchronized List<Map.Entry<String, Integer>> getWeeklyTop(final long timestamp, final int limit) {
+        return weekly.get(timestamp, limit);
+    }
+
+    /**
+     * Gets the rank of a score among all the scores ever made.
+     *
+     * @param score the score
+     * @return one more than the number of higher scores
+     */
+    public synchronized long rankOf(final int score) {
+        return ranks.rankOf(score);
+    }
+
+    /**
+     * Gets the scores around a rank, from the highest.
+     *
+     * @param rank   the rank in the middle
+     * @param window the number of ranks to include above and below it
+     * @return the scores from rank - window to rank + window, limited to the ranks that exist
+     */
+    public synchronized int[] scoresAround(final long rank, final int window) {
+        return ranks.scoresAround(rank, window);
+    }
+
+    /**
+     * Gets the number of scores ever made, including the ones still waiting to be written.
+     *
+     * @return the number of scores in the leaderboard
+     */
+    public synchronized long getRecordCount() {
+        return ranks.size();
+    }
+
+    /**
+     * Offers a record of the score file to the tables of best scores, and counts its score.
+     * Names are shared by the score file, so offering a record allocates nothing.
+     *
+     * @param nameId    the id of the player name
+     * @param name      the name of the player
+     * @param score     the score
+     * @param timestamp when the score was made
+     */
+    private void offer(final int nameId, final String name, final int score, final long timestamp) {
+        top.offer(name, score, timestamp);
+        ranks.add(score);
+        daily.offer(name, score, timestamp);
+        weekly.offer(name, score, timestamp);
+    }
+}
@@ -0,0 +1,538 @@
+package it.unibo.frogger.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Serves the scores of a {@link ScoreService} over HTTP, so that the cabinets on a LAN
+ * can share a leaderboard. It answers:
+ * <ul>
+ *   <li>{@code GET /top?limit=K}: the best K scores, as a JSON array</li>
+ *   <li>{@code GET /rank?score=S}: the rank of a score among all the scores</li>
+ *   <li>{@code GET /player?name=N}: the statistics of a player, or 404 if they never played</li>
+ *   <li>{@code POST /scores} with one form per line of {@code name}, {@code score} and optionally
+ *       {@code timestamp}, {@code playTimeMillis} and an {@code id}: saves the scores, answering 202,
+ *       or 503 with {@code Retry-After} when too many scores are already waiting to be written. Scores
+ *       whose id was already saved are skipped, so a batch can safely be sent again</li>
+ * </ul>
+ * Each query is answered from memory once per version of the scores: the answer is kept until
+ * a score is saved, and tagged with the version, so a client sending the tag back in
+ * {@code If-None-Match} gets a 304 without the scores being read at all.
+ * Each request runs on its own virtual thread where the JDK has them, and on a fixed pool of
+ * threads otherwise.
+ * The JDK server writes the headers and the body of a response separately, so unless the JVM runs
+ * with {@code -Dsun.net.httpserver.nodelay=true}, Nagle's algorithm holds each body back until the
+ * client acknowledges the headers; the application sets it before starting the server.
+ */
+public class LeaderboardServer implements AutoCloseable {
+    private static final int MAX_LIMIT = 100;
+    private static final int MAX_CACHED_ANSWERS = 1024;
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+    private static final int MAX_SEEN_IDS = 100_000;
+    private static final int FALLBACK_THREADS = 32;
+    private static final int BACKLOG = 1024;
+    private static final String RETRY_AFTER_SECONDS = "1";
+    private static final String JSON = "application/json; charset=utf-8";
+
+    private final ScoreService scores;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    // Tags from an earlier run of the server must not match, even for the same version
+    private final String instance = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+    private final Map<String, Answer> answers = new ConcurrentHashMap<>();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder notModified = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder rejectedScores = new LongAdder();
+    private final LongAdder duplicateScores = new LongAdder();
+    // The ids of the latest scores saved, so that a batch sent again only saves its new scores
+    private final Map<String, Boolean> seenIds = Collections.synchronizedMap(
+        new LinkedHashMap<String, Boolean>() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, Boolean> eldest) {
+                return size() > MAX_SEEN_IDS;
+            }
+        });
+    // The ids of the scores being saved, released once they are saved or refused
+    private final Map<String, CountDownLatch> pendingIds = new ConcurrentHashMap<>();
+
+    /**
+     * The answer to a query, for a version of the scores.
+     */
+    private static final class Answer {
+        private final long version;
+        private final int status;
+        private final byte[] body;
+
+        /**
+         * Constructs a new Answer.
+         *
+         * @param version the version of the scores the answer was computed from
+         * @param status  the status code of the answer
+         * @param body    the JSON body of the answer
+         */
+        Answer(final long version, final int status, final byte[] body) {
+            this.version = version;
+            this.status = status;
+            this.body = body;
+        }
+    }
+
+    /**
+     * Constructs a new LeaderboardServer, without starting it.
+     *
+     * @param address the address to listen on, with port 0 to pick a free port
+     * @param scores  the scores to serve
+     * @throws IOException if the address cannot be bound
+     */
+    public LeaderboardServer(final InetSocketAddress address, final ScoreService scores) throws IOException {
+        this.scores = scores;
+        this.server = HttpServer.create(address, BACKLOG);
+        this.executor = newRequestExecutor();
+        server.setExecutor(executor);
+        server.createContext("/top", exchange -> answerQuery(exchange, this::top));
+        server.createContext("/rank", exchange -> answerQuery(exchange, this::rank));
+        server.createContext("/player", exchange -> answerQuery(exchange, this::player));
+        server.createContext("/scores", this::submitScores);
+    }
+
+    /**
+     * Starts answering requests.
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Gets the port the server listens on.
+     *
+     * @return the port
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Gets the number of requests answered so far.
+     *
+     * @return the number of requests
+     */
+    public long getRequestCount() {
+        return requests.sum();
+    }
+
+    /**
+     * Gets the number of queries answered with 304, their tag still matching the scores.
+     *
+     * @return the number of queries not modified
+     */
+    public long getNotModifiedCount() {
+        return notModified.sum();
+    }
+
+    /**
+     * Gets the number of queries answered with an answer kept from an earlier request.
+     *
+     * @return the number of cache hits
+     */
+    public long getCacheHitCount() {
+        return cacheHits.sum();
+    }
+
+    /**
+     * Gets the number of scores refused because too many were waiting to be written.
+     *
+     * @return the number of rejected scores
+     */
+    public long getRejectedScoreCount() {
+        return rejectedScores.sum();
+    }
+
+    /**
+     * Gets the number of scores skipped because their id was already saved.
+     *
+     * @return the number of duplicate scores
+     */
+    public long getDuplicateScoreCount() {
+        return duplicateScores.sum();
+    }
+
+    /**
+     * Stops the server, closing its connections and its threads.
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    /**
+     * Creates the executor running the requests: one virtual thread per request where the JDK has
+     * them, a fixed pool of threads otherwise.
+     *
+     * @return the executor of the requests
+     */
+    private static ExecutorService newRequestExecutor() {
+        try {
+            // Looked up at run time, so the game still builds and runs on JDKs without virtual threads
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(FALLBACK_THREADS);
+        }
+    }
+
+    /**
+     * Answers a query, from the answer kept for the current version of the scores if there is one.
+     *
+     * @param exchange the request and its response
+     * @param query    computes the answer from the parameters of the request
+     * @throws IOException if the response cannot be sent
+     */
+    private void answerQuery(final HttpExchange exchange, final Function<Map<String, String>, Answer> query)
+        throws IOException {
+        try {
+            requests.increment();
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                send(exchange, 405, new byte[0]);
+                return;
+            }
+            long version = scores.getVersion();
+            String tag = "\"" + instance + "-" + version + "\"";
+            exchange.getResponseHeaders().set("ETag", tag);
+            exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+            if (tag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                notModified.increment();
+                send(exchange, 304, new byte[0]);
+                return;
+            }
+            String key = exchange.getRequestURI().toString();
+            Answer answer = answers.get(key);
+            if (answer != null && answer.version == version) {
+                cacheHits.increment();
+            } else {
+                try {
+                    answer = query.apply(parseForm(exchange.getRequestURI().getRawQuery()));
+                } catch (IllegalArgumentException e) {
+                    send(exchange, 400, new byte[0]);
+                    return;
+                }
+                answer = new Answer(version, answer.status, answer.body);
+                if (answers.size() >= MAX_CACHED_ANSWERS) {
+                    // Answers to old versions are useless anyway, and most clients ask the same few queries
+                    answers.clear();
+                }
+                answers.put(key, answer);
+            }
+            exchange.getResponseHeaders().set("Content-Type", JSON);
+            send(exchange, answer.status, answer.body);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Saves the scores sent in the body of a request, one form per line.
+     * Every line is checked before any score is saved, and scores whose id was already saved
+     * are skipped, so that a client can send a batch again after any failure. A score whose id
+     * is being saved by another request waits for it, and is skipped only if that one succeeded.
+     *
+     * @param exchange the request and its response
+     * @throws IOException if the request cannot be read or the response cannot be sent
+     */
+    private void submitScores(final HttpExchange exchange) throws IOException {
+        try {
+            requests.increment();
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                send(exchange, 405, new byte[0]);
+                return;
+            }
+            byte[] body;
+            try (InputStream input = exchange.getRequestBody()) {
+                body = input.readNBytes(MAX_BODY_BYTES + 1);
+            }
+            if (body.length > MAX_BODY_BYTES) {
+                send(exchange, 413, new byte[0]);
+                return;
+            }
+            List<Map<String, String>> forms = new ArrayList<>();
+            try {
+                for (String line : new String(body, StandardCharsets.UTF_8).split("\n")) {
+                    if (!line.isBlank()) {
+                        forms.add(checkScore(parseForm(line.strip())));
+                    }
+                }
+            } catch (IllegalArgumentException e) {
+                send(exchange, 400, new byte[0]);
+                return;
+            }
+            for (Map<String, String> form : forms) {
+                String id = form.get("id");
+                CountDownLatch reservation = null;
+                if (id != null) {
+                    try {
+                        reservation = reserve(id);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        refuse(exchange);
+                        return;
+                    }
+                    if (reservation == null) {
+                        duplicateScores.increment();
+                        continue;
+                    }
+                }
+                boolean saved = false;
+                try {
+                    saved = scores.offerScore(form.get("name"), Integer.parseInt(form.get("score")),
+                        timestampOf(form), Long.parseLong(form.getOrDefault("playTimeMillis", "0")));
+                    if (saved && id != null) {
+                        seenIds.put(id, Boolean.TRUE);
+                    }
+                } finally {
+                    if (reservation != null) {
+                        pendingIds.remove(id);
+                        reservation.countDown();
+                    }
+                }
+                if (!saved) {
+                    refuse(exchange);
+                    return;
+                }
+            }
+            send(exchange, 202, new byte[0]);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Reserves the id of a score until it is saved or refused, waiting while another request holds it.
+     *
+     * @param id the id of the score
+     * @return the reservation, to count down once the score is saved or refused,
+     *         or null if a score with this id was already saved
+     * @throws InterruptedException if the thread is interrupted while waiting for another request
+     */
+    private CountDownLatch reserve(final String id) throws InterruptedException {
+        CountDownLatch reservation = new CountDownLatch(1);
+        while (true) {
+            CountDownLatch holder = pendingIds.putIfAbsent(id, reservation);
+            if (holder == null) {
+                break;
+            }
+            holder.await();
+        }
+        // A holder that saved the score marked it before releasing its reservation
+        if (seenIds.containsKey(id)) {
+            pendingIds.remove(id);
+            reservation.countDown();
+            return null;
+        }
+        return reservation;
+    }
+
+    /**
+     * Refuses a score because too many are waiting to be written, telling the client when to send it again.
+     *
+     * @param exchange the request and its response
+     * @throws IOException if the response cannot be sent
+     */
+    private void refuse(final HttpExchange exchange) throws IOException {
+        rejectedScores.increment();
+        exchange.getResponseHeaders().set("Retry-After", RETRY_AFTER_SECONDS);
+        send(exchange, 503, new byte[0]);
+    }
+
+    /**
+     * Checks the fields of a score sent by a client.
+     *
+     * @param form the fields of the score
+     * @return the same fields
+     * @throws IllegalArgumentException if the name is missing or a number is malformed
+     */
+    private static Map<String, String> checkScore(final Map<String, String> form) {
+        String name = form.get("name");
+        if (name == null || name.isEmpty()) {
+            throw new IllegalArgumentException("Missing name");
+        }
+        Integer.parseInt(form.getOrDefault("score", ""));
+        if (Long.parseLong(form.getOrDefault("playTimeMillis", "0")) < 0) {
+            throw new IllegalArgumentException("Negative play time");
+        }
+        if (form.containsKey("timestamp") && Long.parseLong(form.get("timestamp")) < 0) {
+            throw new IllegalArgumentException("Negative timestamp");
+        }
+        return form;
+    }
+
+    /**
+     * Gets when a score sent by a client was made, so that a score uploaded late still counts for its
+     * own day and week. A score without a timestamp, or with one in the future because the clock of
+     * the cabinet runs ahead, is taken as made now.
+     *
+     * @param form the fields of the score, already checked
+     * @return when the score was made, in epoch milliseconds
+     */
+    private static long timestampOf(final Map<String, String> form) {
+        long now = System.currentTimeMillis();
+        String timestamp = form.get("timestamp");
+        return timestamp == null ? now : Math.min(Long.parseLong(timestamp), now);
+    }
+
+    /**
+     * Answers {@code /top}: the best scores.
+     *
+     * @param parameters the parameters of the request
+     * @return the names and scores, from the highest
+     */
+    private Answer top(final Map<String, String> parameters) {
+        int limit = Integer.parseInt(parameters.getOrDefault("limit", "10"));
+        if (limit < 0 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("The limit must be between 0 and " + MAX_LIMIT);
+        }
+        List<Map.Entry<String, Integer>> top = scores.getTopScores(limit);
+        StringBuilder json = new StringBuilder("[");
+        for (Map.Entry<String, Integer> entry : top) {
+            if (json.length() > 1) {
+                json.append(',');
+            }
+            json.append("{\"name\":");
+            appendString(json, entry.getKey());
+            json.append(",\"score\":").append(entry.getValue()).append('}');
+        }
+        return ok(json.append(']'));
+    }
+
+    /**
+     * Answers {@code /rank}: the rank of a score.
+     *
+     * @param parameters the parameters of the request
+     * @return the score, its rank and the number of scores
+     */
+    private Answer rank(final Map<String, String> parameters) {
+        int score = Integer.parseInt(parameters.getOrDefault("score", ""));
+        return ok(new StringBuilder()
+            .append("{\"score\":").append(score)
+            .append(",\"rank\":").append(scores.getRank(score))
+            .append(",\"total\":").append(scores.getScoreCount()).append('}'));
+    }
+
+    /**
+     * Answers {@code /player}: the statistics of a player.
+     *
+     * @param parameters the parameters of the request
+     * @return the statistics of the player, or a 404 if the player never played
+     */
+    private Answer player(final Map<String, String> parameters) {
+        String name = parameters.get("name");
+        if (name == null) {
+            throw new IllegalArgumentException("Missing name");
+        }
+        PlayerStats stats = scores.getPlayerStats(name);
+        if (stats == null) {
+            return new Answer(0, 404, "{}".getBytes(StandardCharsets.UTF_8));
+        }
+        StringBuilder json = new StringBuilder("{\"name\":");
+        appendString(json, name);
+        return ok(json
+            .append(",\"games\":").append(stats.getGamesPlayed())
+            .append(",\"best\":").append(stats.getBestScore())
+            .append(",\"mean\":").append(stats.getMeanScore())
+            .append(",\"last\":").append(stats.getLastScore())
+            .append(",\"playTimeMillis\":").append(stats.getPlayTimeMillis()).append('}'));
+    }
+
+    /**
+     * Wraps a JSON body in a successful answer.
+     *
+     * @param json the body
+     * @return the answer, with status 200
+     */
+    private static Answer ok(final CharSequence json) {
+        return new Answer(0, 200, json.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Appends a string to a JSON document, quoted and escaped.
+     *
+     * @param json  the document
+     * @param value the string
+     */
+    private static void appendString(final StringBuilder json, final String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < ' ') {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        json.append('"');
+    }
+
+    /**
+     * Parses a URL-encoded form, such as the query of a request.
+     *
+     * @param form the form, or null if there is none
+     * @return the values of the fields, by name
+     * @throws IllegalArgumentException if the form is not properly encoded
+     */
+    private static Map<String, String> parseForm(final String form) {
+        Map<String, String> fields = new HashMap<>();
+        if (form == null || form.isEmpty()) {
+            return fields;
+        }
+        for (String field : form.split("&")) {
+            int equals = field.indexOf('=');
+            String name = equals < 0 ? field : field.substring(0, equals);
+            String value = equals < 0 ? "" : field.substring(equals + 1);
+            fields.put(URLDecoder.decode(name, StandardCharsets.UTF_8),
+                URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return fields;
+    }
+
+    /**
+     * Sends the response of a request.
+     *
+     * @param exchange the request and its response
+     * @param status   the status code
+     * @param body     the body, possibly empty
+     * @throws IOException if the response cannot be sent
+     */
+    private static void send(final HttpExchange exchange, final int status, final byte[] body) throws IOException {
+        // An empty response is complete as soon as its headers are sent, and the JDK server only keeps
+        // the connection alive if the request was read to the end by then
+        exchange.getRequestBody().close();
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        if (body.length > 0) {
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write(body);
+            }
+        }
+    }
+}
@@ -2,17 +2,12 @@ package it.unibo.frogger.core;
 
 import java.util.List;
 
-import javafx.scene.image.Image;
-import javafx.scene.image.ImageView;
-
 /**
  * This class represents a log in the game, which moves at a certain speed and direction.
  */
 public class Log extends GameObjectNotControllable {
-    private static final String[] IMAGE_PATH = {"/log0.png","/log1.png","/log2.png"};
     private int speed;
     private int direction;
-    private int width;
     private List<GameObjectControllable> laneObjects;
 
     /**
@@ -25,12 +20,9 @@ public class Log extends GameObjectNotControllable {
      * @param log_type  the type of the log  
      */
     public Log(final int x, final int y, final int speed, final int direction, final int log_type) {
-        super(x, y, GlobalVariables.LOG_W_BY_TYPE[log_type], new ImageView(new Image(Log.class.getResourceAsStream(IMAGE_PATH[log_type])))); 
-        this.getImageView().setFitWidth(GlobalVariables.LOG_W_BY_TYPE[log_type]); // Set appropriate size
-        this.getImageView().setFitHeight(40); // Set appropriate size
+        super(x, y, Sprite.log(log_type));
         this.speed = speed;
         this.direction = direction;
-        this.width = GlobalVariables.LOG_W_BY_TYPE [log_type];
     }
 
     /**
@@ -47,7 +39,7 @@ public class Log extends GameObjectNotControllable {
 
                 if (frog.getYPosition() == this.getYPosition()
                     && frog.getXPosition() >= this.getXPosition()
-                    && frog.getXPosition() <= this.getXPosition() + this.getImageView().getFitWidth()) {
+                    && frog.getXPosition() <= this.getXPosition() + this.getWidth()) {
                     // The frog is on the log, so it should move with it
                     frog.setOnLog(true, this.speed, this.direction);
                 } else {
@@ -84,14 +76,4 @@ public class Log extends GameObjectNotControllable {
     public int getDirection() {
         return direction;
     }
-
-    /**
-     * Gets the width of the log.
-     *
-     * @return  the width of the log
-     */
-    public int getWidth()
-    {
-        return(width);
-    }
 }
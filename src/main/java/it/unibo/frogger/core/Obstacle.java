@@ -1,16 +1,9 @@
 package it.unibo.frogger.core;
 
-import javafx.scene.image.Image;
-import javafx.scene.image.ImageView;
-
 /**
  * This class represents an obstacle in the game, which moves at a certain speed and direction.
  */
 public class Obstacle extends GameObjectNotControllable {
-    //private static final String IMAGE_PATH = "/bike.png";
-    private static final String[] IMAGE_PATH = {"/racecar.png","/bike.png","/bus.png"};
-    private static final String[] IMAGE_REVERSED_PATH = {"/racecarrev.png","/bikerev.png","/busrev.png"};
-
     /**
      * Constructs a new Obstacle.
      *
@@ -20,13 +13,7 @@ public class Obstacle extends GameObjectNotControllable {
      * @param obsType   the obstacle type selected from the initial array
      */
     public Obstacle(final int x, final int y, final int direction, final int obsType) {
-        super(x, y, 70, new ImageView(new Image(
-            Obstacle.class.getResourceAsStream(
-                direction == -1 ? IMAGE_REVERSED_PATH[obsType] : IMAGE_PATH[obsType]
-            )
-        )));
-        this.getImageView().setFitWidth(70); // Set appropriate size
-        this.getImageView().setFitHeight(70); // Set appropriate size
+        super(x, y, Sprite.obstacle(obsType, direction));
     }
 
     /**
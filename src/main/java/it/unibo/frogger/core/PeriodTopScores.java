@@ -0,0 +1,156 @@
+package it.unibo.frogger.core;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Keeps the best scores of each calendar period, such as each day or each week,
+ * in a {@link TopScores} table per period. A score only updates the table of its period,
+ * and reading the best scores of a period reads its table alone, never the history.
+ * Only the latest periods are kept: when a new period starts, the tables of the periods
+ * that fell out of the retained window are dropped, and late scores for them are ignored.
+ */
+public class PeriodTopScores {
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+    // 1 January 1970 was a Thursday, three days after the Monday starting its ISO week
+    private static final int DAYS_FROM_MONDAY_TO_EPOCH = 3;
+    private static final int DAYS_PER_WEEK = 7;
+
+    private final int periodDays;
+    private final int shiftDays;
+    private final int retainedPeriods;
+    private final int capacity;
+    private final ZoneId zone;
+    private final TreeMap<Long, TopScores> periods = new TreeMap<>();
+    private long latestPeriod = Long.MIN_VALUE;
+    private TopScores latestTop;
+    // The times covered by the latest period, so that most scores are placed with two comparisons
+    private long latestFrom = Long.MAX_VALUE;
+    private long latestUntil = Long.MIN_VALUE;
+    // The offset of the zone, cached until its next transition since scores mostly come in time order
+    private long offsetMillis;
+    private long offsetValidFrom = Long.MAX_VALUE;
+    private long offsetValidUntil = Long.MIN_VALUE;
+
+    /**
+     * Constructs a new PeriodTopScores.
+     *
+     * @param periodDays      the number of days of a period
+     * @param shiftDays       the number of days from the start of a period to 1 January 1970
+     * @param retainedPeriods the number of latest periods to keep
+     * @param capacity        the number of best scores to keep for each period
+     * @param zone            the time zone the days start in
+     */
+    private PeriodTopScores(final int periodDays, final int shiftDays, final int retainedPeriods,
+        final int capacity, final ZoneId zone) {
+        this.periodDays = periodDays;
+        this.shiftDays = shiftDays;
+        this.retainedPeriods = retainedPeriods;
+        this.capacity = capacity;
+        this.zone = zone;
+    }
+
+    /**
+     * Creates the best scores of each day.
+     *
+     * @param retainedDays the number of latest days to keep
+     * @param capacity     the number of best scores to keep for each day
+     * @param zone         the time zone the days start in
+     * @return the best scores by day
+     */
+    public static PeriodTopScores daily(final int retainedDays, final int capacity, final ZoneId zone) {
+        return new PeriodTopScores(1, 0, retainedDays, capacity, zone);
+    }
+
+    /**
+     * Creates the best scores of each ISO week, from Monday to Sunday.
+     *
+     * @param retainedWeeks the number of latest weeks to keep
+     * @param capacity      the number of best scores to keep for each week
+     * @param zone          the time zone the days start in
+     * @return the best scores by week
+     */
+    public static PeriodTopScores weekly(final int retainedWeeks, final int capacity, final ZoneId zone) {
+        return new PeriodTopScores(DAYS_PER_WEEK, DAYS_FROM_MONDAY_TO_EPOCH, retainedWeeks, capacity, zone);
+    }
+
+    /**
+     * Offers a score to the table of its period.
+     *
+     * @param name      the name of the player
+     * @param score     the score
+     * @param timestamp when the score was made, in epoch milliseconds
+     */
+    public void offer(final String name, final int score, final long timestamp) {
+        if (timestamp >= latestFrom && timestamp < latestUntil) {
+            latestTop.offer(name, score, timestamp);
+            return;
+        }
+        long period = periodOf(timestamp);
+        if (period == latestPeriod) {
+            // Most scores belong to the latest period, whose table is at hand
+            latestTop.offer(name, score, timestamp);
+            return;
+        }
+        if (period > latestPeriod) {
+            latestPeriod = period;
+            latestTop = new TopScores(capacity);
+            periods.put(period, latestTop);
+            // The period spans whole local days, as long as the offset of the zone does not change
+            long startDay = period * periodDays - shiftDays;
+            latestFrom = Math.max(offsetValidFrom, startDay * MILLIS_PER_DAY - offsetMillis);
+            latestUntil = Math.min(offsetValidUntil, (startDay + periodDays) * MILLIS_PER_DAY - offsetMillis);
+            // Drop the periods that are no longer among the latest ones
+            periods.headMap(latestPeriod - retainedPeriods, true).clear();
+        } else if (period <= latestPeriod - retainedPeriods) {
+            return;
+        }
+        periods.computeIfAbsent(period, key -> new TopScores(capacity)).offer(name, score, timestamp);
+    }
+
+    /**
+     * Gets the best scores of the period holding a given time.
+     *
+     * @param timestamp a time in the period, in epoch milliseconds
+     * @param limit     the maximum number of scores to get
+     * @return the names and scores of the players, from the highest score,
+     *         or no score if nothing was made in the period or it is no longer kept
+     */
+    public List<Map.Entry<String, Integer>> get(final long timestamp, final int limit) {
+        TopScores top = periods.get(periodOf(timestamp));
+        return top == null ? List.of() : top.get(limit);
+    }
+
+    /**
+     * Gets the number of periods kept.
+     *
+     * @return the number of periods with a table of best scores
+     */
+    public int getPeriodCount() {
+        return periods.size();
+    }
+
+    /**
+     * Gets the period holding a time, counting periods from the one holding 1 January 1970.
+     *
+     * @param timestamp the time, in epoch milliseconds
+     * @return the number of the period
+     */
+    private long periodOf(final long timestamp) {
+        if (timestamp < offsetValidFrom || timestamp >= offsetValidUntil) {
+            Instant instant = Instant.ofEpochMilli(timestamp);
+            ZoneRules rules = zone.getRules();
+            ZoneOffsetTransition next = rules.nextTransition(instant);
+            offsetMillis = rules.getOffset(instant).getTotalSeconds() * 1000L;
+            offsetValidFrom = timestamp;
+            offsetValidUntil = next == null ? Long.MAX_VALUE : next.toEpochSecond() * 1000L;
+        }
+        long day = Math.floorDiv(timestamp + offsetMillis, MILLIS_PER_DAY);
+        return Math.floorDiv(day + shiftDays, periodDays);
+    }
+}
@@ -1,20 +1,38 @@
 package it.unibo.frogger.core;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
-import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.util.HashMap;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Properties;
 
 /**
  * This class manages the player scores, allowing to save, load, and retrieve top scores.
+ * Scores are kept by a {@link ScoreStore} in the working directory, opened the first time they
+ * are needed and shared by every match and by the {@link LeaderboardServer}; the text file used
+ * by earlier versions is imported into it the first time the game runs without one.
+ * Saved scores are written to the disk in the background by a {@link ScoreWriter}; how often
+ * they are flushed is set by the {@code scoreSync} setting ({@code every-commit}, {@code interval}
+ * or {@code shutdown}) and, for {@code interval}, by {@code scoreSyncMillis}.
+ * When the {@code scoreSyncEndpoint} setting holds a URL, the scores of the games played here are also
+ * uploaded to that shared leaderboard by a {@link ScoreSyncClient}, through an outbox kept on the disk.
  */
 public final class PlayerScoreManager {
-    private static final String SCORES_FILE = "player_scores.txt";
+    private static final String OUTBOX_FILE = "score_outbox.txt";
+    private static final int LEADERBOARD_CAPACITY = 100;
+    private static final int WRITE_QUEUE_CAPACITY = 1024;
+    private static final long DEFAULT_SYNC_MILLIS = 1000;
+    private static final int SYNC_BATCH_SIZE = 100;
+    private static final long SYNC_INITIAL_BACKOFF_MILLIS = 500;
+    private static final long SYNC_MAX_BACKOFF_MILLIS = 60_000;
+
+    private static ScoreStore store;
+    private static boolean storeOpened;
+    private static ScoreSyncClient syncClient;
+    private static boolean syncConfigured;
 
     /**
      * Private constructor to prevent instantiation.
@@ -23,67 +41,234 @@ public final class PlayerScoreManager {
         throw new UnsupportedOperationException("Utility class");
     }
 
+    /**
+     * Saves the player's score to a file, with no play time.
+     *
+     * @param playerName the name of the player
+     * @param score the score of the player
+     * @return true if the score was saved, false if it could not be written
+     */
+    public static boolean saveScore(final String playerName, final int score) {
+        return saveScore(playerName, score, 0);
+    }
+
     /**
      * Saves the player's score to a file.
+     * The score is written by the background writer, together with the scores of other matches
+     * ending at the same time, and shows up in the top scores and in the statistics of the player
+     * before this method returns. If a shared leaderboard is set, the score is also queued to be
+     * uploaded to it.
      *
      * @param playerName the name of the player
      * @param score the score of the player
+     * @param playTimeMillis the time the game was played, in milliseconds
+     * @return true if the score was saved, false if it could not be written
      */
-    public static void saveScore(final String playerName, final int score) {
-        // Add timestamp to make each entry unique
-        String timestamp = String.valueOf(System.currentTimeMillis());
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(SCORES_FILE, true))) {
-            writer.write(playerName + ":" + score + ":" + timestamp);
-            writer.newLine();
+    public static boolean saveScore(final String playerName, final int score, final long playTimeMillis) {
+        ScoreStore scores = getStore();
+        if (scores == null) {
+            return false;
+        }
+        long timestamp;
+        try {
+            timestamp = scores.saveScore(playerName, score, playTimeMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            e.printStackTrace();
+            return false;
         } catch (IOException e) {
             e.printStackTrace();
+            return false;
         }
+        ScoreSyncClient sync = getSyncClient();
+        if (sync != null) {
+            try {
+                sync.submit(playerName, score, timestamp, playTimeMillis);
+            } catch (IOException e) {
+                // The score is saved here even if it cannot be queued for the shared leaderboard
+                e.printStackTrace();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets the statistics of a player over all their games.
+     *
+     * @param playerName the name of the player
+     * @return the statistics of the player, or null if the player never played or the statistics cannot be read
+     */
+    public static PlayerStats getPlayerStats(final String playerName) {
+        ScoreStore scores = getStore();
+        return scores == null ? null : scores.getPlayerStats(playerName);
     }
 
     /**
      * Loads the scores from the file.
+     * Every saved score is kept, even when a player made several in the same millisecond.
+     *
+     * @return the player names and their scores, in the order they were saved
+     */
+    public static List<Map.Entry<String, Integer>> loadScores() {
+        List<Map.Entry<String, Integer>> scores = new ArrayList<>();
+        ScoreStore source = getStore();
+        if (source != null) {
+            source.scan((nameId, name, score, timestamp) -> scores.add(Map.entry(name, score)));
+        }
+        return scores;
+    }
+
+    /**
+     * Retrieves the top scores.
+     * At most the best {@value #LEADERBOARD_CAPACITY} scores are kept in memory.
      *
-     * @return a map of player names and their scores
+     * @param limit the maximum number of top scores to retrieve
+     * @return a list of entries containing player names and their scores
+     */
+    public static List<Map.Entry<String, Integer>> getTopScores(final int limit) {
+        ScoreStore scores = getStore();
+        return scores == null ? List.of() : scores.getTopScores(limit);
+    }
+
+    /**
+     * Retrieves the top scores of today.
+     *
+     * @param limit the maximum number of top scores to retrieve
+     * @return a list of entries containing player names and their scores
+     */
+    public static List<Map.Entry<String, Integer>> getDailyTopScores(final int limit) {
+        ScoreStore scores = getStore();
+        return scores == null ? List.of() : scores.getDailyTopScores(System.currentTimeMillis(), limit);
+    }
+
+    /**
+     * Retrieves the top scores of this week, from Monday.
+     *
+     * @param limit the maximum number of top scores to retrieve
+     * @return a list of entries containing player names and their scores
      */
-    public static Map<String, Integer> loadScores() {
-        Map<String, Integer> scores = new HashMap<>();
-        File file = new File(SCORES_FILE);
-        if (!file.exists()) {
+    public static List<Map.Entry<String, Integer>> getWeeklyTopScores(final int limit) {
+        ScoreStore scores = getStore();
+        return scores == null ? List.of() : scores.getWeeklyTopScores(System.currentTimeMillis(), limit);
+    }
+
+    /**
+     * Gets the rank of a score among all the scores ever saved.
+     *
+     * @param score the score
+     * @return one more than the number of higher scores, or 1 if the scores cannot be read
+     */
+    public static long getRank(final int score) {
+        ScoreStore scores = getStore();
+        return scores == null ? 1 : scores.getRank(score);
+    }
+
+    /**
+     * Gets the number of scores ever saved.
+     *
+     * @return the number of scores, or 0 if the scores cannot be read
+     */
+    public static long getScoreCount() {
+        ScoreStore scores = getStore();
+        return scores == null ? 0 : scores.getScoreCount();
+    }
+
+    /**
+     * Gets the writer saving the scores in the background.
+     * Its metrics tell how many scores wait to be written and how long commits take.
+     *
+     * @return the score writer, or null if the scores cannot be read
+     */
+    public static ScoreWriter getScoreWriter() {
+        ScoreStore scores = getStore();
+        return scores == null ? null : scores.getWriter();
+    }
+
+    /**
+     * Gets the scores of the working directory, opening them the first time.
+     * Opening scans the whole history, so it is better done off the JavaFX thread.
+     *
+     * @return the score store, or null if the scores cannot be read
+     */
+    public static synchronized ScoreStore getStore() {
+        if (!storeOpened) {
+            Properties settings = GameSettingsManager.loadSettings();
+            ScoreWriter.SyncPolicy policy = parseSyncPolicy(settings.getProperty("scoreSync", "interval"));
+            String syncMillisSetting = settings.getProperty("scoreSyncMillis", String.valueOf(DEFAULT_SYNC_MILLIS));
+            long syncMillis = parseSyncMillis(syncMillisSetting);
             try {
-                file.createNewFile();
-            } catch (IOException e) {
+                store = new ScoreStore(Path.of(""), LEADERBOARD_CAPACITY, WRITE_QUEUE_CAPACITY, policy, syncMillis);
+            } catch (IOException | RuntimeException e) {
                 e.printStackTrace();
             }
+            // A file that cannot be read now will not be readable on the next call either
+            storeOpened = true;
         }
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(":");
-                if (parts.length >= 2) {
-                    // Use playerName + timestamp as a unique key
-                    String key = parts[0] + "_" + (parts.length == 3 ? parts[2] : System.currentTimeMillis());
-                    scores.put(key, Integer.parseInt(parts[1]));
+        return store;
+    }
+
+    /**
+     * Starts uploading the scores left in the outbox by earlier runs, if a shared leaderboard is set.
+     */
+    public static void startSync() {
+        getSyncClient();
+    }
+
+    /**
+     * Gets the client uploading the scores to the shared leaderboard, starting it the first time.
+     *
+     * @return the sync client, or null if no shared leaderboard is set or the outbox cannot be opened
+     */
+    private static synchronized ScoreSyncClient getSyncClient() {
+        if (!syncConfigured) {
+            syncConfigured = true;
+            String endpoint = GameSettingsManager.loadSettings().getProperty("scoreSyncEndpoint", "").trim();
+            if (!endpoint.isEmpty()) {
+                try {
+                    syncClient = new ScoreSyncClient(URI.create(endpoint), Path.of(OUTBOX_FILE), SYNC_BATCH_SIZE,
+                        SYNC_INITIAL_BACKOFF_MILLIS, SYNC_MAX_BACKOFF_MILLIS);
+                } catch (IOException | IllegalArgumentException e) {
+                    e.printStackTrace();
                 }
             }
-        } catch (IOException e) {
-            e.printStackTrace();
         }
-        return scores;
+        return syncClient;
     }
 
     /**
-     * Retrieves the top scores.
+     * Parses the value of the {@code scoreSync} setting, falling back to {@code interval} if it is unknown.
      *
-     * @param limit the maximum number of top scores to retrieve
-     * @return a list of entries containing player names and their scores
+     * @param value the value of the setting
+     * @return the sync policy it names
      */
-    public static List<Map.Entry<String, Integer>> getTopScores(final int limit) {
-        Map<String, Integer> scores = loadScores();
-        return scores.entrySet().stream()
-            .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
-            .limit(limit)
-            // Remove the timestamp from the name when displaying scores
-            .map(entry -> Map.entry(entry.getKey().split("_")[0], entry.getValue()))
-            .toList();
+    private static ScoreWriter.SyncPolicy parseSyncPolicy(final String value) {
+        switch (value.trim().toLowerCase(Locale.ROOT)) {
+            case "every-commit": return ScoreWriter.SyncPolicy.EVERY_COMMIT;
+            case "shutdown": return ScoreWriter.SyncPolicy.ON_SHUTDOWN;
+            case "interval": return ScoreWriter.SyncPolicy.INTERVAL;
+            default:
+                System.err.println("Unknown scoreSync setting " + value + ", using interval");
+                return ScoreWriter.SyncPolicy.INTERVAL;
+        }
+    }
+
+    /**
+     * Parses the value of the {@code scoreSyncMillis} setting, falling back to
+     * {@value #DEFAULT_SYNC_MILLIS} if it is not a positive number.
+     *
+     * @param value the value of the setting
+     * @return the time between two flushes, in milliseconds
+     */
+    private static long parseSyncMillis(final String value) {
+        try {
+            long millis = Long.parseLong(value.trim());
+            if (millis > 0) {
+                return millis;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below, like a number out of range
+        }
+        System.err.println("Invalid scoreSyncMillis setting " + value + ", using " + DEFAULT_SYNC_MILLIS);
+        return DEFAULT_SYNC_MILLIS;
     }
 }
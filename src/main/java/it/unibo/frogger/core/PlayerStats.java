@@ -0,0 +1,85 @@
+package it.unibo.frogger.core;
+
+/**
+ * The statistics of a player over all their games.
+ */
+public class PlayerStats {
+    private final long gamesPlayed;
+    private final int bestScore;
+    private final int lastScore;
+    private final long totalScore;
+    private final long playTimeMillis;
+
+    /**
+     * Constructs a new PlayerStats.
+     *
+     * @param gamesPlayed    the number of games played
+     * @param bestScore      the highest score
+     * @param lastScore      the score of the latest game
+     * @param totalScore     the sum of the scores of all the games
+     * @param playTimeMillis the time played over all the games, in milliseconds
+     */
+    public PlayerStats(final long gamesPlayed, final int bestScore, final int lastScore, final long totalScore,
+        final long playTimeMillis) {
+        this.gamesPlayed = gamesPlayed;
+        this.bestScore = bestScore;
+        this.lastScore = lastScore;
+        this.totalScore = totalScore;
+        this.playTimeMillis = playTimeMillis;
+    }
+
+    /**
+     * Gets the number of games played.
+     *
+     * @return the number of games
+     */
+    public long getGamesPlayed() {
+        return gamesPlayed;
+    }
+
+    /**
+     * Gets the highest score of the player.
+     *
+     * @return the best score
+     */
+    public int getBestScore() {
+        return bestScore;
+    }
+
+    /**
+     * Gets the score of the latest game of the player.
+     *
+     * @return the last score
+     */
+    public int getLastScore() {
+        return lastScore;
+    }
+
+    /**
+     * Gets the sum of the scores of all the games of the player.
+     *
+     * @return the total score
+     */
+    public long getTotalScore() {
+        return totalScore;
+    }
+
+    /**
+     * Gets the average score of the games of the player.
+     *
+     * @return the mean score, or 0 if no game was played
+     */
+    public double getMeanScore() {
+        return gamesPlayed == 0 ? 0 : (double) totalScore / gamesPlayed;
+    }
+
+    /**
+     * Gets the time played over all the games, leaving out the time spent paused.
+     * Games saved before play time was tracked count as 0.
+     *
+     * @return the total play time, in milliseconds
+     */
+    public long getPlayTimeMillis() {
+        return playTimeMillis;
+    }
+}
@@ -0,0 +1,243 @@
+package it.unibo.frogger.core;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Keeps the statistics of every player in a binary file mapped in memory.
+ * The file starts with a header holding a magic number, the format version, the number
+ * of slots in use and the number of records of the {@link BinaryScoreFile} applied so far,
+ * followed by one fixed-width slot per player, at the position given by the id of the player
+ * name in the score file: the number of games, the best score, the last score, the sum of the
+ * scores and the time played. The number of applied records tells which records of the score file
+ * the statistics miss, for instance after a crash that left the statistics behind the records.
+ * Recording a game updates its slot in place and reading the statistics of a player reads its
+ * slot alone, so neither ever depends on how many scores or players there are.
+ */
+public class PlayerStatsStore implements Closeable {
+    /** The number of bytes of the header. */
+    public static final int HEADER_SIZE = 24;
+    /** The number of bytes of the slot of a player. */
+    public static final int SLOT_SIZE = 32;
+    /** The version of the format written by this class. */
+    public static final int VERSION = 2;
+
+    private static final int MAGIC = 0x46525354; // "FRST"
+    private static final int VERSION_OFFSET = 4;
+    private static final int COUNT_OFFSET = 8;
+    private static final int APPLIED_OFFSET = 16;
+    private static final int BEST_OFFSET = 8;
+    private static final int LAST_OFFSET = 12;
+    private static final int TOTAL_OFFSET = 16;
+    private static final int PLAY_TIME_OFFSET = 24;
+    private static final int MIN_CAPACITY = 256;
+
+    private final FileChannel channel;
+    private MappedByteBuffer slots;
+    private int count;
+    private long applied;
+
+    /**
+     * Opens a statistics file, creating it if it does not exist.
+     *
+     * @param path the path of the statistics file
+     * @throws IOException if the file cannot be read or is not a statistics file
+     */
+    public PlayerStatsStore(final Path path) throws IOException {
+        this.channel = FileChannel.open(path,
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (channel.size() == 0) {
+                map(MIN_CAPACITY);
+                slots.putInt(0, MAGIC);
+                slots.putInt(VERSION_OFFSET, VERSION);
+                slots.putLong(COUNT_OFFSET, 0);
+                slots.putLong(APPLIED_OFFSET, 0);
+            } else {
+                if (channel.size() < HEADER_SIZE) {
+                    throw new IOException("Not a statistics file: " + path);
+                }
+                map((int) ((channel.size() - HEADER_SIZE) / SLOT_SIZE));
+                readHeader(path);
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Builds a new statistics file from every record of a score file.
+     * Play time is not stored with the scores, so the games rebuilt this way count as no time played.
+     * If the build fails, the file is deleted, so that it can be tried again.
+     *
+     * @param scores the score file to read the games from
+     * @param path   the path of the statistics file to create
+     * @return the statistics of every player of the score file
+     * @throws IOException if the statistics file cannot be written or already exists
+     */
+    public static PlayerStatsStore rebuildFrom(final BinaryScoreFile scores, final Path path) throws IOException {
+        if (Files.exists(path)) {
+            throw new IOException("The statistics file already exists: " + path);
+        }
+        PlayerStatsStore store = new PlayerStatsStore(path);
+        try {
+            store.catchUp(scores);
+        } catch (IOException e) {
+            store.close();
+            Files.deleteIfExists(path);
+            throw e;
+        }
+        return store;
+    }
+
+    /**
+     * Records the games of a score file that the statistics do not hold yet, the ones past the
+     * number of applied records. Play time is not stored with the scores, so these games count
+     * as no time played.
+     *
+     * @param scores the score file the statistics were built from
+     * @throws IOException if the file cannot grow to hold a player, or holds more records than the score file
+     */
+    public void catchUp(final BinaryScoreFile scores) throws IOException {
+        long from = getAppliedCount();
+        if (from > scores.getRecordCount()) {
+            throw new IOException("The statistics hold " + from + " records, the score file only "
+                + scores.getRecordCount());
+        }
+        IOException[] failure = new IOException[1];
+        scores.scan(from, (nameId, name, score, timestamp) -> {
+            if (failure[0] == null) {
+                try {
+                    record(nameId, score, 0);
+                } catch (IOException e) {
+                    failure[0] = e;
+                }
+            }
+        });
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+    }
+
+    /**
+     * Records a game of a player, counting it as the next applied record of the score file.
+     *
+     * @param nameId         the id of the player name
+     * @param score          the score of the game
+     * @param playTimeMillis the time the game was played, in milliseconds
+     * @throws IOException if the file cannot grow to hold the player
+     */
+    public synchronized void record(final int nameId, final int score, final long playTimeMillis)
+        throws IOException {
+        if (HEADER_SIZE + (nameId + 1L) * SLOT_SIZE > slots.capacity()) {
+            map(Math.max(MIN_CAPACITY, (nameId + 1) * 2));
+        }
+        int offset = HEADER_SIZE + nameId * SLOT_SIZE;
+        long games = slots.getLong(offset);
+        int best = games == 0 ? score : Math.max(score, slots.getInt(offset + BEST_OFFSET));
+        slots.putInt(offset + BEST_OFFSET, best);
+        slots.putInt(offset + LAST_OFFSET, score);
+        slots.putLong(offset + TOTAL_OFFSET, slots.getLong(offset + TOTAL_OFFSET) + score);
+        slots.putLong(offset + PLAY_TIME_OFFSET, slots.getLong(offset + PLAY_TIME_OFFSET) + playTimeMillis);
+        slots.putLong(offset, games + 1);
+        if (nameId >= count) {
+            count = nameId + 1;
+            slots.putLong(COUNT_OFFSET, count);
+        }
+        applied++;
+        slots.putLong(APPLIED_OFFSET, applied);
+    }
+
+    /**
+     * Gets the number of records of the score file the statistics hold.
+     *
+     * @return the number of games recorded since the file was created
+     */
+    public synchronized long getAppliedCount() {
+        return applied;
+    }
+
+    /**
+     * Gets the statistics of a player.
+     *
+     * @param nameId the id of the player name
+     * @return the statistics of the player, or null if the player never played
+     */
+    public synchronized PlayerStats get(final int nameId) {
+        if (nameId < 0 || nameId >= count) {
+            return null;
+        }
+        int offset = HEADER_SIZE + nameId * SLOT_SIZE;
+        long games = slots.getLong(offset);
+        if (games == 0) {
+            return null;
+        }
+        return new PlayerStats(games, slots.getInt(offset + BEST_OFFSET), slots.getInt(offset + LAST_OFFSET),
+            slots.getLong(offset + TOTAL_OFFSET), slots.getLong(offset + PLAY_TIME_OFFSET));
+    }
+
+    /**
+     * Writes the statistics still in memory to the disk.
+     */
+    public synchronized void force() {
+        slots.force();
+    }
+
+    /**
+     * Closes the file, writing the statistics to the disk first.
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        slots.force();
+        channel.close();
+    }
+
+    /**
+     * Checks the header of the file and reads the number of slots in use and of applied records.
+     *
+     * @param path the path of the file, to report errors
+     * @throws IOException if the header does not belong to a statistics file of this version
+     */
+    private void readHeader(final Path path) throws IOException {
+        if (slots.getInt(0) != MAGIC) {
+            throw new IOException("Not a statistics file: " + path);
+        }
+        int version = slots.getInt(VERSION_OFFSET);
+        if (version != VERSION) {
+            throw new IOException("Unsupported statistics file version " + version + ": " + path);
+        }
+        long slotCount = slots.getLong(COUNT_OFFSET);
+        if (slotCount < 0 || HEADER_SIZE + slotCount * SLOT_SIZE > channel.size()) {
+            throw new IOException("Truncated statistics file: " + path);
+        }
+        count = (int) slotCount;
+        applied = slots.getLong(APPLIED_OFFSET);
+        if (applied < 0) {
+            throw new IOException("Corrupt statistics file: " + path);
+        }
+    }
+
+    /**
+     * Maps the file with room for a number of slots, growing the file if needed.
+     *
+     * @param capacity the number of slots the mapping must hold
+     * @throws IOException if the file cannot be mapped
+     */
+    private void map(final int capacity) throws IOException {
+        long size = HEADER_SIZE + (long) capacity * SLOT_SIZE;
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("The statistics file cannot hold more than " + count + " players");
+        }
+        slots = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        slots.order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
@@ -0,0 +1,185 @@
+package it.unibo.frogger.core;
+
+import java.util.Arrays;
+
+/**
+ * Counts every score ever made by value, to answer rank queries without sorting the history.
+ * Counts are kept in a Fenwick tree with one bucket per score value, so adding a score,
+ * finding the rank of a score and finding the score at a rank all take O(log n) in the
+ * highest score seen. The tree starts small and doubles as higher scores come in.
+ * Scores added before the first query, such as a whole history loaded at startup, are only
+ * counted, and the tree is built from the counts in linear time when it is first needed.
+ * Ranks start from 1 for the highest score, and equal scores share the same rank.
+ * Negative scores are counted as 0, and scores above {@value #MAX_SCORE} as {@value #MAX_SCORE}.
+ */
+public class RankIndex {
+    /** The highest score told apart from the ones below it. */
+    public static final int MAX_SCORE = (1 << 20) - 1;
+
+    private static final int INITIAL_CAPACITY = 1 << 12;
+
+    // tree[i] counts the scores in (i - lowbit(i), i], score s being stored at index s + 1;
+    // until the tree is built, tree[i] only counts the scores equal to i - 1
+    private long[] tree = new long[INITIAL_CAPACITY + 1];
+    private boolean built;
+    private long total;
+
+    /**
+     * Adds a score to the index.
+     *
+     * @param score the score
+     */
+    public void add(final int score) {
+        int index = clamp(score) + 1;
+        if (index > capacity()) {
+            grow(index);
+        }
+        if (built) {
+            for (int i = index; i < tree.length; i += i & -i) {
+                tree[i]++;
+            }
+        } else {
+            tree[index]++;
+        }
+        total++;
+    }
+
+    /**
+     * Gets the number of scores in the index.
+     *
+     * @return the number of scores
+     */
+    public long size() {
+        return total;
+    }
+
+    /**
+     * Gets the rank a score has, or would have, among all the scores of the index.
+     *
+     * @param score the score
+     * @return one more than the number of higher scores
+     */
+    public long rankOf(final int score) {
+        build();
+        int value = clamp(score);
+        long notHigher = value + 1 > capacity() ? total : prefix(value + 1);
+        return total - notHigher + 1;
+    }
+
+    /**
+     * Gets the score at a rank, as if all the scores were sorted from the highest.
+     *
+     * @param rank the rank, from 1 to the number of scores
+     * @return the score at that rank
+     * @throws IndexOutOfBoundsException if there is no score at that rank
+     */
+    public int scoreAt(final long rank) {
+        if (rank < 1 || rank > total) {
+            throw new IndexOutOfBoundsException("No score at rank " + rank + " of " + total);
+        }
+        build();
+        // Find the lowest score with at least total - rank + 1 scores not above it
+        long remaining = total - rank + 1;
+        int index = 0;
+        for (int step = Integer.highestOneBit(capacity()); step > 0; step >>= 1) {
+            int next = index + step;
+            if (next <= capacity() && tree[next] < remaining) {
+                index = next;
+                remaining -= tree[next];
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Gets the scores around a rank, from the highest.
+     *
+     * @param rank   the rank in the middle
+     * @param window the number of ranks to include above and below it
+     * @return the scores from rank - window to rank + window, limited to the ranks that exist
+     */
+    public int[] scoresAround(final long rank, final int window) {
+        long from = Math.max(1, rank - window);
+        long to = Math.min(total, rank + window);
+        if (from > to) {
+            return new int[0];
+        }
+        int[] scores = new int[(int) (to - from + 1)];
+        for (int i = 0; i < scores.length; i++) {
+            scores[i] = scoreAt(from + i);
+        }
+        return scores;
+    }
+
+    /**
+     * Builds the tree from the counts of the scores, if it is not built yet.
+     * Each node adds itself to its parent once, so building takes linear time.
+     */
+    private void build() {
+        if (built) {
+            return;
+        }
+        for (int i = 1; i < tree.length; i++) {
+            int parent = i + (i & -i);
+            if (parent < tree.length) {
+                tree[parent] += tree[i];
+            }
+        }
+        built = true;
+    }
+
+    /**
+     * Counts the scores stored at indexes 1 to {@code index}.
+     *
+     * @param index the last index, inclusive
+     * @return the number of scores up to that index
+     */
+    private long prefix(final int index) {
+        long count = 0;
+        for (int i = index; i > 0; i -= i & -i) {
+            count += tree[i];
+        }
+        return count;
+    }
+
+    /**
+     * Gets the number of buckets of the tree.
+     *
+     * @return the number of score values the tree can hold
+     */
+    private int capacity() {
+        return tree.length - 1;
+    }
+
+    /**
+     * Grows the tree to hold an index, doubling its capacity until it fits.
+     * Once the tree is built, since the capacity is a power of two, the existing nodes keep
+     * their ranges, the new nodes that are powers of two cover every bucket, and all the other
+     * new nodes are empty.
+     *
+     * @param index the index to hold
+     */
+    private void grow(final int index) {
+        int oldCapacity = capacity();
+        int newCapacity = oldCapacity;
+        while (newCapacity < index) {
+            newCapacity <<= 1;
+        }
+        tree = Arrays.copyOf(tree, newCapacity + 1);
+        if (built) {
+            for (int i = oldCapacity << 1; i <= newCapacity; i <<= 1) {
+                tree[i] = total;
+            }
+        }
+    }
+
+    /**
+     * Brings a score into the range of values told apart.
+     *
+     * @param score the score
+     * @return the score, limited to 0 to {@value #MAX_SCORE}
+     */
+    private static int clamp(final int score) {
+        return Math.max(0, Math.min(MAX_SCORE, score));
+    }
+}
@@ -0,0 +1,160 @@
+package it.unibo.frogger.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * The text log of every score made by earlier versions, one {@code name:score:timestamp} line per match,
+ * read once to import it into a {@link BinaryScoreFile}; nothing writes it anymore.
+ * Reading the history streams the file once. The reader parses the bytes directly instead of building a
+ * string per line, and hands each record to a {@link RecordVisitor} without allocating anything:
+ * the visitor decides whether the name of a record is worth decoding.
+ * Lines written before timestamps were added, {@code name:score}, are read with timestamp 0.
+ */
+public class ScoreLog {
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final Path path;
+
+    /**
+     * Receives the records of the log, in the order they were appended.
+     */
+    @FunctionalInterface
+    public interface RecordVisitor {
+        /**
+         * Visits a record.
+         * The buffer is reused for the next records, so the name must be copied to be kept.
+         *
+         * @param buffer     the buffer holding the name of the player, encoded in UTF-8
+         * @param nameOffset the offset of the name in the buffer
+         * @param nameLength the number of bytes of the name
+         * @param score      the score
+         * @param timestamp  when the score was made, in epoch milliseconds, or 0 if unknown
+         */
+        void visit(byte[] buffer, int nameOffset, int nameLength, int score, long timestamp);
+    }
+
+    /**
+     * Constructs a new ScoreLog.
+     *
+     * @param path the path of the log file
+     */
+    public ScoreLog(final Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Gets the path of the log file.
+     *
+     * @return the path of the log
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Reads every record of the log, skipping the lines that are not well formed.
+     * A missing log has no records.
+     *
+     * @param visitor the visitor to hand the records to
+     * @return the number of records read
+     * @throws IOException if the log cannot be read
+     */
+    public long read(final RecordVisitor visitor) throws IOException {
+        try (InputStream input = Files.newInputStream(path)) {
+            return parse(input, visitor);
+        } catch (NoSuchFileException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Parses records from a stream, a line at a time.
+     * Lines are parsed in place in the read buffer; a line cut by the end of the buffer
+     * is moved to its start before reading more.
+     *
+     * @param input   the stream to read
+     * @param visitor the visitor to hand the records to
+     * @return the number of records read
+     * @throws IOException if the stream cannot be read
+     */
+    static long parse(final InputStream input, final RecordVisitor visitor) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int end = 0;
+        long records = 0;
+        int read;
+        while ((read = input.read(buffer, end, buffer.length - end)) >= 0) {
+            end += read;
+            int lineStart = 0;
+            for (int i = lineStart; i < end; i++) {
+                if (buffer[i] == '\n') {
+                    if (parseLine(buffer, lineStart, i, visitor)) {
+                        records++;
+                    }
+                    lineStart = i + 1;
+                }
+            }
+            // Keep the incomplete last line, growing the buffer if it fills it whole
+            end -= lineStart;
+            System.arraycopy(buffer, lineStart, buffer, 0, end);
+            if (end == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+        }
+        // The last line may not end with a newline
+        if (end > 0 && parseLine(buffer, 0, end, visitor)) {
+            records++;
+        }
+        return records;
+    }
+
+    /**
+     * Parses a {@code name:score} or {@code name:score:timestamp} line and visits its record.
+     *
+     * @param line    the buffer holding the line
+     * @param from    the start of the line, inclusive
+     * @param to      the end of the line, exclusive, without the newline
+     * @param visitor the visitor to hand the record to
+     * @return true if the line is a record, false if it is not well formed
+     */
+    private static boolean parseLine(final byte[] line, final int from, final int to, final RecordVisitor visitor) {
+        int end = to > from && line[to - 1] == '\r' ? to - 1 : to;
+        int i = from;
+        while (i < end && line[i] != ':') {
+            i++;
+        }
+        int nameEnd = i++;
+        boolean negative = i < end && line[i] == '-';
+        if (negative) {
+            i++;
+        }
+        int digitsStart = i;
+        long score = 0;
+        while (i < end && line[i] >= '0' && line[i] <= '9' && score <= Integer.MAX_VALUE) {
+            score = score * 10 + (line[i++] - '0');
+        }
+        if (nameEnd >= end || i == digitsStart || score > (long) Integer.MAX_VALUE + (negative ? 1 : 0)) {
+            return false;
+        }
+
+        long timestamp = 0;
+        if (i < end) {
+            if (line[i++] != ':' || i == end) {
+                return false;
+            }
+            while (i < end) {
+                byte b = line[i++];
+                if (b < '0' || b > '9') {
+                    return false;
+                }
+                timestamp = timestamp * 10 + (b - '0');
+            }
+        }
+        visitor.visit(line, from, nameEnd - from, (int) (negative ? -score : score), timestamp);
+        return true;
+    }
+}
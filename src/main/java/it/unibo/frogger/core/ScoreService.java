@@ -0,0 +1,61 @@
+package it.unibo.frogger.core;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The scores of the game as seen by the {@link LeaderboardServer}: queries answered from memory,
+ * and score submissions that are refused rather than waited on when the scores cannot keep up.
+ */
+public interface ScoreService {
+    /**
+     * Gets the best scores.
+     *
+     * @param limit the maximum number of scores to get
+     * @return the names and scores of the players, from the highest score
+     */
+    List<Map.Entry<String, Integer>> getTopScores(int limit);
+
+    /**
+     * Gets the rank a score has, or would have, among all the scores.
+     *
+     * @param score the score
+     * @return one more than the number of higher scores
+     */
+    long getRank(int score);
+
+    /**
+     * Gets the number of scores.
+     *
+     * @return the number of scores
+     */
+    long getScoreCount();
+
+    /**
+     * Gets the statistics of a player over all their games.
+     *
+     * @param playerName the name of the player
+     * @return the statistics of the player, or null if the player never played
+     */
+    PlayerStats getPlayerStats(String playerName);
+
+    /**
+     * Saves a score if it can be taken without waiting for room, returning once it is saved.
+     *
+     * @param playerName     the name of the player
+     * @param score          the score
+     * @param timestamp      when the score was made, in epoch milliseconds
+     * @param playTimeMillis the time the game was played, in milliseconds
+     * @return true if the score was saved, false if too many scores are waiting to be written
+     *         or the score cannot be written
+     */
+    boolean offerScore(String playerName, int score, long timestamp, long playTimeMillis);
+
+    /**
+     * Gets a number that changes every time a score is saved, so that answers to queries
+     * can be reused for as long as it stays the same.
+     *
+     * @return the version of the scores
+     */
+    long getVersion();
+}
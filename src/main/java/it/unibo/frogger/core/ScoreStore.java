@@ -0,0 +1,254 @@
+package it.unibo.frogger.core;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The scores of a directory: the {@link BinaryScoreFile} of every score, the {@link Leaderboard}
+ * built from it and the {@link PlayerStatsStore} of the players, all opened once and safe to use
+ * from any number of threads, such as several matches ending together and the requests of a
+ * {@link LeaderboardServer}.
+ * Inserts never write the files themselves: they are queued to a single {@link ScoreWriter} thread,
+ * the only one writing records, names and statistics, so nothing is ever interleaved. Once a score is
+ * written, the writer shows it in the statistics of the player and then in the leaderboard, and only
+ * then lets the insert return; a score is therefore never shown before it is in the file, and when the
+ * {@linkplain #getVersion() version} changes the statistics are already up to date. The best scores are
+ * read from a snapshot the leaderboard publishes, and players are found, without taking any lock.
+ * The statistics are flushed right after the records, with the sync policy of the writer; when they are
+ * opened, the records they miss are replayed, and statistics that cannot be trusted are rebuilt.
+ * A text scores file left by earlier versions in the directory is imported the first time.
+ */
+public class ScoreStore implements ScoreService, AutoCloseable {
+    /** The name of the text scores file written by earlier versions. */
+    public static final String SCORES_FILE = "player_scores.txt";
+    /** The name of the file of every score. */
+    public static final String RECORDS_FILE = "player_scores.bin";
+    /** The name of the name table of the score file. */
+    public static final String NAMES_FILE = "player_names.txt";
+    /** The name of the file of the statistics of the players. */
+    public static final String STATS_FILE = "player_stats.bin";
+
+    private final BinaryScoreFile file;
+    private final Leaderboard leaderboard;
+    private final PlayerStatsStore stats;
+    private final ScoreWriter writer;
+
+    /**
+     * Opens the scores of a directory, creating the files that do not exist.
+     * The whole history is scanned before the constructor returns.
+     *
+     * @param directory           the directory of the files
+     * @param leaderboardCapacity the number of best scores to keep in memory
+     * @param queueCapacity       the number of scores that can wait to be written
+     * @param policy              when to flush the score file to the disk
+     * @param syncIntervalMillis  the time between two flushes with {@link ScoreWriter.SyncPolicy#INTERVAL}
+     * @throws IOException if the files cannot be read or written
+     */
+    public ScoreStore(final Path directory, final int leaderboardCapacity, final int queueCapacity,
+        final ScoreWriter.SyncPolicy policy, final long syncIntervalMillis) throws IOException {
+        Path records = directory.resolve(RECORDS_FILE);
+        Path names = directory.resolve(NAMES_FILE);
+        Path statsPath = directory.resolve(STATS_FILE);
+        this.file = Files.exists(records)
+            ? new BinaryScoreFile(records, names)
+            : BinaryScoreFile.importFrom(new ScoreLog(directory.resolve(SCORES_FILE)), records, names);
+        try {
+            // Both scans happen before the writer starts, so they never see a score about to be recorded
+            this.leaderboard = new Leaderboard(file, leaderboardCapacity);
+            this.stats = openStats(file, statsPath);
+        } catch (IOException e) {
+            file.close();
+            throw e;
+        }
+        this.writer = new ScoreWriter(file, queueCapacity, policy, syncIntervalMillis,
+            new ScoreWriter.WriteListener() {
+                @Override
+                public void written(final int nameId, final String name, final int score, final long timestamp,
+                    final long playTimeMillis) {
+                    show(nameId, name, score, timestamp, playTimeMillis);
+                }
+
+                @Override
+                public void synced() {
+                    stats.force();
+                }
+            });
+    }
+
+    /**
+     * Saves a score, waiting for room in the write queue if it is full.
+     * It returns once the score is written, in a group commit with the other waiting scores,
+     * and shown in the leaderboard and the statistics.
+     *
+     * @param playerName     the name of the player
+     * @param score          the score
+     * @param playTimeMillis the time the game was played, in milliseconds
+     * @return when the score was made, in epoch milliseconds
+     * @throws IOException          if the score cannot be written
+     * @throws InterruptedException if the thread is interrupted while waiting for room
+     */
+    public long saveScore(final String playerName, final int score, final long playTimeMillis)
+        throws IOException, InterruptedException {
+        long timestamp = System.currentTimeMillis();
+        if (!writer.write(playerName, score, timestamp, playTimeMillis)) {
+            throw new IOException("The score of " + playerName + " could not be written");
+        }
+        return timestamp;
+    }
+
+    /**
+     * Saves a score if there is room for it in the write queue.
+     * It returns once the score is written and shown in the leaderboard and the statistics.
+     *
+     * @param playerName     the name of the player
+     * @param score          the score
+     * @param timestamp      when the score was made, in epoch milliseconds
+     * @param playTimeMillis the time the game was played, in milliseconds
+     * @return true if the score was saved, false if the queue is full or the score cannot be written
+     */
+    @Override
+    public boolean offerScore(final String playerName, final int score, final long timestamp,
+        final long playTimeMillis) {
+        return writer.tryWrite(playerName, score, timestamp, playTimeMillis);
+    }
+
+    /**
+     * Gets the best scores, from the snapshot published by the leaderboard, without taking any lock.
+     *
+     * @param limit the maximum number of scores to get
+     * @return the names and scores of the players, from the highest score
+     */
+    @Override
+    public List<Map.Entry<String, Integer>> getTopScores(final int limit) {
+        return leaderboard.getTop(limit);
+    }
+
+    /**
+     * Gets the best scores of the day holding a given time.
+     *
+     * @param timestamp a time in the day, in epoch milliseconds
+     * @param limit     the maximum number of scores to get
+     * @return the names and scores of the players, from the highest score
+     */
+    public List<Map.Entry<String, Integer>> getDailyTopScores(final long timestamp, final int limit) {
+        return leaderboard.getDailyTop(timestamp, limit);
+    }
+
+    /**
+     * Gets the best scores of the ISO week holding a given time.
+     *
+     * @param timestamp a time in the week, in epoch milliseconds
+     * @param limit     the maximum number of scores to get
+     * @return the names and scores of the players, from the highest score
+     */
+    public List<Map.Entry<String, Integer>> getWeeklyTopScores(final long timestamp, final int limit) {
+        return leaderboard.getWeeklyTop(timestamp, limit);
+    }
+
+    @Override
+    public long getRank(final int score) {
+        return leaderboard.rankOf(score);
+    }
+
+    @Override
+    public long getScoreCount() {
+        return leaderboard.getRecordCount();
+    }
+
+    @Override
+    public PlayerStats getPlayerStats(final String playerName) {
+        int nameId = file.findNameId(playerName);
+        return nameId < 0 ? null : stats.get(nameId);
+    }
+
+    @Override
+    public long getVersion() {
+        return leaderboard.getVersion();
+    }
+
+    /**
+     * Visits every score written to the file so far, leaving out the ones still queued.
+     *
+     * @param visitor the visitor to hand the scores to
+     * @return the number of scores visited
+     */
+    public long scan(final BinaryScoreFile.RecordVisitor visitor) {
+        return file.scan(visitor);
+    }
+
+    /**
+     * Gets the writer saving the scores in the background, whose metrics tell how many scores
+     * wait to be written and how long commits take.
+     *
+     * @return the score writer
+     */
+    public ScoreWriter getWriter() {
+        return writer;
+    }
+
+    /**
+     * Writes every queued score and closes the files.
+     *
+     * @throws IOException if the files cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        writer.close();
+        try {
+            stats.close();
+        } finally {
+            file.close();
+        }
+    }
+
+    /**
+     * Opens the statistics of the players and records the games of the score file they miss.
+     * A crash may leave them behind the records, which are flushed first, but also ahead of them, since the
+     * system may write mapped statistics before the records; statistics ahead of the records or that cannot be
+     * read are rebuilt from the score file.
+     *
+     * @param file the score file
+     * @param path the path of the statistics file
+     * @return the statistics, holding every record of the score file
+     * @throws IOException if the statistics file cannot be written
+     */
+    private static PlayerStatsStore openStats(final BinaryScoreFile file, final Path path) throws IOException {
+        if (Files.exists(path)) {
+            PlayerStatsStore stats = null;
+            try {
+                stats = new PlayerStatsStore(path);
+                stats.catchUp(file);
+                return stats;
+            } catch (IOException e) {
+                System.err.println("Rebuilding the player statistics: " + e.getMessage());
+                if (stats != null) {
+                    stats.close();
+                }
+            }
+            Files.delete(path);
+        }
+        return PlayerStatsStore.rebuildFrom(file, path);
+    }
+
+    /**
+     * Shows a written score in the statistics of the player and then in the leaderboard, on the writer thread.
+     *
+     * @param nameId         the id of the player name
+     * @param playerName     the name of the player
+     * @param score          the score
+     * @param timestamp      when the score was made, in epoch milliseconds
+     * @param playTimeMillis the time the game was played, in milliseconds
+     */
+    private void show(final int nameId, final String playerName, final int score, final long timestamp,
+        final long playTimeMillis) {
+        try {
+            stats.record(nameId, score, playTimeMillis);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        leaderboard.record(playerName, score, timestamp);
+    }
+}
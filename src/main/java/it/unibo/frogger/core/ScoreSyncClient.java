@@ -0,0 +1,518 @@
+package it.unibo.frogger.core;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Uploads the scores made on this cabinet to a shared leaderboard, such as the {@code /scores}
+ * endpoint of a {@link LeaderboardServer}, and keeps them until they are uploaded.
+ * Submitting a score only appends a line to an outbox file, so the game never waits on the network;
+ * a background thread uploads the waiting scores in batches, one form per line, and then records how
+ * many lines of the outbox were uploaded in an acknowledgment file. Scores left in the outbox when the
+ * game closes are uploaded the next time it runs.
+ * Each score carries a random id, kept in the outbox with it, so that the server can skip the scores
+ * it already saved when a batch is sent again after a timeout or a failure. Failed uploads are retried
+ * after an exponential backoff with jitter, whatever the error, since a wrong address, a proxy or a
+ * missing authorization can all be fixed later. Only a batch the server refuses as malformed, with
+ * 400, 413 or 422, is taken out of the outbox, and it is kept in a dead-letter file next to it.
+ */
+public class ScoreSyncClient implements AutoCloseable {
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(5);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+    // Once every line is uploaded, the outbox is emptied when it grows past this size
+    private static final long COMPACT_BYTES = 1 << 20;
+
+    private final URI endpoint;
+    private final Path outboxPath;
+    private final Path deadLetterPath;
+    private final FileChannel outbox;
+    private final FileChannel acknowledged;
+    private final int batchSize;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final HttpClient http;
+    private final SplittableRandom random = new SplittableRandom();
+    private final Deque<PendingScore> pending = new ArrayDeque<>();
+    private final Thread thread;
+    private final long openedNanos = System.nanoTime();
+    private long acknowledgedLines;
+    private boolean closed;
+    private volatile long uploadedScores;
+    private volatile long droppedScores;
+    private volatile long batches;
+    private volatile long failedAttempts;
+    private volatile long totalLagMillis;
+    private volatile long maxLagMillis;
+
+    /**
+     * A score waiting in the outbox.
+     */
+    private static final class PendingScore {
+        private final String line;
+        private final long timestamp;
+
+        /**
+         * Constructs a new PendingScore.
+         *
+         * @param line      the line of the score in the outbox, which is also the form uploaded
+         * @param timestamp when the score was made, in epoch milliseconds
+         */
+        PendingScore(final String line, final long timestamp) {
+            this.line = line;
+            this.timestamp = timestamp;
+        }
+    }
+
+    /**
+     * Opens the outbox, creating it if it does not exist, and starts uploading the scores waiting in it.
+     *
+     * @param endpoint             the URL to send the scores to
+     * @param outboxPath           the path of the outbox; the acknowledgment and dead-letter files are next to it
+     * @param batchSize            the largest number of scores sent in one request
+     * @param initialBackoffMillis the wait after the first failed upload, doubled on each failure
+     * @param maxBackoffMillis     the longest wait between two uploads
+     * @throws IOException if the outbox cannot be read
+     */
+    public ScoreSyncClient(final URI endpoint, final Path outboxPath, final int batchSize,
+        final long initialBackoffMillis, final long maxBackoffMillis) throws IOException {
+        this.endpoint = endpoint;
+        this.outboxPath = outboxPath;
+        this.deadLetterPath = outboxPath.resolveSibling(outboxPath.getFileName() + ".dead");
+        this.batchSize = batchSize;
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.outbox = FileChannel.open(outboxPath,
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            this.acknowledged = FileChannel.open(outboxPath.resolveSibling(outboxPath.getFileName() + ".ack"),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            outbox.close();
+            throw e;
+        }
+        loadPending();
+        this.http = HttpClient.newBuilder().connectTimeout(CONNECT_TIMEOUT).build();
+        this.thread = new Thread(this::run, "score-sync");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Queues a score to be uploaded, writing it to the outbox first.
+     * It never waits on the network, only on the disk.
+     *
+     * @param name           the name of the player
+     * @param score          the score
+     * @param timestamp      when the score was made, in epoch milliseconds
+     * @param playTimeMillis the time the game was played, in milliseconds
+     * @throws IOException if the outbox cannot be written
+     */
+    public void submit(final String name, final int score, final long timestamp, final long playTimeMillis)
+        throws IOException {
+        String line = "id=" + UUID.randomUUID()
+            + "&name=" + URLEncoder.encode(name, StandardCharsets.UTF_8)
+            + "&score=" + score
+            + "&timestamp=" + timestamp
+            + "&playTimeMillis=" + playTimeMillis;
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("The score sync client is closed");
+            }
+            outbox.write(ByteBuffer.wrap((line + "\n").getBytes(StandardCharsets.UTF_8)), outbox.size());
+            outbox.force(false);
+            pending.addLast(new PendingScore(line, timestamp));
+            notifyAll();
+        }
+    }
+
+    /**
+     * Waits until every queued score is uploaded.
+     *
+     * @param timeoutMillis the longest time to wait, in milliseconds
+     * @return true if no score is left to upload, false if the time ran out first
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public synchronized boolean awaitUploaded(final long timeoutMillis) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (!pending.isEmpty()) {
+            long left = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (left <= 0) {
+                return false;
+            }
+            wait(left);
+        }
+        return true;
+    }
+
+    /**
+     * Gets the number of scores waiting to be uploaded.
+     *
+     * @return the number of pending scores
+     */
+    public synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Gets the number of scores uploaded so far.
+     *
+     * @return the number of uploaded scores
+     */
+    public long getUploadedCount() {
+        return uploadedScores;
+    }
+
+    /**
+     * Gets the number of scores moved to the dead-letter file because the server refused them as malformed.
+     *
+     * @return the number of dead-lettered scores
+     */
+    public long getDroppedCount() {
+        return droppedScores;
+    }
+
+    /**
+     * Gets the number of batches uploaded so far.
+     *
+     * @return the number of successful requests
+     */
+    public long getBatchCount() {
+        return batches;
+    }
+
+    /**
+     * Gets the number of uploads that failed and were retried.
+     *
+     * @return the number of failed requests
+     */
+    public long getFailedAttempts() {
+        return failedAttempts;
+    }
+
+    /**
+     * Gets the average time from when a score was made to when it was uploaded.
+     *
+     * @return the average end-to-end lag, in milliseconds
+     */
+    public double getAverageLagMillis() {
+        long count = uploadedScores;
+        return count == 0 ? 0 : (double) totalLagMillis / count;
+    }
+
+    /**
+     * Gets the longest time from when a score was made to when it was uploaded.
+     *
+     * @return the maximum end-to-end lag, in milliseconds
+     */
+    public long getMaxLagMillis() {
+        return maxLagMillis;
+    }
+
+    /**
+     * Gets the number of scores uploaded per second since the client was opened.
+     *
+     * @return the upload throughput, in scores per second
+     */
+    public double getScoresPerSecond() {
+        double seconds = (System.nanoTime() - openedNanos) / 1e9;
+        return seconds <= 0 ? 0 : uploadedScores / seconds;
+    }
+
+    /**
+     * Stops uploading, leaving the scores not uploaded yet in the outbox for the next time.
+     * An upload already sent may still reach the server, and its ids let the server skip it next time.
+     *
+     * @throws IOException if the outbox cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            notifyAll();
+        }
+        thread.interrupt();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            outbox.close();
+            acknowledged.close();
+        }
+    }
+
+    /**
+     * Reads the lines of the outbox that were not acknowledged yet.
+     *
+     * @throws IOException if the outbox cannot be read
+     */
+    private void loadPending() throws IOException {
+        ByteBuffer count = ByteBuffer.allocate(Long.BYTES);
+        if (acknowledged.read(count, 0) == Long.BYTES) {
+            acknowledgedLines = count.flip().getLong();
+        }
+        byte[] content = Files.readAllBytes(outboxPath);
+        int end = content.length;
+        while (end > 0 && content[end - 1] != '\n') {
+            end--;
+        }
+        if (end < content.length) {
+            // A line cut short by a crash while it was written was never queued: drop it
+            outbox.truncate(end);
+        }
+        long line = 0;
+        int start = 0;
+        for (int i = 0; i < end; i++) {
+            if (content[i] == '\n') {
+                if (line++ >= acknowledgedLines && i > start) {
+                    String text = new String(content, start, i - start, StandardCharsets.UTF_8);
+                    pending.addLast(new PendingScore(text, readTimestamp(text)));
+                }
+                start = i + 1;
+            }
+        }
+        if (acknowledgedLines > line) {
+            // Left by a crash while emptying the outbox: new lines must not count as acknowledged
+            acknowledgedLines = line;
+            writeAcknowledged(line);
+        }
+    }
+
+    /**
+     * Uploads the pending scores until the client is closed.
+     */
+    private void run() {
+        int failures = 0;
+        while (true) {
+            List<PendingScore> batch;
+            synchronized (this) {
+                while (pending.isEmpty() && !closed) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        // Only closing stops the uploads
+                        continue;
+                    }
+                }
+                if (closed) {
+                    return;
+                }
+                batch = new ArrayList<>(Math.min(batchSize, pending.size()));
+                for (PendingScore score : pending) {
+                    if (batch.size() == batchSize) {
+                        break;
+                    }
+                    batch.add(score);
+                }
+            }
+            int status = upload(batch);
+            if (status / 100 == 2) {
+                acknowledge(batch, true);
+                failures = 0;
+            } else if (isMalformed(status) && deadLetter(batch)) {
+                // Sending a malformed batch again would only fail again
+                acknowledge(batch, false);
+                failures = 0;
+            } else {
+                failedAttempts++;
+                failures++;
+                if (!sleep(backoffMillis(failures))) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Sends a batch of scores to the server.
+     *
+     * @param batch the scores to send
+     * @return the status code of the answer, or 0 if the server could not be reached
+     */
+    private int upload(final List<PendingScore> batch) {
+        StringBuilder body = new StringBuilder();
+        for (PendingScore score : batch) {
+            body.append(score.line).append('\n');
+        }
+        HttpRequest request = HttpRequest.newBuilder(endpoint)
+            .timeout(REQUEST_TIMEOUT)
+            .header("Content-Type", "text/plain; charset=utf-8")
+            .POST(HttpRequest.BodyPublishers.ofString(body.toString(), StandardCharsets.UTF_8))
+            .build();
+        try {
+            return http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException e) {
+            return 0;
+        } catch (InterruptedException e) {
+            // Closing interrupts the upload, which is sent again the next time
+            return 0;
+        }
+    }
+
+    /**
+     * Checks whether the server refused a batch because the batch itself is wrong.
+     * Any other error, such as a wrong path, a missing authorization or a proxy failure, may go away.
+     *
+     * @param status the status code of the answer
+     * @return true if sending the batch again would fail again
+     */
+    private static boolean isMalformed(final int status) {
+        return status == 400 || status == 413 || status == 422;
+    }
+
+    /**
+     * Appends a batch refused as malformed to the dead-letter file, where it can be looked at later.
+     *
+     * @param batch the scores refused
+     * @return true if the batch is on the disk, false if the dead-letter file cannot be written
+     */
+    private boolean deadLetter(final List<PendingScore> batch) {
+        StringBuilder lines = new StringBuilder();
+        for (PendingScore score : batch) {
+            lines.append(score.line).append('\n');
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+        try (FileChannel dead = FileChannel.open(deadLetterPath,
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            while (bytes.hasRemaining()) {
+                dead.write(bytes);
+            }
+            dead.force(false);
+            return true;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Removes an uploaded batch from the pending scores and records it in the acknowledgment file,
+     * emptying the outbox when nothing is left to upload and it grew large.
+     *
+     * @param batch    the scores at the head of the pending scores
+     * @param uploaded true if the server saved them, false if it refused them and they were dead-lettered
+     */
+    private synchronized void acknowledge(final List<PendingScore> batch, final boolean uploaded) {
+        long now = System.currentTimeMillis();
+        for (PendingScore score : batch) {
+            pending.removeFirst();
+            if (uploaded) {
+                long lag = now - score.timestamp;
+                totalLagMillis += lag;
+                maxLagMillis = Math.max(maxLagMillis, lag);
+            }
+        }
+        if (uploaded) {
+            uploadedScores += batch.size();
+            batches++;
+        } else {
+            droppedScores += batch.size();
+        }
+        acknowledgedLines += batch.size();
+        try {
+            if (pending.isEmpty() && outbox.size() > COMPACT_BYTES) {
+                // The count goes first: a crash before the outbox is emptied only sends it again,
+                // and the server skips those scores by their ids
+                writeAcknowledged(0);
+                outbox.truncate(0);
+                outbox.force(false);
+                acknowledgedLines = 0;
+            } else {
+                writeAcknowledged(acknowledgedLines);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        notifyAll();
+    }
+
+    /**
+     * Records on the disk how many lines of the outbox were acknowledged.
+     *
+     * @param lines the number of lines acknowledged
+     * @throws IOException if the acknowledgment file cannot be written
+     */
+    private void writeAcknowledged(final long lines) throws IOException {
+        acknowledged.write(ByteBuffer.allocate(Long.BYTES).putLong(0, lines), 0);
+        acknowledged.force(false);
+    }
+
+    /**
+     * Gets the wait before the next upload after some failures in a row: an exponential backoff
+     * with full jitter, so that cabinets that lost the server together do not retry together.
+     *
+     * @param failures the number of failed uploads in a row
+     * @return the wait, in milliseconds
+     */
+    private long backoffMillis(final int failures) {
+        long ceiling = initialBackoffMillis << Math.min(failures - 1, Long.SIZE - 2);
+        if (ceiling <= 0 || ceiling > maxBackoffMillis) {
+            ceiling = maxBackoffMillis;
+        }
+        return 1 + random.nextLong(Math.max(1, ceiling));
+    }
+
+    /**
+     * Waits before the next upload, unless the client is closed in the meantime.
+     *
+     * @param millis the wait, in milliseconds
+     * @return true if the uploads should go on, false if the client was closed
+     */
+    private synchronized boolean sleep(final long millis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+        long left = millis;
+        while (!closed && left > 0) {
+            try {
+                wait(left);
+            } catch (InterruptedException e) {
+                // Only closing stops the uploads
+                continue;
+            }
+            left = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+        }
+        return !closed;
+    }
+
+    /**
+     * Reads when a score was made from its line in the outbox.
+     *
+     * @param line the line of the score
+     * @return the timestamp of the score, or 0 if it has none
+     */
+    private static long readTimestamp(final String line) {
+        for (String field : line.split("&")) {
+            if (field.startsWith("timestamp=")) {
+                try {
+                    return Long.parseLong(URLDecoder.decode(field.substring("timestamp=".length()),
+                        StandardCharsets.UTF_8));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 0;
+    }
+}
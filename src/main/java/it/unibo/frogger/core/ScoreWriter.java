@@ -0,0 +1,451 @@
+package it.unibo.frogger.core;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Writes scores to a {@link BinaryScoreFile} on a background thread, so saving a score
+ * never waits on the disk. Scores wait in a bounded queue; the writer takes all the scores
+ * waiting at once and appends them as a single commit, then flushes the file to the disk
+ * as often as its {@link SyncPolicy} asks. Closing the writer, which also happens when the
+ * JVM shuts down, writes every score still queued and flushes the file.
+ * The writer thread is the only one writing the file, name table included. Once a commit is
+ * done, and flushed if the policy asks for it, each of its scores is handed to the
+ * {@link WriteListener}, still on the writer thread, and the callers waiting for it are released.
+ * The listener is also told each time the file is flushed, so that it can flush what it keeps
+ * about the written scores with the same policy.
+ */
+public class ScoreWriter implements AutoCloseable {
+    private static final int MAX_BATCH = 256;
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private final BinaryScoreFile file;
+    private final WriteListener listener;
+    private final BlockingQueue<PendingScore> queue;
+    private final SyncPolicy policy;
+    private final long syncIntervalNanos;
+    private final long pollMillis;
+    private final Thread thread;
+    private final Thread shutdownHook;
+    // Submitters share the read lock, so closing waits for the scores being queued
+    private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+    private volatile boolean closed;
+    private long lastSync = System.nanoTime();
+    private boolean dirty;
+    private volatile long commits;
+    private volatile long committedScores;
+    private volatile long failedScores;
+    private volatile long totalCommitNanos;
+    private volatile long maxCommitNanos;
+
+    /**
+     * When the written scores are flushed from memory to the disk.
+     */
+    public enum SyncPolicy {
+        /** After every commit: a score is on the disk as soon as it is written. */
+        EVERY_COMMIT,
+        /** At most once per sync interval, and when the writer is closed. */
+        INTERVAL,
+        /** Only when the writer is closed, leaving it to the operating system until then. */
+        ON_SHUTDOWN
+    }
+
+    /**
+     * Receives the scores once they are written, on the writer thread, in the order they were written.
+     */
+    @FunctionalInterface
+    public interface WriteListener {
+        /**
+         * Handles a score written to the file.
+         *
+         * @param nameId         the id of the player name in the file
+         * @param name           the name of the player
+         * @param score          the score
+         * @param timestamp      when the score was made, in epoch milliseconds
+         * @param playTimeMillis the time the game was played, in milliseconds
+         */
+        void written(int nameId, String name, int score, long timestamp, long playTimeMillis);
+
+        /**
+         * Handles the flush of the file to the disk, right after it, on the writer thread.
+         * It does nothing unless overridden.
+         */
+        default void synced() {
+        }
+    }
+
+    /**
+     * A score waiting to be written.
+     */
+    private static final class PendingScore {
+        private final String name;
+        private final int score;
+        private final long timestamp;
+        private final long playTimeMillis;
+        // Null when nobody waits for the score
+        private final CountDownLatch done;
+        private int nameId = -1;
+
+        /**
+         * Constructs a new PendingScore.
+         *
+         * @param name      the name of the player
+         * @param score     the score
+         * @param timestamp      when the score was made, in epoch milliseconds
+         * @param playTimeMillis the time the game was played, in milliseconds
+         * @param waited         whether a caller waits for the score to be written
+         */
+        PendingScore(final String name, final int score, final long timestamp, final long playTimeMillis,
+            final boolean waited) {
+            this.name = name;
+            this.score = score;
+            this.timestamp = timestamp;
+            this.playTimeMillis = playTimeMillis;
+            this.done = waited ? new CountDownLatch(1) : null;
+        }
+
+        /**
+         * Waits until the writer is done with the score, even if the thread is interrupted meanwhile.
+         * The score is already queued, so giving up would not take it back.
+         *
+         * @return true if the score was written, false if writing it failed
+         */
+        boolean awaitWritten() {
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    done.await();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            return nameId >= 0;
+        }
+    }
+
+    /**
+     * Constructs a new ScoreWriter, telling nobody about the written scores, and starts its thread.
+     *
+     * @param file               the file to write the scores to
+     * @param capacity           the number of scores that can wait to be written
+     * @param policy             when to flush the file to the disk
+     * @param syncIntervalMillis the time between two flushes with {@link SyncPolicy#INTERVAL}
+     */
+    public ScoreWriter(final BinaryScoreFile file, final int capacity, final SyncPolicy policy,
+        final long syncIntervalMillis) {
+        this(file, capacity, policy, syncIntervalMillis, (nameId, name, score, timestamp, playTimeMillis) -> { });
+    }
+
+    /**
+     * Constructs a new ScoreWriter and starts its thread.
+     *
+     * @param file               the file to write the scores to
+     * @param capacity           the number of scores that can wait to be written
+     * @param policy             when to flush the file to the disk
+     * @param syncIntervalMillis the time between two flushes with {@link SyncPolicy#INTERVAL}
+     * @param listener           the listener to hand the written scores to
+     */
+    public ScoreWriter(final BinaryScoreFile file, final int capacity, final SyncPolicy policy,
+        final long syncIntervalMillis, final WriteListener listener) {
+        this.file = file;
+        this.listener = listener;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.policy = policy;
+        this.syncIntervalNanos = TimeUnit.MILLISECONDS.toNanos(syncIntervalMillis);
+        // Wake up often enough to flush on time even when no score comes
+        this.pollMillis = policy == SyncPolicy.INTERVAL
+            ? Math.max(1, Math.min(IDLE_POLL_MILLIS, syncIntervalMillis))
+            : IDLE_POLL_MILLIS;
+        this.thread = new Thread(this::run, "score-writer");
+        this.thread.setDaemon(true);
+        this.shutdownHook = new Thread(this::close, "score-writer-shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+        this.thread.start();
+    }
+
+    /**
+     * Queues a score to be written, waiting for room if the queue is full.
+     *
+     * @param name      the name of the player
+     * @param score     the score
+     * @param timestamp when the score was made, in epoch milliseconds
+     * @throws IllegalStateException if the writer is closed
+     * @throws InterruptedException  if the thread is interrupted while waiting for room
+     */
+    public void submit(final String name, final int score, final long timestamp) throws InterruptedException {
+        put(new PendingScore(name, score, timestamp, 0, false));
+    }
+
+    /**
+     * Queues a score to be written if there is room for it, without waiting.
+     *
+     * @param name      the name of the player
+     * @param score     the score
+     * @param timestamp when the score was made, in epoch milliseconds
+     * @return true if the score was queued, false if the queue is full
+     * @throws IllegalStateException if the writer is closed
+     */
+    public boolean trySubmit(final String name, final int score, final long timestamp) {
+        return offer(new PendingScore(name, score, timestamp, 0, false));
+    }
+
+    /**
+     * Queues a score, waiting for room if the queue is full, and waits until it is written
+     * and handed to the listener.
+     *
+     * @param name           the name of the player
+     * @param score          the score
+     * @param timestamp      when the score was made, in epoch milliseconds
+     * @param playTimeMillis the time the game was played, in milliseconds
+     * @return true if the score was written, false if writing it failed
+     * @throws IllegalStateException if the writer is closed
+     * @throws InterruptedException  if the thread is interrupted while waiting for room
+     */
+    public boolean write(final String name, final int score, final long timestamp, final long playTimeMillis)
+        throws InterruptedException {
+        PendingScore pending = new PendingScore(name, score, timestamp, playTimeMillis, true);
+        put(pending);
+        return pending.awaitWritten();
+    }
+
+    /**
+     * Queues a score if there is room for it, without waiting for room, and waits until it is
+     * written and handed to the listener.
+     *
+     * @param name           the name of the player
+     * @param score          the score
+     * @param timestamp      when the score was made, in epoch milliseconds
+     * @param playTimeMillis the time the game was played, in milliseconds
+     * @return true if the score was written, false if the queue is full or writing it failed
+     * @throws IllegalStateException if the writer is closed
+     */
+    public boolean tryWrite(final String name, final int score, final long timestamp, final long playTimeMillis) {
+        PendingScore pending = new PendingScore(name, score, timestamp, playTimeMillis, true);
+        return offer(pending) && pending.awaitWritten();
+    }
+
+    /**
+     * Gets the number of scores waiting to be written.
+     *
+     * @return the depth of the queue
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * Gets the number of commits made so far.
+     *
+     * @return the number of commits
+     */
+    public long getCommitCount() {
+        return commits;
+    }
+
+    /**
+     * Gets the number of scores written so far.
+     *
+     * @return the number of scores committed
+     */
+    public long getCommittedScores() {
+        return committedScores;
+    }
+
+    /**
+     * Gets the number of scores that could not be written to the file.
+     *
+     * @return the number of failed writes
+     */
+    public long getFailedScores() {
+        return failedScores;
+    }
+
+    /**
+     * Gets the average time a commit took, flush included.
+     *
+     * @return the average commit latency, in nanoseconds
+     */
+    public double getAverageCommitNanos() {
+        long count = commits;
+        return count == 0 ? 0 : (double) totalCommitNanos / count;
+    }
+
+    /**
+     * Gets the longest time a commit took, flush included.
+     *
+     * @return the maximum commit latency, in nanoseconds
+     */
+    public long getMaxCommitNanos() {
+        return maxCommitNanos;
+    }
+
+    /**
+     * Stops accepting scores, writes the ones still queued and flushes the file to the disk.
+     * It waits for the writer thread to finish, and does nothing if the writer is already closed.
+     */
+    @Override
+    public void close() {
+        closeLock.writeLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        } finally {
+            closeLock.writeLock().unlock();
+        }
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (Thread.currentThread() != shutdownHook) {
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            } catch (IllegalStateException e) {
+                // The JVM is already shutting down
+            }
+        }
+    }
+
+    /**
+     * Queues a score, waiting for room if the queue is full.
+     *
+     * @param pending the score
+     * @throws IllegalStateException if the writer is closed
+     * @throws InterruptedException  if the thread is interrupted while waiting for room
+     */
+    private void put(final PendingScore pending) throws InterruptedException {
+        closeLock.readLock().lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("The score writer is closed");
+            }
+            queue.put(pending);
+        } finally {
+            closeLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Queues a score if there is room for it.
+     *
+     * @param pending the score
+     * @return true if the score was queued, false if the queue is full
+     * @throws IllegalStateException if the writer is closed
+     */
+    private boolean offer(final PendingScore pending) {
+        closeLock.readLock().lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("The score writer is closed");
+            }
+            return queue.offer(pending);
+        } finally {
+            closeLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Commits the queued scores until the writer is closed and the queue is empty.
+     */
+    private void run() {
+        List<PendingScore> batch = new ArrayList<>(MAX_BATCH);
+        while (!closed || !queue.isEmpty()) {
+            try {
+                PendingScore first = queue.poll(pollMillis, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, MAX_BATCH - 1);
+                    commit(batch);
+                    batch.clear();
+                } else if (dirty && isSyncDue()) {
+                    sync();
+                }
+            } catch (InterruptedException e) {
+                // Only closing stops the writer, so that no queued score is lost
+                continue;
+            }
+        }
+        if (dirty) {
+            sync();
+        }
+    }
+
+    /**
+     * Appends a batch of scores to the file, flushing it if the policy asks for it,
+     * then hands the written scores to the listener and releases their callers.
+     *
+     * @param batch the scores to write, in the order they were submitted
+     */
+    private void commit(final List<PendingScore> batch) {
+        long start = System.nanoTime();
+        int written = 0;
+        for (PendingScore pending : batch) {
+            try {
+                pending.nameId = file.append(pending.name, pending.score, pending.timestamp);
+                written++;
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        dirty = true;
+        if (policy == SyncPolicy.EVERY_COMMIT || isSyncDue()) {
+            sync();
+        }
+        long elapsed = System.nanoTime() - start;
+        totalCommitNanos += elapsed;
+        maxCommitNanos = Math.max(maxCommitNanos, elapsed);
+        committedScores += written;
+        failedScores += batch.size() - written;
+        commits++;
+        for (PendingScore pending : batch) {
+            try {
+                if (pending.nameId >= 0) {
+                    listener.written(pending.nameId, pending.name, pending.score, pending.timestamp,
+                        pending.playTimeMillis);
+                }
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            } finally {
+                if (pending.done != null) {
+                    pending.done.countDown();
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks whether the sync interval elapsed since the last flush, with {@link SyncPolicy#INTERVAL}.
+     *
+     * @return true if the file should be flushed now, false otherwise
+     */
+    private boolean isSyncDue() {
+        return policy == SyncPolicy.INTERVAL && System.nanoTime() - lastSync >= syncIntervalNanos;
+    }
+
+    /**
+     * Flushes the file to the disk, then tells the listener.
+     */
+    private void sync() {
+        file.force();
+        try {
+            listener.synced();
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+        lastSync = System.nanoTime();
+        dirty = false;
+    }
+}
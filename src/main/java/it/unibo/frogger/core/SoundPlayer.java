@@ -0,0 +1,22 @@
+package it.unibo.frogger.core;
+
+/**
+ * Receives the sound effects requested by the game logic.
+ * This keeps the simulation independent from the audio backend,
+ * so that it can also run without JavaFX.
+ */
+@FunctionalInterface
+public interface SoundPlayer {
+
+    /**
+     * A sound player that ignores every sound.
+     */
+    SoundPlayer SILENT = soundName -> { };
+
+    /**
+     * Plays the specified sound effect.
+     *
+     * @param soundName the name of the sound effect to play
+     */
+    void playSound(String soundName);
+}
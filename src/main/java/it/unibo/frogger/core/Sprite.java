@@ -0,0 +1,104 @@
+package it.unibo.frogger.core;
+
+/**
+ * Identifies the sprite used to draw a game object.
+ * The model only stores which sprite an object uses and the size it is drawn at;
+ * decoding and drawing the actual image is left to the view.
+ */
+public enum Sprite {
+    /** The frog controlled by the player. */
+    FROG("/froggy1.png", 40, 40),
+    /** The shortest log. */
+    LOG_0("/log0.png", GlobalVariables.LOG_W_BY_TYPE[0], 40),
+    /** The medium log. */
+    LOG_1("/log1.png", GlobalVariables.LOG_W_BY_TYPE[1], 40),
+    /** The longest log. */
+    LOG_2("/log2.png", GlobalVariables.LOG_W_BY_TYPE[2], 40),
+    /** The race car moving right. */
+    RACECAR("/racecar.png", GlobalVariables.OBSTACLE_WIDTH, GlobalVariables.OBSTACLE_WIDTH),
+    /** The race car moving left. */
+    RACECAR_REVERSED("/racecarrev.png", GlobalVariables.OBSTACLE_WIDTH, GlobalVariables.OBSTACLE_WIDTH),
+    /** The bike moving right. */
+    BIKE("/bike.png", GlobalVariables.OBSTACLE_WIDTH, GlobalVariables.OBSTACLE_WIDTH),
+    /** The bike moving left. */
+    BIKE_REVERSED("/bikerev.png", GlobalVariables.OBSTACLE_WIDTH, GlobalVariables.OBSTACLE_WIDTH),
+    /** The bus moving right. */
+    BUS("/bus.png", GlobalVariables.OBSTACLE_WIDTH, GlobalVariables.OBSTACLE_WIDTH),
+    /** The bus moving left. */
+    BUS_REVERSED("/busrev.png", GlobalVariables.OBSTACLE_WIDTH, GlobalVariables.OBSTACLE_WIDTH),
+    /** The bonus token. */
+    TOKEN("/token.png", 30, 30);
+
+    private static final Sprite[] LOGS = {LOG_0, LOG_1, LOG_2};
+    private static final Sprite[] OBSTACLES = {RACECAR, BIKE, BUS};
+    private static final Sprite[] OBSTACLES_REVERSED = {RACECAR_REVERSED, BIKE_REVERSED, BUS_REVERSED};
+
+    private final String resourcePath;
+    private final int width;
+    private final int height;
+    private final Hitbox hitbox;
+
+    Sprite(final String resourcePath, final int width, final int height) {
+        this.resourcePath = resourcePath;
+        this.width = width;
+        this.height = height;
+        this.hitbox = Hitbox.centered(width, height);
+    }
+
+    /**
+     * Gets the classpath resource holding the image of this sprite.
+     *
+     * @return the resource path of the image
+     */
+    public String getResourcePath() {
+        return resourcePath;
+    }
+
+    /**
+     * Gets the width the sprite is drawn at.
+     *
+     * @return the width in pixels
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Gets the height the sprite is drawn at.
+     *
+     * @return the height in pixels
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Gets the hitbox of the objects drawn with this sprite.
+     *
+     * @return the hitbox
+     */
+    public Hitbox getHitbox() {
+        return hitbox;
+    }
+
+    /**
+     * Gets the sprite of a log of the given type.
+     *
+     * @param logType the type of the log
+     * @return the sprite of the log
+     */
+    public static Sprite log(final int logType) {
+        return LOGS[logType];
+    }
+
+    /**
+     * Gets the sprite of an obstacle of the given type, facing the given direction.
+     *
+     * @param obsType   the type of the obstacle
+     * @param direction the direction in which the obstacle moves (1 for right, -1 for left)
+     * @return the sprite of the obstacle
+     */
+    public static Sprite obstacle(final int obsType, final int direction) {
+        return direction == -1 ? OBSTACLES_REVERSED[obsType] : OBSTACLES[obsType];
+    }
+}
@@ -1,15 +1,10 @@
 package it.unibo.frogger.core;
 
-import javafx.scene.image.Image;
-import javafx.scene.image.ImageView;
-
 /**
  * Represents a token in the game that the frog can collect.
  * When collected, the token applies an effect to the frog.
  */
 public class Token extends GameObjectNotControllable {
-    private static final String IMAGE_PATH = "/token.png"; // Path to your token image
-
     /**
      * Constructs a new Token at the specified position.
      *
@@ -17,9 +12,7 @@ public class Token extends GameObjectNotControllable {
      * @param y the y-coordinate of the token
      */
     public Token(final int x, final int y) {
-        super(x, y, 30, new ImageView(new Image(Token.class.getResourceAsStream(IMAGE_PATH))));
-        this.getImageView().setFitWidth(30); // Set appropriate size
-        this.getImageView().setFitHeight(30); // Set appropriate size
+        super(x, y, Sprite.TOKEN);
     }
 
     /**
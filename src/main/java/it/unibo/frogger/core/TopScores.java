@@ -0,0 +1,116 @@
+package it.unibo.frogger.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the best scores seen so far, up to a fixed number of them, sorted from the highest.
+ * Ties are broken by time, so the player who reached a score first stays ahead.
+ * A score that does not make it into the table is rejected before its name is needed,
+ * which lets the caller decode names only for the few records that are kept.
+ */
+public class TopScores {
+    private final String[] names;
+    private final int[] scores;
+    private final long[] timestamps;
+    private int size;
+
+    /**
+     * Constructs a new, empty TopScores.
+     *
+     * @param capacity the number of scores to keep
+     */
+    public TopScores(final int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("The capacity must be positive: " + capacity);
+        }
+        this.names = new String[capacity];
+        this.scores = new int[capacity];
+        this.timestamps = new long[capacity];
+    }
+
+    /**
+     * Checks whether a score would be kept if it was offered now.
+     *
+     * @param score     the score
+     * @param timestamp when the score was made, in epoch milliseconds
+     * @return true if the score would enter the table, false otherwise
+     */
+    public boolean accepts(final int score, final long timestamp) {
+        return size < names.length || ranksAbove(score, timestamp, size - 1);
+    }
+
+    /**
+     * Offers a score, keeping it if it is among the best ones.
+     *
+     * @param name      the name of the player
+     * @param score     the score
+     * @param timestamp when the score was made, in epoch milliseconds
+     * @return true if the score was kept, false otherwise
+     */
+    public boolean offer(final String name, final int score, final long timestamp) {
+        if (!accepts(score, timestamp)) {
+            return false;
+        }
+        int position = Math.min(size, names.length - 1);
+        while (position > 0 && ranksAbove(score, timestamp, position - 1)) {
+            position--;
+        }
+        // Shift the lower scores down, dropping the last one when the table is full
+        int moved = Math.min(size, names.length - 1) - position;
+        System.arraycopy(names, position, names, position + 1, moved);
+        System.arraycopy(scores, position, scores, position + 1, moved);
+        System.arraycopy(timestamps, position, timestamps, position + 1, moved);
+        names[position] = name;
+        scores[position] = score;
+        timestamps[position] = timestamp;
+        size = Math.min(size + 1, names.length);
+        return true;
+    }
+
+    /**
+     * Gets the best scores.
+     *
+     * @param limit the maximum number of scores to get
+     * @return the names and scores of the players, from the highest score
+     */
+    public List<Map.Entry<String, Integer>> get(final int limit) {
+        int count = Math.min(limit, size);
+        List<Map.Entry<String, Integer>> top = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            top.add(Map.entry(names[i], scores[i]));
+        }
+        return top;
+    }
+
+    /**
+     * Gets the number of scores kept.
+     *
+     * @return the number of scores in the table
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the number of scores that can be kept.
+     *
+     * @return the capacity of the table
+     */
+    public int capacity() {
+        return names.length;
+    }
+
+    /**
+     * Checks whether a score ranks above the one at a position of the table.
+     *
+     * @param score     the score
+     * @param timestamp when the score was made, in epoch milliseconds
+     * @param position  the position to compare with
+     * @return true if the score is higher, or equal but made earlier
+     */
+    private boolean ranksAbove(final int score, final long timestamp, final int position) {
+        return score > scores[position] || (score == scores[position] && timestamp < timestamps[position]);
+    }
+}
@@ -0,0 +1,114 @@
+package it.unibo.frogger.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Generates the lanes, logs, obstacles and tokens of a match from a 64-bit seed.
+ * The same seed always produces the same layout, and objects are placed through a
+ * {@link LaneAllocator} for each lane, so generation takes bounded time for any density.
+ */
+public class WorldGenerator {
+    private static final int RIVER_LANES = 5;
+    private static final int TRAFFIC_LANES = 5;
+    private static final int[] TOKEN_LANES = {2, 3, 4, 5, 7, 8, 9, 10};
+
+    private final SplittableRandom random;
+
+    /**
+     * Constructs a new WorldGenerator.
+     *
+     * @param seed the seed of the layout
+     */
+    public WorldGenerator(final long seed) {
+        this.random = new SplittableRandom(seed);
+    }
+
+    /**
+     * Creates the lanes of a match, from the top of the screen to the bottom,
+     * with their logs and obstacles.
+     *
+     * @return the list of lanes
+     */
+    public List<Lane> createLanes() {
+        List<Lane> lanes = new ArrayList<>();
+
+        // Create ground lane (start)
+        lanes.add(new Lane(0, 0, new ArrayList<>()));
+
+        // Create log lanes and add logs to them
+        for (int i = 0; i < RIVER_LANES; i++) {
+            int direction = (i % 2 == 0) ? 1 : -1;
+            int speed = nextLaneSpeed();
+            List<GameObjectNotControllable> logs = new ArrayList<>();
+            LaneAllocator allocator = new LaneAllocator(GlobalVariables.WIDTH);
+            int yPosition = (i + 1) * GlobalVariables.LANE_HEIGHT; // Position in the current lane
+            int logType = 0;
+            for (int j = 0; j < GlobalVariables.LOGS_PER_LANE; j++) {
+                int xPosition = allocator.allocate(Sprite.log(logType).getWidth(), random);
+                if (xPosition != LaneAllocator.NO_SPACE) {
+                    logs.add(new Log(xPosition, yPosition, speed, direction, logType));
+                }
+            }
+            lanes.add(new Lane(speed, direction, logs));
+        }
+
+        // Create ground lane (middle)
+        lanes.add(new Lane(0, 0, new ArrayList<>()));
+
+        // Create traffic lanes and add obstacles to them
+        for (int i = 0; i < TRAFFIC_LANES; i++) {
+            int direction = (i % 2 == 0) ? 1 : -1;
+            int speed = nextLaneSpeed();
+            List<GameObjectNotControllable> obstacles = new ArrayList<>();
+            LaneAllocator allocator = new LaneAllocator(GlobalVariables.WIDTH);
+            // Position in the current lane
+            int yPosition = (i + 7) * GlobalVariables.LANE_HEIGHT - GlobalVariables.OBSTACLE_Y_OFFSET;
+            for (int j = 0; j < GlobalVariables.OBSTACLES_PER_LANE; j++) {
+                int obstacleType = nextObstacleType();
+                int xPosition = allocator.allocate(Sprite.obstacle(obstacleType, direction).getWidth(), random);
+                if (xPosition != LaneAllocator.NO_SPACE) {
+                    obstacles.add(new Obstacle(xPosition, yPosition, direction, obstacleType));
+                }
+            }
+            lanes.add(new Lane(speed, direction, obstacles));
+        }
+
+        // Create ground lane (end)
+        lanes.add(new Lane(0, 0, new ArrayList<>()));
+        return lanes;
+    }
+
+    /**
+     * Creates a token in a random valid position: on a column of the grid the frog
+     * jumps on, in a river or traffic lane the frog can reach.
+     *
+     * @return the new token
+     */
+    public Token createToken() {
+        int columns = GlobalVariables.WIDTH / GlobalVariables.LANE_HEIGHT;
+        int xPosition = random.nextInt(columns) * GlobalVariables.LANE_HEIGHT;
+        int yPosition = TOKEN_LANES[random.nextInt(TOKEN_LANES.length)] * GlobalVariables.LANE_HEIGHT;
+        return new Token(xPosition, yPosition);
+    }
+
+    /**
+     * Picks the initial speed of a lane.
+     *
+     * @return a speed between 2 and 4
+     */
+    private int nextLaneSpeed() {
+        return 2 + random.nextInt(3);
+    }
+
+    /**
+     * Picks the type of an obstacle, bikes being twice as frequent as race cars and buses.
+     *
+     * @return the obstacle type
+     */
+    private int nextObstacleType() {
+        int roll = random.nextInt(4);
+        return roll == 0 ? 0 : roll == 3 ? 2 : 1;
+    }
+}
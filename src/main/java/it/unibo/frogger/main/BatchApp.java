@@ -0,0 +1,223 @@
+package it.unibo.frogger.main;
+
+import it.unibo.frogger.controller.MatchSimulation;
+import it.unibo.frogger.core.Direction;
+import it.unibo.frogger.core.GlobalVariables;
+import it.unibo.frogger.core.Match;
+import it.unibo.frogger.core.SoundPlayer;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Batch mode entry-point: plays many headless matches in parallel and writes a CSV summary.
+ * It is meant for balancing the values in {@link GlobalVariables} without playing by hand.
+ *
+ * <p>Options are passed as {@code --name=value}:
+ * <ul>
+ *   <li>{@code matches}: number of matches to play (default 1000)</li>
+ *   <li>{@code threads}: number of worker threads (default: available processors)</li>
+ *   <li>{@code seed}: base seed of the layouts and random input (default: current time);
+ *       match {@code i} uses seed {@code seed + i}, so any match can be replayed</li>
+ *   <li>{@code input}: {@code random}, or {@code script:} followed by a sequence of
+ *       {@code U}, {@code D}, {@code L}, {@code R} and {@code .} (wait) repeated for the whole match</li>
+ *   <li>{@code moveInterval}: ticks between two inputs (default: a quarter of a second)</li>
+ *   <li>{@code tickRate}: ticks per second of the simulation (default {@link GlobalVariables#TICK_RATE})</li>
+ *   <li>{@code maxSeconds}: game time after which a match is cut short (default 600)</li>
+ *   <li>{@code out}: path of the CSV summary (default {@code batch_summary.csv})</li>
+ * </ul>
+ */
+public final class BatchApp {
+    private static final String SCRIPT_PREFIX = "script:";
+
+    private final int matches;
+    private final int threads;
+    private final long seed;
+    private final String script;
+    private final int tickRate;
+    private final int moveInterval;
+    private final long maxTicks;
+
+    private BatchApp(final Map<String, String> options) {
+        this.matches = Integer.parseInt(options.getOrDefault("matches", "1000"));
+        this.threads = Integer.parseInt(options.getOrDefault("threads",
+            String.valueOf(Runtime.getRuntime().availableProcessors())));
+        this.seed = Long.parseLong(options.getOrDefault("seed", String.valueOf(System.currentTimeMillis())));
+        String input = options.getOrDefault("input", "random");
+        this.script = input.startsWith(SCRIPT_PREFIX) ? input.substring(SCRIPT_PREFIX.length()) : null;
+        this.tickRate = Integer.parseInt(options.getOrDefault("tickRate", String.valueOf(GlobalVariables.TICK_RATE)));
+        this.moveInterval = Math.max(1, Integer.parseInt(options.getOrDefault("moveInterval",
+            String.valueOf(tickRate / 4))));
+        this.maxTicks = Long.parseLong(options.getOrDefault("maxSeconds", "600")) * tickRate;
+    }
+
+    /**
+     * Batch mode entry-point.
+     *
+     * @param args the options, as {@code --name=value}
+     * @throws IOException if the summary cannot be written
+     * @throws InterruptedException if interrupted while waiting for the matches
+     * @throws ExecutionException if a match fails
+     */
+    public static void main(final String[] args) throws IOException, InterruptedException, ExecutionException {
+        Map<String, String> options = CommandLineOptions.parse(args);
+        BatchApp batch = new BatchApp(options);
+        Path out = Paths.get(options.getOrDefault("out", "batch_summary.csv"));
+
+        long start = System.nanoTime();
+        List<BatchResult> results = batch.run();
+        long elapsed = System.nanoTime() - start;
+
+        writeSummary(out, results);
+        long ticks = 0;
+        for (BatchResult result : results) {
+            ticks += result.getTicks();
+        }
+        System.out.println(String.format(Locale.ROOT,
+            "Played %d matches on %d threads in %.2f s: %.0f ticks/s, summary written to %s",
+            results.size(), batch.threads, elapsed / 1e9, ticks * 1e9 / elapsed, out));
+    }
+
+    /**
+     * Plays all the matches of the batch.
+     * Every match runs in its own task with its own world and random generator,
+     * so tasks share no mutable state and scale with the number of threads.
+     *
+     * @return the results, in the order of the matches
+     * @throws InterruptedException if interrupted while waiting for the matches
+     * @throws ExecutionException if a match fails
+     */
+    private List<BatchResult> run() throws InterruptedException, ExecutionException {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            List<Callable<BatchResult>> tasks = new ArrayList<>(matches);
+            for (int i = 0; i < matches; i++) {
+                final int index = i;
+                tasks.add(() -> playMatch(index, seed + index));
+            }
+            List<BatchResult> results = new ArrayList<>(matches);
+            for (Future<BatchResult> future : pool.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Plays a single match until it is over or cut short.
+     *
+     * @param index     the index of the match
+     * @param matchSeed the seed of the layout and random input of the match
+     * @return the result of the match
+     */
+    private BatchResult playMatch(final int index, final long matchSeed) {
+        long start = System.nanoTime();
+        SplittableRandom random = new SplittableRandom(matchSeed);
+        Match match = new Match(tickRate, random.nextLong());
+        MatchSimulation simulation = new MatchSimulation(match, SoundPlayer.SILENT);
+        int step = 0;
+        while (!simulation.isOver() && simulation.getTickCount() < maxTicks) {
+            if (simulation.getTickCount() % moveInterval == 0) {
+                Direction direction = script == null ? randomMove(random) : scriptedMove(step++);
+                if (direction != null) {
+                    simulation.move(direction);
+                }
+            }
+            simulation.tick();
+        }
+        return new BatchResult(index, matchSeed, simulation, tickRate, System.nanoTime() - start);
+    }
+
+    /**
+     * Picks a random move, biased towards the top of the screen like a player would.
+     *
+     * @param random the random generator of the match
+     * @return the move, or null to wait
+     */
+    private static Direction randomMove(final SplittableRandom random) {
+        int roll = random.nextInt(10);
+        if (roll < 4) {
+            return Direction.UP;
+        } else if (roll < 6) {
+            return Direction.LEFT;
+        } else if (roll < 8) {
+            return Direction.RIGHT;
+        } else if (roll < 9) {
+            return Direction.DOWN;
+        }
+        return null;
+    }
+
+    /**
+     * Reads the next move of the input script, starting over when it ends.
+     *
+     * @param step the number of moves read so far
+     * @return the move, or null to wait
+     */
+    private Direction scriptedMove(final int step) {
+        if (script.isEmpty()) {
+            return null;
+        }
+        switch (Character.toUpperCase(script.charAt(step % script.length()))) {
+            case 'U': return Direction.UP;
+            case 'D': return Direction.DOWN;
+            case 'L': return Direction.LEFT;
+            case 'R': return Direction.RIGHT;
+            default: return null;
+        }
+    }
+
+    /**
+     * Writes one CSV row per match, followed by a row aggregating the whole batch.
+     * The aggregate row holds the mean survival time, score and level,
+     * the total number of ticks and deaths per lane, and the mean ticks per second of a match.
+     *
+     * @param out     the path of the summary
+     * @param results the results of the matches
+     * @throws IOException if the summary cannot be written
+     */
+    private static void writeSummary(final Path out, final List<BatchResult> results) throws IOException {
+        double survival = 0;
+        double score = 0;
+        double level = 0;
+        double ticksPerSecond = 0;
+        long ticks = 0;
+        long[] deaths = new long[GlobalVariables.LANE_NUMBER];
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(out, StandardCharsets.UTF_8))) {
+            writer.println(BatchResult.csvHeader());
+            for (BatchResult result : results) {
+                writer.println(result.toCsvRow());
+                survival += result.getSurvivalSeconds();
+                score += result.getScore();
+                level += result.getLevel();
+                ticks += result.getTicks();
+                ticksPerSecond += result.getTicksPerSecond();
+                for (int lane = 0; lane < deaths.length; lane++) {
+                    deaths[lane] += result.getDeaths(lane);
+                }
+            }
+            int count = Math.max(1, results.size());
+            StringBuilder row = new StringBuilder(String.format(Locale.ROOT, "all,,%.3f,%.1f,%.2f,%d,%.0f",
+                survival / count, score / count, level / count, ticks, ticksPerSecond / count));
+            for (long laneDeaths : deaths) {
+                row.append(',').append(laneDeaths);
+            }
+            writer.println(row);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package it.unibo.frogger.main;
+
+import it.unibo.frogger.controller.MatchSimulation;
+import it.unibo.frogger.core.GlobalVariables;
+
+import java.util.Locale;
+
+/**
+ * The outcome of a single headless match played by the batch runner.
+ */
+public final class BatchResult {
+    private final int index;
+    private final long seed;
+    private final long ticks;
+    private final double survivalSeconds;
+    private final int score;
+    private final int level;
+    private final int[] deathsByLane;
+    private final long elapsedNanos;
+
+    /**
+     * Collects the result of a finished simulation.
+     *
+     * @param index        the index of the match in the batch
+     * @param seed         the seed of the layout and random input of the match
+     * @param simulation   the finished simulation
+     * @param tickRate     the number of ticks per second of the simulation
+     * @param elapsedNanos the wall-clock time spent simulating the match, in nanoseconds
+     */
+    public BatchResult(
+        final int index,
+        final long seed,
+        final MatchSimulation simulation,
+        final int tickRate,
+        final long elapsedNanos
+    ) {
+        this.index = index;
+        this.seed = seed;
+        this.ticks = simulation.getTickCount();
+        this.survivalSeconds = (double) ticks / tickRate;
+        this.score = simulation.getScore();
+        this.level = simulation.getLevel();
+        this.deathsByLane = new int[GlobalVariables.LANE_NUMBER];
+        for (int lane = 0; lane < deathsByLane.length; lane++) {
+            deathsByLane[lane] = simulation.getDeaths(lane);
+        }
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Gets the header of the CSV rows produced by {@link #toCsvRow()}.
+     *
+     * @return the CSV header
+     */
+    public static String csvHeader() {
+        StringBuilder header = new StringBuilder("match,seed,survival_s,score,level,ticks,ticks_per_s");
+        for (int lane = 0; lane < GlobalVariables.LANE_NUMBER; lane++) {
+            header.append(",deaths_lane_").append(lane);
+        }
+        return header.toString();
+    }
+
+    /**
+     * Formats this result as a CSV row.
+     *
+     * @return the CSV row
+     */
+    public String toCsvRow() {
+        StringBuilder row = new StringBuilder();
+        row.append(index).append(',')
+            .append(seed).append(',')
+            .append(String.format(Locale.ROOT, "%.3f", survivalSeconds)).append(',')
+            .append(score).append(',')
+            .append(level).append(',')
+            .append(ticks).append(',')
+            .append(String.format(Locale.ROOT, "%.0f", getTicksPerSecond()));
+        for (int deaths : deathsByLane) {
+            row.append(',').append(deaths);
+        }
+        return row.toString();
+    }
+
+    /**
+     * Gets the simulated game time the frog survived.
+     *
+     * @return the survival time, in seconds
+     */
+    public double getSurvivalSeconds() {
+        return survivalSeconds;
+    }
+
+    /**
+     * Gets the final score of the match.
+     *
+     * @return the score
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Gets the number of levels completed.
+     *
+     * @return the number of levels completed
+     */
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * Gets the number of ticks simulated.
+     *
+     * @return the number of ticks
+     */
+    public long getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Gets the number of lives lost in the given lane.
+     *
+     * @param lane the index of the lane, from the top of the screen
+     * @return the number of lives lost in the lane
+     */
+    public int getDeaths(final int lane) {
+        return deathsByLane[lane];
+    }
+
+    /**
+     * Gets the simulation throughput of this match.
+     *
+     * @return the number of ticks simulated per wall-clock second
+     */
+    public double getTicksPerSecond() {
+        return elapsedNanos == 0 ? 0 : ticks * 1e9 / elapsedNanos;
+    }
+}
@@ -0,0 +1,35 @@
+package it.unibo.frogger.main;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Parses the options of the command line tools of the game, given as {@code --name=value}.
+ */
+final class CommandLineOptions {
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private CommandLineOptions() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    /**
+     * Parses options given as {@code --name=value}.
+     *
+     * @param args the command line arguments
+     * @return the options by name
+     */
+    static Map<String, String> parse(final String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Options must be given as --name=value: " + arg);
+            }
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        return options;
+    }
+}
@@ -1,13 +1,21 @@
 package it.unibo.frogger.main;
 
+import java.io.IOException;
+import java.net.InetSocketAddress;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
 
 import it.unibo.frogger.controller.MatchController;
 import it.unibo.frogger.core.GameSettingsManager;
 import it.unibo.frogger.core.GlobalVariables;
+import it.unibo.frogger.core.LeaderboardServer;
 import it.unibo.frogger.core.Match;
+import it.unibo.frogger.core.PlayerScoreManager;
+import it.unibo.frogger.core.ScoreStore;
 import it.unibo.frogger.core.SoundManager;
 import it.unibo.frogger.view.MatchView;
+import it.unibo.frogger.view.SpriteAtlas;
+import it.unibo.frogger.view.SpriteRegistry;
 import it.unibo.frogger.view.Menu;
 import it.unibo.frogger.view.SettingsDialog;
 import javafx.application.Application;
@@ -15,7 +23,6 @@ import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.control.ProgressBar;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.input.KeyCode;
 import javafx.scene.layout.StackPane;
@@ -25,8 +32,13 @@ import javafx.scene.paint.Color;
 
 /**
  * The main application class for the Frogger game.
+ * When the {@code leaderboardPort} setting is set, it also serves the scores to the other
+ * cabinets of the LAN through a {@link LeaderboardServer} on that port.
  */
 public class MainApp extends Application {
+    private static final String NO_DELAY_PROPERTY = "sun.net.httpserver.nodelay";
+    private static final int MAX_PORT = 65_535;
+
     private Stage primaryStage;
     private MatchView matchView;
     private Match match;
@@ -35,6 +47,9 @@ public class MainApp extends Application {
     private Label pausedLabel;
     private String playerName;
     private ProgressBar timerBar;
+    private int tickRate = GlobalVariables.TICK_RATE;
+    private boolean interpolation = true;
+    private volatile LeaderboardServer leaderboardServer;
 
     /**
      * Gets the player name.
@@ -66,25 +81,44 @@ public class MainApp extends Application {
         double effectsVolume = Double.parseDouble(settings.getProperty("effectsVolume", "0.5"));
         SoundManager.setMusicVolume(musicVolume);
         SoundManager.setEffectsVolume(effectsVolume);
+        tickRate = parseTickRate(settings.getProperty("tickRate", String.valueOf(GlobalVariables.TICK_RATE)));
+        interpolation = Boolean.parseBoolean(settings.getProperty("interpolation", "true"));
+        int leaderboardPort = parseLeaderboardPort(settings.getProperty("leaderboardPort", "0"));
+        if (leaderboardPort > 0) {
+            CompletableFuture.runAsync(() -> startLeaderboardServer(leaderboardPort));
+        }
+        CompletableFuture.runAsync(PlayerScoreManager::startSync);
         this.primaryStage = primaryStage;
+        SpriteAtlas.getImage(); // Pack the sprites before the first match
         primaryStage.setTitle("Frogger");
         showMenu();
     }
 
+    /**
+     * Stops the leaderboard server, if it was started, when the application exits.
+     */
+    @Override
+    public void stop() {
+        if (leaderboardServer != null) {
+            leaderboardServer.close();
+        }
+    }
+
     /**
      * Sets up the game by initializing the match view, match, and match controller.
      */
     public void setupGame() {
         matchView = new MatchView(primaryStage, this); // Pass stage and this
-        match = new Match(matchView);
-        matchController = new MatchController(match.getFrog(), match.getLanes(), match.getObjects(), matchView, this);
+        match = new Match(tickRate);
+        matchController = new MatchController(match, matchView, this);
+        matchController.setInterpolation(interpolation);
 
         // Create a new Scene for the game and set it on the stage
-        StackPane root = new StackPane(matchView.getCanvas());
+        StackPane root = new StackPane(matchView.getLayers());
 
         // Add settings button to the top right corner
         settingsButton = new Button();
-        ImageView settingsIcon = new ImageView(new Image(getClass().getResourceAsStream("/gear.png")));
+        ImageView settingsIcon = new ImageView(SpriteRegistry.getImage("/gear.png", 30, 30));
         settingsIcon.setFitWidth(30);
         settingsIcon.setFitHeight(30);
         settingsButton.setGraphic(settingsIcon);
@@ -160,6 +194,72 @@ public class MainApp extends Application {
         settingsDialog.show();
     }
 
+    /**
+     * Starts serving the scores to the other cabinets of the LAN.
+     * Opening the scores scans their whole history, so this runs off the JavaFX thread.
+     * The game still runs without the server if the scores cannot be read or the port cannot be bound.
+     *
+     * @param port the port to listen on
+     */
+    private void startLeaderboardServer(final int port) {
+        ScoreStore store = PlayerScoreManager.getStore();
+        if (store == null) {
+            return;
+        }
+        // Without it, Nagle's algorithm delays every answer of the server; the JDK reads it only once,
+        // so it is set before the first server is created, unless the command line chose otherwise
+        if (System.getProperty(NO_DELAY_PROPERTY) == null) {
+            System.setProperty(NO_DELAY_PROPERTY, "true");
+        }
+        try {
+            LeaderboardServer server = new LeaderboardServer(new InetSocketAddress(port), store);
+            server.start();
+            leaderboardServer = server;
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Parses the value of the {@code tickRate} setting, falling back to
+     * {@value GlobalVariables#TICK_RATE} if it is not a positive number.
+     *
+     * @param value the value of the setting
+     * @return the number of simulation ticks per second
+     */
+    private static int parseTickRate(final String value) {
+        try {
+            int rate = Integer.parseInt(value.trim());
+            if (rate > 0) {
+                return rate;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below, like a rate out of range
+        }
+        System.err.println("Invalid tickRate setting " + value + ", using " + GlobalVariables.TICK_RATE);
+        return GlobalVariables.TICK_RATE;
+    }
+
+    /**
+     * Parses the value of the {@code leaderboardPort} setting, falling back to 0, which leaves the
+     * leaderboard server off, if it is not a port number.
+     *
+     * @param value the value of the setting
+     * @return the port to serve the scores on, or 0 not to serve them
+     */
+    private static int parseLeaderboardPort(final String value) {
+        try {
+            int port = Integer.parseInt(value.trim());
+            if (port >= 0 && port <= MAX_PORT) {
+                return port;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below, like a port out of range
+        }
+        System.err.println("Invalid leaderboardPort setting " + value + ", not serving the scores");
+        return 0;
+    }
+
     /**
      * Shows the main menu.
      */
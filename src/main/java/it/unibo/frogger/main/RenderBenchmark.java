@@ -0,0 +1,148 @@
+package it.unibo.frogger.main;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import it.unibo.frogger.core.GlobalVariables;
+import it.unibo.frogger.core.Sprite;
+import it.unibo.frogger.view.SpriteAtlas;
+import it.unibo.frogger.view.SpriteRegistry;
+import javafx.animation.AnimationTimer;
+import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.scene.Scene;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.layout.StackPane;
+import javafx.scene.paint.Color;
+import javafx.stage.Stage;
+
+/**
+ * Frame-time benchmark of the sprite layer: draws a scene with many moving sprites,
+ * first with one image per sprite type and then through the {@link SpriteAtlas},
+ * and prints the mean and 95th percentile frame time of both.
+ * Run it with {@code ./gradlew runRenderBenchmark}, which lets JavaFX render as fast as it can.
+ *
+ * <p>Options are passed as {@code --name=value}: {@code objects} (default 500),
+ * {@code warmup} and {@code frames} (frames per mode, default 120 and 600).
+ */
+public final class RenderBenchmark {
+    private RenderBenchmark() { }
+
+    /**
+     * Benchmark entry-point.
+     *
+     * @param args the options, as {@code --name=value}
+     */
+    public static void main(final String[] args) {
+        Application.launch(BenchmarkApp.class, args);
+    }
+
+    /**
+     * The JavaFX application drawing the benchmark scene.
+     */
+    public static final class BenchmarkApp extends Application {
+        private static final int MODES = 2;
+        private static final String[] MODE_NAMES = {"images", "atlas"};
+
+        private Sprite[] sprites;
+        private double[] xs;
+        private double[] ys;
+        private int warmup;
+        private long[] frameNanos;
+
+        /**
+         * Builds the scene and starts measuring.
+         *
+         * @param stage the primary stage
+         */
+        @Override
+        public void start(final Stage stage) {
+            Map<String, String> options = CommandLineOptions.parse(getParameters().getRaw().toArray(new String[0]));
+            int objects = Integer.parseInt(options.getOrDefault("objects", "500"));
+            warmup = Integer.parseInt(options.getOrDefault("warmup", "120"));
+            frameNanos = new long[Integer.parseInt(options.getOrDefault("frames", "600"))];
+
+            SplittableRandom random = new SplittableRandom(42);
+            Sprite[] types = Sprite.values();
+            sprites = new Sprite[objects];
+            xs = new double[objects];
+            ys = new double[objects];
+            for (int i = 0; i < objects; i++) {
+                sprites[i] = types[random.nextInt(types.length)];
+                xs[i] = random.nextInt(GlobalVariables.WIDTH);
+                ys[i] = random.nextInt(GlobalVariables.HEIGHT);
+            }
+            SpriteAtlas.getImage();
+
+            Canvas canvas = new Canvas(GlobalVariables.WIDTH, GlobalVariables.HEIGHT);
+            GraphicsContext gc = canvas.getGraphicsContext2D();
+            stage.setScene(new Scene(new StackPane(canvas), GlobalVariables.WIDTH, GlobalVariables.HEIGHT));
+            stage.setTitle("Render benchmark");
+            stage.show();
+
+            new AnimationTimer() {
+                private int mode;
+                private int frame;
+                private long last;
+
+                @Override
+                public void handle(final long now) {
+                    if (last != 0 && frame >= warmup) {
+                        frameNanos[frame - warmup] = now - last;
+                    }
+                    last = now;
+                    drawFrame(gc, mode == 1);
+                    frame++;
+                    if (frame == warmup + frameNanos.length) {
+                        report(MODE_NAMES[mode], frameNanos);
+                        frame = 0;
+                        last = 0;
+                        mode++;
+                        if (mode == MODES) {
+                            stop();
+                            Platform.exit();
+                        }
+                    }
+                }
+            }.start();
+        }
+
+        /**
+         * Moves the sprites and draws them.
+         *
+         * @param gc       the graphics context to draw on
+         * @param useAtlas true to draw from the atlas, false to draw one image per sprite type
+         */
+        private void drawFrame(final GraphicsContext gc, final boolean useAtlas) {
+            gc.setFill(Color.BLACK);
+            gc.fillRect(0, 0, GlobalVariables.WIDTH, GlobalVariables.HEIGHT);
+            for (int i = 0; i < sprites.length; i++) {
+                Sprite sprite = sprites[i];
+                xs[i] = (xs[i] + 1) % GlobalVariables.WIDTH;
+                if (useAtlas) {
+                    SpriteAtlas.draw(gc, sprite, xs[i], ys[i], sprite.getWidth(), sprite.getHeight());
+                } else {
+                    gc.drawImage(SpriteRegistry.getImage(sprite), xs[i], ys[i], sprite.getWidth(), sprite.getHeight());
+                }
+            }
+        }
+
+        /**
+         * Prints the mean and 95th percentile of the measured frame times.
+         *
+         * @param mode   the name of the drawing mode
+         * @param frames the frame times, in nanoseconds
+         */
+        private static void report(final String mode, final long[] frames) {
+            long[] sorted = frames.clone();
+            Arrays.sort(sorted);
+            double mean = Arrays.stream(sorted).average().orElse(0);
+            long p95 = sorted[(int) Math.min(sorted.length - 1, Math.round(sorted.length * 0.95))];
+            System.out.println(String.format(Locale.ROOT, "%-6s %d frames: mean %.3f ms, p95 %.3f ms",
+                mode, frames.length, mean / 1e6, p95 / 1e6));
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package it.unibo.frogger.view;
+
+import it.unibo.frogger.core.GlobalVariables;
+import it.unibo.frogger.core.Sprite;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+
+/**
+ * Draws the lives and the score on the HUD layer of the match.
+ * The score label and the digits are laid out with the pixel font once, into a strip of glyphs,
+ * and the score is then drawn by copying the glyphs of its digits out of the strip,
+ * so no text is laid out and no string is built while the match runs.
+ * Each part of the HUD is redrawn only when its value changes.
+ */
+public class HudRenderer {
+    private static final String LABEL = "Score: ";
+    private static final String GLYPHS = "0123456789-";
+    private static final int MINUS = 10;
+    private static final int NOT_RENDERED = Integer.MIN_VALUE;
+
+    private static final double SCORE_X = 10;
+    private static final double SCORE_BASELINE = 20;
+    private static final int LIFE_ICON_SIZE = 30;
+    private static final int LIFE_PADDING = 10;
+    private static final int LIFE_SPACING = 5;
+    private static final int LIVES_Y = GlobalVariables.HEIGHT - LIFE_ICON_SIZE - LIFE_PADDING;
+
+    private final GraphicsContext gc;
+    private final Image strip;
+    private final Image lifeIcon;
+    private final double glyphWidth;
+    private final double glyphHeight;
+    private final double labelWidth;
+    private final double scoreY;
+    private int renderedLives = NOT_RENDERED;
+    private int renderedScore = NOT_RENDERED;
+    private int renderedScoreGlyphs;
+
+    /**
+     * Constructs a new HudRenderer, laying out the glyphs of the score.
+     * It must be called on the JavaFX application thread.
+     *
+     * @param gc   the graphics context of the HUD layer
+     * @param font the font to draw the score with
+     */
+    public HudRenderer(final GraphicsContext gc, final Font font) {
+        this.gc = gc;
+        this.lifeIcon = SpriteRegistry.getImage(Sprite.FROG.getResourcePath(), LIFE_ICON_SIZE, LIFE_ICON_SIZE);
+
+        // The pixel font is monospaced, so every glyph takes a cell of the same width
+        Text measure = new Text(GLYPHS.substring(0, 1));
+        measure.setFont(font);
+        this.glyphWidth = Math.ceil(measure.getLayoutBounds().getWidth());
+        this.glyphHeight = Math.ceil(measure.getLayoutBounds().getHeight());
+        this.labelWidth = LABEL.length() * glyphWidth;
+        double baseline = measure.getBaselineOffset();
+        this.scoreY = SCORE_BASELINE - baseline;
+        this.strip = rasterize(font, baseline);
+    }
+
+    /**
+     * Renders the lives and the score, redrawing only the ones that changed since the last time.
+     *
+     * @param lives the lives of the frog
+     * @param score the score to render
+     */
+    public void render(final int lives, final int score) {
+        if (lives != renderedLives) {
+            renderLives(lives);
+            renderedLives = lives;
+        }
+        if (score != renderedScore) {
+            renderScore(score);
+            renderedScore = score;
+        }
+    }
+
+    /**
+     * Lays out the score label and every glyph of a score into a transparent image, one after the other.
+     *
+     * @param font     the font to draw with
+     * @param baseline the distance from the top of a glyph to its baseline
+     * @return the strip of glyphs
+     */
+    private Image rasterize(final Font font, final double baseline) {
+        Canvas canvas = new Canvas(labelWidth + GLYPHS.length() * glyphWidth, glyphHeight);
+        GraphicsContext stripGc = canvas.getGraphicsContext2D();
+        stripGc.setFill(Color.WHITE);
+        stripGc.setFont(font);
+        stripGc.fillText(LABEL, 0, baseline);
+        for (int i = 0; i < GLYPHS.length(); i++) {
+            stripGc.fillText(GLYPHS.substring(i, i + 1), labelWidth + i * glyphWidth, baseline);
+        }
+        SnapshotParameters parameters = new SnapshotParameters();
+        parameters.setFill(Color.TRANSPARENT);
+        return canvas.snapshot(parameters, null);
+    }
+
+    /**
+     * Renders a frog icon for each life, clearing the icons of the lives lost.
+     *
+     * @param lives the lives to render
+     */
+    private void renderLives(final int lives) {
+        gc.clearRect(0, LIVES_Y, GlobalVariables.WIDTH, LIFE_ICON_SIZE);
+        for (int i = 0; i < lives; i++) {
+            double x = LIFE_PADDING + (i * (LIFE_ICON_SIZE + LIFE_SPACING));
+            gc.drawImage(lifeIcon, x, LIVES_Y, LIFE_ICON_SIZE, LIFE_ICON_SIZE);
+        }
+    }
+
+    /**
+     * Renders the score label followed by the digits of the score, copied from the glyph strip.
+     *
+     * @param score the score to render
+     */
+    private void renderScore(final int score) {
+        if (renderedScore == NOT_RENDERED) {
+            drawGlyph(0, labelWidth, SCORE_X);
+        }
+        // Long arithmetic, so that the magnitude of Integer.MIN_VALUE does not overflow
+        long value = Math.abs((long) score);
+        int glyphs = score < 0 ? 2 : 1;
+        long divisor = 1;
+        while (value / divisor >= 10) {
+            divisor *= 10;
+            glyphs++;
+        }
+
+        double x = SCORE_X + labelWidth;
+        double scoreWidth = Math.max(glyphs, renderedScoreGlyphs) * glyphWidth;
+        gc.clearRect(x, scoreY, scoreWidth, glyphHeight);
+        if (score < 0) {
+            drawGlyph(labelWidth + MINUS * glyphWidth, glyphWidth, x);
+            x += glyphWidth;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            int digit = (int) (value / divisor % 10);
+            drawGlyph(labelWidth + digit * glyphWidth, glyphWidth, x);
+            x += glyphWidth;
+        }
+        renderedScoreGlyphs = glyphs;
+    }
+
+    /**
+     * Copies a run of the glyph strip onto the score line of the HUD.
+     *
+     * @param sourceX the x position of the run in the strip
+     * @param width   the width of the run
+     * @param x       the x position to draw at
+     */
+    private void drawGlyph(final double sourceX, final double width, final double x) {
+        gc.drawImage(strip, sourceX, 0, width, glyphHeight, x, scoreY, width, glyphHeight);
+    }
+}
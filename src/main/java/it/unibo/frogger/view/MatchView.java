@@ -1,13 +1,12 @@
 package it.unibo.frogger.view;
 
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
-import it.unibo.frogger.core.Frog;
 import it.unibo.frogger.core.Lane;
-import it.unibo.frogger.core.PlayerScoreManager;
-import it.unibo.frogger.core.GameObjectNotControllable;
 import it.unibo.frogger.core.GlobalVariables;
+import it.unibo.frogger.core.Sprite;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.paint.Color;
@@ -16,16 +15,32 @@ import javafx.geometry.Insets;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
+import javafx.scene.layout.StackPane;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 import it.unibo.frogger.main.MainApp;
+import it.unibo.frogger.controller.WorldSnapshot;
 
 /**
  * This class represents the view for the match in the Frogger game.
+ * The match is drawn on three stacked canvases, each redrawn only when something in it changes:
+ * the lane backgrounds, drawn once, the moving sprites, and the HUD with lives and score.
+ * Sprites are drawn from the {@link SpriteAtlas}, so the sprite layer uses a single texture,
+ * and the HUD is drawn by a {@link HudRenderer} from glyphs laid out once.
  */
 public class MatchView {
-    private Canvas canvas;
+    private Canvas backgroundCanvas;
+    private Canvas spriteCanvas;
+    private Canvas hudCanvas;
+    private GraphicsContext backgroundGc;
     private GraphicsContext gc;
+    private GraphicsContext hudGc;
+    private StackPane layers;
+    private boolean backgroundRendered;
+    private HudRenderer hud;
+    private Scene gameOverScene;
+    private VBox topScoresLayout;
+    private Label rankLabel;
     private Font titlePixelFont;
     private Font subtitlePixelFont;
     private Font pixelFont;
@@ -41,163 +56,99 @@ public class MatchView {
     public MatchView(final Stage stage, final MainApp mainApp) {
         this.stage = stage;
         this.mainApp = mainApp;
-        this.canvas = new Canvas(GlobalVariables.WIDTH, GlobalVariables.HEIGHT);
-        this.gc = canvas.getGraphicsContext2D();
+        this.backgroundCanvas = new Canvas(GlobalVariables.WIDTH, GlobalVariables.HEIGHT);
+        this.spriteCanvas = new Canvas(GlobalVariables.WIDTH, GlobalVariables.HEIGHT);
+        this.hudCanvas = new Canvas(GlobalVariables.WIDTH, GlobalVariables.HEIGHT);
+        this.backgroundGc = backgroundCanvas.getGraphicsContext2D();
+        this.gc = spriteCanvas.getGraphicsContext2D();
+        this.hudGc = hudCanvas.getGraphicsContext2D();
+        this.layers = new StackPane(backgroundCanvas, spriteCanvas, hudCanvas);
         this.titlePixelFont = Font.loadFont(getClass().getResourceAsStream("/PressStart2P-Regular.ttf"), 36);
         this.subtitlePixelFont = Font.loadFont(getClass().getResourceAsStream("/PressStart2P-Regular.ttf"), 24);
         this.pixelFont = Font.loadFont(getClass().getResourceAsStream("/PressStart2P-Regular.ttf"), 16);
+        this.hud = new HudRenderer(hudGc, pixelFont);
     }
 
     /**
-     * Gets the canvas for the match view.
+     * Gets the node holding the layers of the match view, from the background to the HUD.
      *
-     * @return the canvas
+     * @return the container of the layers
      */
-    public Canvas getCanvas() {
-        return canvas;
+    public StackPane getLayers() {
+        return layers;
     }
 
     /**
-     * Clears the scene by filling it with the background color.
+     * Renders the lane backgrounds, only the first time it is called.
+     * Ground lanes are purple, river lanes blue and traffic lanes black.
+     *
+     * @param lanes the lanes of the match, from the top of the screen
      */
-    public void clearScene() {
-        gc.setFill(Color.BLACK); // Set the background color
-        gc.fillRect(0, 0, GlobalVariables.WIDTH, GlobalVariables.HEIGHT); // Clear the canvas with the background color
+    public void renderBackground(final List<Lane> lanes) {
+        if (backgroundRendered) {
+            return;
+        }
+        backgroundGc.setFill(Color.BLACK); // Set the background color
+        backgroundGc.fillRect(0, 0, GlobalVariables.WIDTH, GlobalVariables.HEIGHT);
+        for (int i = 0; i < lanes.size(); i++) {
+            Lane lane = lanes.get(i);
+            if (lane.getObjects().isEmpty()) {
+                fillLane(i, Color.PURPLE);
+            } else if (lane.isRiver()) {
+                fillLane(i, Color.BLUE);
+            } else {
+                fillLane(i, Color.BLACK);
+            }
+        }
+        backgroundRendered = true;
     }
 
     /**
-     * Renders the frog on the canvas.
-     *
-     * @param frog the frog to render
+     * Clears the sprite layer, letting the background show through.
      */
-    public void renderFrog(final Frog frog) {
-        gc.drawImage(
-            frog.getImageView().getImage(),
-            frog.getXPosition(), frog.getYPosition(),
-            40,
-            40
-        );
+    public void clearSprites() {
+        gc.clearRect(0, 0, GlobalVariables.WIDTH, GlobalVariables.HEIGHT);
     }
 
     /**
-     * Renders a ground lane on the canvas.
+     * Redraws the sprite layer from a snapshot of the world.
      *
-     * @param lane      the lane to render
-     * @param laneIndex the index of the lane
+     * @param snapshot the snapshot to draw
+     * @param alpha    how far to draw entities between their previous and current positions,
+     *                 from 0 (previous) to 1 (current)
      */
-    public void renderGroundLane(final Lane lane, final int laneIndex) {
-        gc.setFill(Color.PURPLE); // Set the background color to purple for ground lanes
-        // Fill the lane with purple color
-        gc.fillRect(
-            0, 
-            laneIndex * GlobalVariables.LANE_HEIGHT,
-            GlobalVariables.WIDTH, 
-            GlobalVariables.LANE_HEIGHT
-        );
-        for (GameObjectNotControllable obj : lane.getObjects()) {
-            gc.drawImage(
-                obj.getImageView().getImage(), 
-                obj.getXPosition(), 
-                obj.getYPosition(), 
-                obj.getImageView().getFitWidth(), 
-                obj.getImageView().getFitHeight()
-            );
+    public void renderSnapshot(final WorldSnapshot snapshot, final double alpha) {
+        clearSprites();
+        for (int i = 0; i < snapshot.getCount(); i++) {
+            Sprite sprite = snapshot.getSprite(i);
+            SpriteAtlas.draw(gc, sprite, snapshot.getX(i, alpha), snapshot.getY(i), sprite.getWidth(), sprite.getHeight());
         }
     }
 
     /**
-     * Renders a traffic lane on the canvas.
+     * Renders the lives and the score on the HUD layer, if they changed since the last time.
      *
-     * @param lane      the lane to render
-     * @param laneIndex the index of the lane
+     * @param lives the lives of the frog
+     * @param score the score to render
      */
-    public void renderTrafficLane(final Lane lane, final int laneIndex) {
-        gc.setFill(Color.BLACK); // Set the background color to black for traffic lanes
-        // Fill the lane with black color
-        gc.fillRect(
-            0, 
-            laneIndex * GlobalVariables.LANE_HEIGHT, 
-            GlobalVariables.WIDTH, 
-            GlobalVariables.LANE_HEIGHT
-        );
-        for (GameObjectNotControllable obj : lane.getObjects()) {
-            gc.drawImage(
-                obj.getImageView().getImage(), 
-                obj.getXPosition(), 
-                obj.getYPosition(), 
-                obj.getImageView().getFitWidth(), 
-                obj.getImageView().getFitHeight()
-            );
-        }
+    public void renderHud(final int lives, final int score) {
+        hud.render(lives, score);
     }
 
     /**
-     * Renders a log lane on the canvas.
+     * Fills the background of a lane.
      *
-     * @param lane      the lane to render
      * @param laneIndex the index of the lane
+     * @param color     the color of the lane
      */
-    public void renderLogLane(final Lane lane, final int laneIndex) {
-        gc.setFill(Color.BLUE); // Set the background color to blue for log lanes
-        // Fill the lane with blue color
-        gc.fillRect(
+    private void fillLane(final int laneIndex, final Color color) {
+        backgroundGc.setFill(color);
+        backgroundGc.fillRect(
             0, 
-            laneIndex * GlobalVariables.LANE_HEIGHT, 
+            laneIndex * GlobalVariables.LANE_HEIGHT,
             GlobalVariables.WIDTH, 
             GlobalVariables.LANE_HEIGHT
         );
-        for (GameObjectNotControllable obj : lane.getObjects()) {
-            gc.drawImage(
-                obj.getImageView().getImage(), 
-                obj.getXPosition(), 
-                obj.getYPosition(), 
-                obj.getImageView().getFitWidth(), 
-                obj.getImageView().getFitHeight()
-            );
-        }
-    }
-
-    /**
-     * Renders a token on the canvas.
-     *
-     * @param token the token to render
-     */
-    public void renderToken(final GameObjectNotControllable token) {
-        gc.drawImage(
-            token.getImageView().getImage(), 
-            token.getXPosition(), 
-            token.getYPosition(), 
-            token.getImageView().getFitWidth(), 
-            token.getImageView().getFitHeight()
-        );
-    }
-
-    /**
-     * Updates the position of the frog on the canvas.
-     *
-     * @param frog the frog to update
-     */
-    public void updateFrogPosition(final Frog frog) {
-        renderFrog(frog); // Render the frog at the new position
-    }
-
-    /**
-     * Renders the lives of the frog on the canvas.
-     *
-     * @param frog the frog whose lives to render
-     */
-    public void renderLives(final Frog frog) {
-        // Define size and position of lives icons
-        final int lifeIconSize = 30;  // Smaller size for lives icons
-        final int padding = 10;         // Space from border
-        final int spacing = 5;          // Space between icons
-        final int baseY = GlobalVariables.HEIGHT - lifeIconSize - padding;  // Base Y position
-
-        // For each lives draw a Frog icon
-        for (int i = 0; i < frog.getLives(); i++) {
-            double x = padding + (i * (lifeIconSize + spacing));
-            gc.drawImage(frog.getImageView().getImage(), x, baseY, lifeIconSize, lifeIconSize);
-        }
     }
 
     /**
@@ -210,27 +161,40 @@ public class MatchView {
     }
 
     /**
-     * Renders the score on the canvas.
+     * Renders the game over screen with the final score.
+     * The screen is built only the first time; the top scores are added once they are loaded.
      *
-     * @param score the score to render
+     * @param score the final score
      */
-    public void renderScore(final int score) {
-        gc.setFill(Color.WHITE); // Set the text color to white
-        gc.setFont(pixelFont); // Use the pixel font
-        gc.fillText("Score: " + score, 10, 20); // Draw the score at the top-left corner
+    public void renderGameOver(final int score) {
+        if (gameOverScene == null) {
+            showGameOverScreen(score);
+        }
     }
 
     /**
-     * Renders the game over screen with the final score.
+     * Fills the leaderboard of the game over screen, with the rank of the player.
      *
-     * @param score the final score
+     * @param topScores the best scores, from the highest
+     * @param rank      the rank of the final score among all the saved scores
+     * @param total     the number of saved scores, or 0 to leave the rank out, when the score was not saved
      */
-    public void renderGameOver(final int score) {
-        showGameOverScreen(score);
+    public void renderTopScores(final List<Map.Entry<String, Integer>> topScores, final long rank, final long total) {
+        if (topScoresLayout == null) {
+            return;
+        }
+        if (total > 0) {
+            rankLabel.setText(String.format(Locale.ROOT, "Rank #%,d of %,d", rank, total));
+        }
+        // Keep the title, replacing the loading message with the scores
+        topScoresLayout.getChildren().remove(1, topScoresLayout.getChildren().size());
+        for (Map.Entry<String, Integer> entry : topScores) {
+            topScoresLayout.getChildren().add(createScoreLabel(entry.getKey() + ": " + entry.getValue()));
+        }
     }
 
     /**
-     * Shows the game over screen with the final score and top scores.
+     * Shows the game over screen with the final score, while the top scores are still loading.
      *
      * @param score the final score
      */
@@ -247,20 +211,11 @@ public class MatchView {
         scoreLabel.setFont(subtitlePixelFont);
         scoreLabel.setStyle("-fx-text-fill: white;");
 
-        // Add top scores
-        List<Map.Entry<String, Integer>> topScores = PlayerScoreManager.getTopScores(5);
-        VBox topScoresLayout = new VBox(5);  // Reduce spacing between score entries
+        // Add the rank and the top scores, filled in by renderTopScores
+        rankLabel = createScoreLabel("");
+        topScoresLayout = new VBox(5);  // Reduce spacing between score entries
         topScoresLayout.setAlignment(javafx.geometry.Pos.CENTER);
-        Label topScoresLabel = new Label("Top 5 Scores:");
-        topScoresLabel.setFont(pixelFont);
-        topScoresLabel.setStyle("-fx-text-fill: white;");
-        topScoresLayout.getChildren().add(topScoresLabel);
-        for (Map.Entry<String, Integer> entry : topScores) {
-            Label scoreEntryLabel = new Label(entry.getKey() + ": " + entry.getValue());
-            scoreEntryLabel.setFont(pixelFont);
-            scoreEntryLabel.setStyle("-fx-text-fill: white;");
-            topScoresLayout.getChildren().add(scoreEntryLabel);
-        }
+        topScoresLayout.getChildren().addAll(createScoreLabel("Top 5 Scores:"), createScoreLabel("Loading..."));
 
         Button restartButton = new Button("Restart");
         restartButton.setFont(titlePixelFont);
@@ -270,13 +225,27 @@ public class MatchView {
         quitButton.setFont(titlePixelFont);
         quitButton.setOnAction(e -> stage.close());
 
-        gameOverLayout.getChildren().addAll(gameOverLabel, scoreLabel, topScoresLayout, restartButton, quitButton);
+        gameOverLayout.getChildren().addAll(
+            gameOverLabel, scoreLabel, rankLabel, topScoresLayout, restartButton, quitButton);
         gameOverLayout.setStyle("-fx-background-color: black;");
 
-        Scene gameOverScene = new Scene(gameOverLayout, GlobalVariables.WIDTH, GlobalVariables.HEIGHT);
+        gameOverScene = new Scene(gameOverLayout, GlobalVariables.WIDTH, GlobalVariables.HEIGHT);
         stage.setScene(gameOverScene);
     }
 
+    /**
+     * Creates a label of the leaderboard.
+     *
+     * @param text the text of the label
+     * @return the label, in white pixel font
+     */
+    private Label createScoreLabel(final String text) {
+        Label label = new Label(text);
+        label.setFont(pixelFont);
+        label.setStyle("-fx-text-fill: white;");
+        return label;
+    }
+
     /**
      * Gets the player name from the main application.
      *
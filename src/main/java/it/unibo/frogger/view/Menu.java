@@ -1,14 +1,19 @@
 package it.unibo.frogger.view;
 
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
 import it.unibo.frogger.core.GlobalVariables;
+import it.unibo.frogger.core.PlayerScoreManager;
 import it.unibo.frogger.core.SoundManager;
 import it.unibo.frogger.main.MainApp;
+import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.control.TextField;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.HBox;
@@ -18,12 +23,16 @@ import javafx.stage.Stage;
 
 /**
  * This class represents the main menu of the Frogger game.
+ * Below the buttons it shows the best scores of today and of this week, loaded in the background.
  */
 public class Menu {
+    private static final int PERIOD_TOP_SCORES = 3;
+
     private Stage stage;
     private MainApp mainApp;
 
     private Font pixelFont = Font.loadFont(getClass().getResourceAsStream("/PressStart2P-Regular.ttf"), 36);
+    private Font smallPixelFont = Font.loadFont(getClass().getResourceAsStream("/PressStart2P-Regular.ttf"), 12);
 
     /**
      * Constructs a new Menu.
@@ -51,7 +60,7 @@ public class Menu {
         quitButton.setFont(pixelFont);
 
         // Set icon for settings button
-        ImageView settingsIcon = new ImageView(new Image(getClass().getResourceAsStream("/gear.png")));
+        ImageView settingsIcon = new ImageView(SpriteRegistry.getImage("/gear.png", 30, 30));
         settingsIcon.setFitWidth(30);
         settingsIcon.setFitHeight(30);
         settingsButton.setGraphic(settingsIcon);
@@ -72,10 +81,20 @@ public class Menu {
         topLayout.setAlignment(javafx.geometry.Pos.TOP_RIGHT);
         topLayout.getChildren().add(settingsButton);
 
+        // Use HBox for the best scores of today and of this week at the bottom
+        VBox dailyLayout = createPeriodLayout("Today's best");
+        VBox weeklyLayout = createPeriodLayout("This week's best");
+        HBox bottomLayout = new HBox(60);
+        bottomLayout.setPadding(new Insets(10));
+        bottomLayout.setAlignment(javafx.geometry.Pos.CENTER);
+        bottomLayout.getChildren().addAll(dailyLayout, weeklyLayout);
+        loadPeriodTopScores(dailyLayout, weeklyLayout);
+
         // Use BorderPane for overall layout
         BorderPane mainLayout = new BorderPane();
         mainLayout.setCenter(centerLayout);
         mainLayout.setTop(topLayout);
+        mainLayout.setBottom(bottomLayout);
         mainLayout.setStyle("-fx-background-color: black;");
 
         Scene menuScene = new Scene(mainLayout, GlobalVariables.WIDTH, GlobalVariables.HEIGHT); // Set the size of the menu
@@ -83,6 +102,69 @@ public class Menu {
         stage.show(); // Show the menu
     }
 
+    /**
+     * Creates the layout of the best scores of a period, with its title.
+     *
+     * @param title the title of the period
+     * @return the layout, to be filled with the scores once they are loaded
+     */
+    private VBox createPeriodLayout(final String title) {
+        VBox layout = new VBox(5);
+        layout.setAlignment(javafx.geometry.Pos.TOP_CENTER);
+        layout.getChildren().add(createSmallLabel(title));
+        return layout;
+    }
+
+    /**
+     * Loads the best scores of today and of this week in the background, then shows them.
+     *
+     * @param dailyLayout  the layout of the best scores of today
+     * @param weeklyLayout the layout of the best scores of this week
+     */
+    private void loadPeriodTopScores(final VBox dailyLayout, final VBox weeklyLayout) {
+        CompletableFuture.supplyAsync(() -> List.of(
+            PlayerScoreManager.getDailyTopScores(PERIOD_TOP_SCORES),
+            PlayerScoreManager.getWeeklyTopScores(PERIOD_TOP_SCORES)
+        )).whenComplete((periods, error) -> {
+            if (error != null) {
+                error.printStackTrace();
+                return;
+            }
+            Platform.runLater(() -> {
+                fillPeriodLayout(dailyLayout, periods.get(0));
+                fillPeriodLayout(weeklyLayout, periods.get(1));
+            });
+        });
+    }
+
+    /**
+     * Adds the best scores of a period below its title.
+     *
+     * @param layout    the layout of the period
+     * @param topScores the best scores of the period, from the highest
+     */
+    private void fillPeriodLayout(final VBox layout, final List<Map.Entry<String, Integer>> topScores) {
+        if (topScores.isEmpty()) {
+            layout.getChildren().add(createSmallLabel("No scores yet"));
+        }
+        for (Map.Entry<String, Integer> entry : topScores) {
+            layout.getChildren().add(createSmallLabel(entry.getKey() + ": " + entry.getValue()));
+        }
+    }
+
+    /**
+     * Creates a label in the small pixel font.
+     *
+     * @param text the text of the label
+     * @return the label, in white
+     */
+    private Label createSmallLabel(final String text) {
+        Label label = new Label(text);
+        label.setFont(smallPixelFont);
+        label.setStyle("-fx-text-fill: white;");
+        return label;
+    }
+
     /**
      * Starts a new game by calling the setupGame method in MainApp.
      */
@@ -54,8 +54,8 @@ public class SettingsDialog {
             SoundManager.setMusicVolume(musicVolume);
             SoundManager.setEffectsVolume(effectsVolume);
 
-            // Save settings to file
-            Properties settings = new Properties();
+            // Save settings to file, keeping the ones not edited here
+            Properties settings = GameSettingsManager.loadSettings();
             settings.setProperty("musicVolume", String.valueOf(musicVolume));
             settings.setProperty("effectsVolume", String.valueOf(effectsVolume));
             GameSettingsManager.saveSettings(settings);
@@ -0,0 +1,100 @@
+package it.unibo.frogger.view;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+import it.unibo.frogger.core.Sprite;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelWriter;
+import javafx.scene.image.WritableImage;
+
+/**
+ * Packs the images of all the sprites into a single texture, so that drawing a frame
+ * binds one texture instead of one per sprite type.
+ * Sprites are decoded at the size they are drawn at and packed on shelves sorted by height,
+ * with a transparent pixel around each of them so that smoothing never samples a neighbour.
+ */
+public final class SpriteAtlas {
+    private static final int ATLAS_WIDTH = 512;
+    private static final int PADDING = 1;
+    private static final int[] SOURCE_X = new int[Sprite.values().length];
+    private static final int[] SOURCE_Y = new int[Sprite.values().length];
+    private static volatile WritableImage atlas;
+
+    // Prevent instantiation
+    private SpriteAtlas() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    /**
+     * Gets the atlas texture, packing it the first time.
+     *
+     * @return the image holding all the sprites
+     */
+    public static synchronized Image getImage() {
+        if (atlas == null) {
+            atlas = pack();
+        }
+        return atlas;
+    }
+
+    /**
+     * Draws a sprite through the source-rectangle overload of {@code drawImage}.
+     *
+     * @param gc     the graphics context to draw on
+     * @param sprite the sprite to draw
+     * @param x      the x position to draw at
+     * @param y      the y position to draw at
+     * @param width  the width to draw at
+     * @param height the height to draw at
+     */
+    public static void draw(
+        final GraphicsContext gc,
+        final Sprite sprite,
+        final double x,
+        final double y,
+        final double width,
+        final double height
+    ) {
+        Image image = atlas != null ? atlas : getImage();
+        gc.drawImage(image,
+            SOURCE_X[sprite.ordinal()], SOURCE_Y[sprite.ordinal()], sprite.getWidth(), sprite.getHeight(),
+            x, y, width, height);
+    }
+
+    /**
+     * Packs every sprite into a new texture and records where each one was placed.
+     *
+     * @return the atlas texture
+     */
+    private static WritableImage pack() {
+        Sprite[] sprites = Sprite.values();
+        Arrays.sort(sprites, Comparator.comparingInt(Sprite::getHeight).reversed());
+
+        // Place sprites left to right, starting a new shelf when the current one is full
+        int x = PADDING;
+        int y = PADDING;
+        int shelfHeight = 0;
+        for (Sprite sprite : sprites) {
+            if (x + sprite.getWidth() + PADDING > ATLAS_WIDTH) {
+                x = PADDING;
+                y += shelfHeight + PADDING;
+                shelfHeight = 0;
+            }
+            SOURCE_X[sprite.ordinal()] = x;
+            SOURCE_Y[sprite.ordinal()] = y;
+            x += sprite.getWidth() + PADDING;
+            shelfHeight = Math.max(shelfHeight, sprite.getHeight());
+        }
+
+        WritableImage image = new WritableImage(ATLAS_WIDTH, y + shelfHeight + PADDING);
+        PixelWriter writer = image.getPixelWriter();
+        for (Sprite sprite : sprites) {
+            Image source = SpriteRegistry.getImage(sprite);
+            writer.setPixels(SOURCE_X[sprite.ordinal()], SOURCE_Y[sprite.ordinal()],
+                sprite.getWidth(), sprite.getHeight(), source.getPixelReader(), 0, 0);
+        }
+        return image;
+    }
+}
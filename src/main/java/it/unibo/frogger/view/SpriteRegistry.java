@@ -0,0 +1,70 @@
+package it.unibo.frogger.view;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import it.unibo.frogger.core.Sprite;
+import javafx.scene.image.Image;
+
+/**
+ * Application-wide registry of the images drawn by the game.
+ * Each resource is decoded once at the size it is drawn at, and the same instance
+ * is handed out to every view afterwards, also across restarts of the match.
+ */
+public final class SpriteRegistry {
+    private static final int BYTES_PER_PIXEL = 4;
+    private static final Map<String, Image> IMAGES = new HashMap<>();
+    private static long decodedBytes;
+
+    // Prevent instantiation
+    private SpriteRegistry() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    /**
+     * Gets the image of the given sprite, at the size the sprite is drawn at.
+     *
+     * @param sprite the sprite to draw
+     * @return the shared image of the sprite
+     */
+    public static Image getImage(final Sprite sprite) {
+        return getImage(sprite.getResourcePath(), sprite.getWidth(), sprite.getHeight());
+    }
+
+    /**
+     * Gets the image of the given resource, decoding it at the given size the first time.
+     *
+     * @param resourcePath the classpath resource holding the image
+     * @param width        the width the image is drawn at
+     * @param height       the height the image is drawn at
+     * @return the shared image
+     */
+    public static synchronized Image getImage(final String resourcePath, final int width, final int height) {
+        String key = resourcePath + '@' + width + 'x' + height;
+        Image image = IMAGES.get(key);
+        if (image == null) {
+            image = new Image(SpriteRegistry.class.getResourceAsStream(resourcePath), width, height, false, true);
+            IMAGES.put(key, image);
+            decodedBytes += (long) image.getWidth() * (long) image.getHeight() * BYTES_PER_PIXEL;
+        }
+        return image;
+    }
+
+    /**
+     * Gets the memory taken by the pixels of all the images decoded so far.
+     *
+     * @return the decoded pixel memory, in bytes
+     */
+    public static synchronized long getDecodedBytes() {
+        return decodedBytes;
+    }
+
+    /**
+     * Gets the number of images decoded so far.
+     *
+     * @return the number of images
+     */
+    public static synchronized int getImageCount() {
+        return IMAGES.size();
+    }
+}
@@ -3,13 +3,28 @@ package it.unibo.frogger;
 import static org.junit.jupiter.api.Assertions.*;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.io.TempDir;
 
 import it.unibo.frogger.core.*;
 import it.unibo.frogger.controller.CollisionDetector;
-import javafx.scene.input.KeyCode;
+import it.unibo.frogger.controller.FixedTimestepLoop;
+import it.unibo.frogger.controller.LaneIndex;
+import it.unibo.frogger.controller.MatchPhase;
+import it.unibo.frogger.controller.SpscQueue;
+import it.unibo.frogger.controller.TripleBuffer;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
 
 class AppTest {
 
@@ -28,12 +43,17 @@ class AppTest {
     private static final int LOG_DIRECTION = 1;
     private static final int BOUNDARY_RIGHT = 800;
     private static final int BOUNDARY_BOTTOM = 600;
+    private static final int TICK_RATE = 120;
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
 
     private Frog frog;
     private CollisionDetector detector;
     private Obstacle obstacle;
     private Token token;
 
+    @TempDir
+    Path tempDir;
+
     @BeforeEach
     void setup() {
         frog = new Frog(INITIAL_FROG_X, INITIAL_FROG_Y, INITIAL_FROG_LIVES); // Create frog with 3 lives at position (400,500)
@@ -47,16 +67,16 @@ class AppTest {
         int initialX = frog.getXPosition();
         int initialY = frog.getYPosition();
 
-        frog.move(KeyCode.RIGHT);
+        frog.move(Direction.RIGHT);
         assertEquals(initialX + MOVE_DISTANCE, frog.getXPosition(), "Frog should move 46 pixels right");
 
-        frog.move(KeyCode.LEFT);
+        frog.move(Direction.LEFT);
         assertEquals(initialX, frog.getXPosition(), "Frog should move back to initial X position");
 
-        frog.move(KeyCode.DOWN);
+        frog.move(Direction.DOWN);
         assertEquals(initialY + MOVE_DISTANCE, frog.getYPosition(), "Frog should move 46 pixels down");
 
-        frog.move(KeyCode.UP);
+        frog.move(Direction.UP);
         assertEquals(initialY, frog.getYPosition(), "Frog should move back to initial Y position");
     }
 
@@ -119,26 +139,521 @@ class AppTest {
     void testFrogBoundaries() {
         // Test right boundary
         frog.resetPosition(BOUNDARY_RIGHT, INITIAL_FROG_Y);
-        frog.move(KeyCode.RIGHT);
+        frog.move(Direction.RIGHT);
         assertTrue(frog.getXPosition() <= BOUNDARY_RIGHT - MOVE_DISTANCE,
             "Frog should not move beyond right boundary");
 
         // Test left boundary
         frog.resetPosition(0, INITIAL_FROG_Y);
-        frog.move(KeyCode.LEFT);
+        frog.move(Direction.LEFT);
         assertTrue(frog.getXPosition() >= 0,
             "Frog should not move beyond left boundary");
 
         // Test bottom boundary
         frog.resetPosition(INITIAL_FROG_X, BOUNDARY_BOTTOM);
-        frog.move(KeyCode.DOWN);
+        frog.move(Direction.DOWN);
         assertTrue(frog.getYPosition() <= BOUNDARY_BOTTOM - MOVE_DISTANCE,
             "Frog should not move beyond bottom boundary");
 
         // Test top boundary
         frog.resetPosition(INITIAL_FROG_X, 0);
-        frog.move(KeyCode.UP);
+        frog.move(Direction.UP);
         assertTrue(frog.getYPosition() >= 0,
             "Frog should not move beyond top boundary");
     }
+
+    @Test
+    void testFixedTimestepLoop() {
+        FixedTimestepLoop loop = new FixedTimestepLoop(TICK_RATE, 4);
+        int[] ticks = new int[1];
+        Runnable tick = () -> ticks[0]++;
+
+        loop.advance(0, tick);
+        assertEquals(0, ticks[0], "The first frame should only start the clock");
+
+        // Half a second at 60 Hz, then the same time at 144 Hz
+        for (int frame = 1; frame <= 30; frame++) {
+            loop.advance(frame * NANOS_PER_SECOND / 60, tick);
+        }
+        long start = NANOS_PER_SECOND / 2;
+        for (int frame = 1; frame <= 72; frame++) {
+            loop.advance(start + frame * NANOS_PER_SECOND / 144, tick);
+        }
+        assertEquals(TICK_RATE, ticks[0], 1, "One second should run as many ticks as the tick rate");
+
+        // A one second stall only catches up the maximum number of ticks
+        int caughtUp = loop.advance(2 * NANOS_PER_SECOND, tick);
+        assertEquals(4, caughtUp, "Catching up should be bounded");
+        assertTrue(loop.getDroppedTime() > 0, "The time not caught up should be dropped");
+    }
+
+    @Test
+    void testLaneSpeedIndependentOfTickRate() {
+        Obstacle slow = new Obstacle(0, OBSTACLE_Y, LANE_DIRECTION, 0);
+        Obstacle fast = new Obstacle(0, OBSTACLE_Y, LANE_DIRECTION, 0);
+        Lane referenceLane = new Lane(LANE_SPEED, LANE_DIRECTION, new ArrayList<>(List.of(slow)));
+        Lane fastLane = new Lane(LANE_SPEED, LANE_DIRECTION, new ArrayList<>(List.of(fast)));
+        fastLane.setTickRate(TICK_RATE);
+
+        for (int i = 0; i < GlobalVariables.REFERENCE_TICK_RATE / 4; i++) {
+            referenceLane.updateObjectsPosition();
+        }
+        for (int i = 0; i < TICK_RATE / 4; i++) {
+            fastLane.updateObjectsPosition();
+        }
+        assertEquals(slow.getXPosition(), fast.getXPosition(),
+            "Objects should cover the same distance per second at any tick rate");
+    }
+
+    @Test
+    void testSeededWorldGeneration() {
+        final long seed = 42L;
+        Match first = new Match(TICK_RATE, seed);
+        Match second = new Match(TICK_RATE, seed);
+
+        for (int i = 0; i < first.getLanes().size(); i++) {
+            List<GameObjectNotControllable> firstObjects = first.getLanes().get(i).getObjects();
+            List<GameObjectNotControllable> secondObjects = second.getLanes().get(i).getObjects();
+            assertEquals(first.getLanes().get(i).getSpeed(), second.getLanes().get(i).getSpeed(),
+                "The same seed should give the same lane speeds");
+            assertEquals(firstObjects.size(), secondObjects.size(), "The same seed should give the same objects");
+            for (int j = 0; j < firstObjects.size(); j++) {
+                assertEquals(firstObjects.get(j).getXPosition(), secondObjects.get(j).getXPosition(),
+                    "The same seed should give the same positions");
+            }
+        }
+    }
+
+    @Test
+    void testLaneAllocatorBounded() {
+        final int width = 70;
+        LaneAllocator allocator = new LaneAllocator(BOUNDARY_RIGHT);
+        SplittableRandom random = new SplittableRandom(1);
+        List<Integer> positions = new ArrayList<>();
+
+        int x;
+        while ((x = allocator.allocate(width, random)) != LaneAllocator.NO_SPACE) {
+            for (int other : positions) {
+                assertTrue(Math.abs(other - x) >= width, "Objects should never overlap");
+            }
+            positions.add(x);
+        }
+        assertTrue(positions.size() <= BOUNDARY_RIGHT / width, "A full lane should stop accepting objects");
+        assertEquals(BOUNDARY_RIGHT - positions.size() * width, allocator.getFreeLength(),
+            "Placed objects should be removed from the free space");
+    }
+
+    @Test
+    void testLaneIndexedCollisions() {
+        List<Lane> lanes = new ArrayList<>();
+        for (int row = 0; row < GlobalVariables.LANE_NUMBER; row++) {
+            List<GameObjectNotControllable> objects = new ArrayList<>();
+            if (row == 1) {
+                objects.add(new Log(0, GlobalVariables.LANE_HEIGHT, LOG_SPEED, LOG_DIRECTION, 0));
+            } else if (row == 7) {
+                objects.add(new Obstacle(OBSTACLE_X, 7 * GlobalVariables.LANE_HEIGHT - GlobalVariables.OBSTACLE_Y_OFFSET,
+                    LANE_DIRECTION, 0));
+            }
+            lanes.add(new Lane(LANE_SPEED, LANE_DIRECTION, objects));
+        }
+        LaneIndex index = new LaneIndex(lanes);
+
+        Frog onLog = new Frog(10, GlobalVariables.LANE_HEIGHT, INITIAL_FROG_LIVES);
+        new CollisionDetector().handleCollisions(onLog, index);
+        assertTrue(onLog.isOnLog(), "Frog should ride the log it lands on");
+        assertEquals(INITIAL_FROG_LIVES, onLog.getLives());
+
+        Frog inWater = new Frog(BOUNDARY_RIGHT - 60, GlobalVariables.LANE_HEIGHT, INITIAL_FROG_LIVES);
+        new CollisionDetector().handleCollisions(inWater, index);
+        assertEquals(INITIAL_FROG_LIVES - 1, inWater.getLives(), "Frog should lose a life when missing the logs");
+
+        Frog hit = new Frog(OBSTACLE_X, 7 * GlobalVariables.LANE_HEIGHT, INITIAL_FROG_LIVES);
+        new CollisionDetector().handleCollisions(hit, index);
+        assertEquals(INITIAL_FROG_LIVES - 1, hit.getLives(), "Frog should lose a life when hit by an obstacle");
+
+        Frog safe = new Frog(OBSTACLE_X, 6 * GlobalVariables.LANE_HEIGHT, INITIAL_FROG_LIVES);
+        new CollisionDetector().handleCollisions(safe, index);
+        assertEquals(INITIAL_FROG_LIVES, safe.getLives(), "Frog should be safe on the ground lanes");
+    }
+
+    @Test
+    void testHitboxTolerance() {
+        Hitbox hitbox = frog.getHitbox();
+        assertEquals(Sprite.FROG.getWidth() * 4 / 5, hitbox.getWidth(), "Hitbox should cover 80% of the sprite");
+        assertEquals((Sprite.FROG.getWidth() - hitbox.getWidth()) / 2, hitbox.getOffsetX(),
+            "Hitbox should be centered on the sprite");
+
+        // Sprites overlapping only in their margins do not collide
+        Token touching = new Token(INITIAL_FROG_X + Sprite.FROG.getWidth() - 2, INITIAL_FROG_Y);
+        assertFalse(detector.checkCollision(touching, frog), "Sprite margins should not collide");
+        touching.setPosition(INITIAL_FROG_X + hitbox.getOffsetX() + hitbox.getWidth() - touching.getHitbox().getOffsetX() - 1,
+            INITIAL_FROG_Y);
+        assertTrue(detector.checkCollision(touching, frog), "Overlapping hitboxes should collide");
+    }
+
+    @Test
+    void testSweptCollisions() {
+        final int fastSpeed = 150;
+        final int laneY = 7 * GlobalVariables.LANE_HEIGHT;
+        for (boolean swept : new boolean[] {false, true}) {
+            List<Lane> lanes = new ArrayList<>();
+            for (int row = 0; row < GlobalVariables.LANE_NUMBER; row++) {
+                List<GameObjectNotControllable> objects = new ArrayList<>();
+                if (row == 7) {
+                    // Starts just left of the frog and jumps past it in a single update
+                    objects.add(new Obstacle(OBSTACLE_X - 80, laneY - GlobalVariables.OBSTACLE_Y_OFFSET, LANE_DIRECTION, 0));
+                }
+                lanes.add(new Lane(row == 7 ? fastSpeed : 0, LANE_DIRECTION, objects));
+            }
+            Frog target = new Frog(OBSTACLE_X, laneY, INITIAL_FROG_LIVES);
+            CollisionDetector sweptDetector = new CollisionDetector();
+            sweptDetector.setSwept(swept);
+
+            lanes.get(7).updateObjectsPosition();
+            sweptDetector.handleCollisions(target, new LaneIndex(lanes));
+            assertEquals(swept ? INITIAL_FROG_LIVES - 1 : INITIAL_FROG_LIVES, target.getLives(),
+                swept ? "Fast obstacles should not tunnel through the frog" : "Only the current position is checked");
+        }
+    }
+
+    @Test
+    void testRiverCoverage() {
+        List<GameObjectNotControllable> logs = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            logs.add(new Log(i * 160, GlobalVariables.LANE_HEIGHT, LOG_SPEED, LOG_DIRECTION, 0));
+        }
+        Lane lane = new Lane(LOG_SPEED, LOG_DIRECTION, logs);
+        assertTrue(lane.isRiver(), "A lane of logs should be a river lane");
+
+        // Compare with a scan of all the logs while they move and wrap around
+        for (int tick = 0; tick < 1000; tick++) {
+            lane.updateObjectsPosition();
+            for (int x = -40; x < BOUNDARY_RIGHT; x += 7) {
+                boolean expected = false;
+                for (GameObjectNotControllable log : logs) {
+                    int left = Math.max(0, log.getXPosition() + log.getHitbox().getOffsetX());
+                    int right = Math.min(BOUNDARY_RIGHT, log.getXPosition() + log.getHitbox().getOffsetX()
+                        + log.getHitbox().getWidth());
+                    expected |= left < Math.min(BOUNDARY_RIGHT, x + 32) && Math.max(0, x) < right;
+                }
+                assertEquals(expected, lane.isCovered(x, x + 32), "Coverage should follow the logs");
+            }
+        }
+    }
+
+    @Test
+    void testTripleBufferHandoff() throws InterruptedException {
+        final int values = 200_000;
+        TripleBuffer<long[]> buffer = new TripleBuffer<>(new long[2], new long[2], new long[2]);
+        Thread writer = new Thread(() -> {
+            for (long value = 1; value <= values; value++) {
+                long[] pair = buffer.getWriteBuffer();
+                pair[0] = value;
+                pair[1] = -value;
+                buffer.publish();
+            }
+        });
+        writer.start();
+
+        long last = 0;
+        while (last < values) {
+            long[] pair = buffer.acquire();
+            assertEquals(pair[0], -pair[1], "A published value should never be seen half written");
+            assertTrue(pair[0] >= last, "Values should be read in publishing order");
+            last = pair[0];
+        }
+        writer.join();
+    }
+
+    @Test
+    void testSpscQueueOrder() throws InterruptedException {
+        final int values = 20_000;
+        SpscQueue<Integer> queue = new SpscQueue<>(16);
+        Thread producer = new Thread(() -> {
+            for (int value = 0; value < values; value++) {
+                while (!queue.offer(value)) {
+                    Thread.yield();
+                }
+            }
+        });
+        producer.start();
+
+        int expected = 0;
+        while (expected < values) {
+            Integer value = queue.poll();
+            if (value != null) {
+                assertEquals(expected++, value.intValue(), "Elements should be polled in offering order");
+            } else {
+                Thread.yield();
+            }
+        }
+        assertNull(queue.poll(), "The queue should be empty once everything was polled");
+        producer.join();
+    }
+
+    @Test
+    void testInterpolationAcrossWrapAround() {
+        List<GameObjectNotControllable> objects = new ArrayList<>();
+        objects.add(new Obstacle(BOUNDARY_RIGHT - 1, OBSTACLE_Y, LANE_DIRECTION, 0));
+        Lane lane = new Lane(LANE_SPEED, LANE_DIRECTION, objects);
+
+        for (int tick = 0; tick < BOUNDARY_RIGHT; tick++) {
+            lane.updateObjectsPosition();
+            GameObjectNotControllable obj = objects.get(0);
+            assertEquals(lane.getLastStep(), obj.getXPosition() - obj.getPreviousXPosition(),
+                "Objects should never be interpolated across the screen");
+        }
+
+        frog.setOnLog(true, LOG_SPEED, LOG_DIRECTION);
+        frog.resetPosition(INITIAL_FROG_X, GlobalVariables.LANE_HEIGHT);
+        frog.updatePosition();
+        assertEquals(INITIAL_FROG_X, frog.getPreviousXPosition(), "The frog should drift from where it was");
+        frog.move(Direction.LEFT);
+        assertEquals(frog.getXPosition(), frog.getPreviousXPosition(), "Jumps should not be interpolated");
+    }
+
+    @Test
+    void testMatchPhaseTransitions() {
+        assertTrue(MatchPhase.RUNNING.canMoveTo(MatchPhase.PAUSED), "A running match should pause");
+        assertTrue(MatchPhase.PAUSED.canMoveTo(MatchPhase.RUNNING), "A paused match should resume");
+        assertTrue(MatchPhase.PAUSED.canMoveTo(MatchPhase.ENDING), "A paused match can still end");
+        assertTrue(MatchPhase.ENDING.canMoveTo(MatchPhase.OVER), "An ending match should be over");
+        for (MatchPhase phase : MatchPhase.values()) {
+            assertFalse(phase.canMoveTo(phase), "No phase should be entered twice in a row");
+            assertFalse(MatchPhase.ENDING.canMoveTo(phase) && phase != MatchPhase.OVER,
+                "An ending match should never run again");
+            assertFalse(MatchPhase.OVER.canMoveTo(phase), "A match that is over should stay over");
+        }
+    }
+
+    @Test
+    void testLeaderboardKeepsBestScores() throws IOException {
+        Path text = tempDir.resolve("scores.txt");
+        Path records = tempDir.resolve("scores.bin");
+        Path names = tempDir.resolve("names.txt");
+        Files.writeString(text, "old:500\nann:300:1000\nbob:300:1000\nbad:12x:5\ncat:700:2000\r\n"
+            + "dan:100:3000\nann:-7:4000\neve:900:5000", StandardCharsets.UTF_8);
+        List<Map.Entry<String, Integer>> top;
+        try (BinaryScoreFile file = BinaryScoreFile.importFrom(new ScoreLog(text), records, names)) {
+            Leaderboard board = new Leaderboard(file, 3);
+            assertEquals(7, board.getRecordCount(), "Malformed lines should be skipped");
+            assertEquals(List.of(Map.entry("eve", 900), Map.entry("cat", 700), Map.entry("old", 500)),
+                board.getTop(5), "Only the best scores should be kept, from the highest");
+
+            file.append("fay", 700, 6000);
+            board.record("fay", 700, 6000);
+            file.append("gil", 700, 1500);
+            board.record("gil", 700, 1500);
+            top = board.getTop(3);
+            assertEquals(List.of(Map.entry("eve", 900), Map.entry("gil", 700), Map.entry("cat", 700)),
+                top, "Ties should be broken by who made the score first");
+        }
+
+        try (BinaryScoreFile file = new BinaryScoreFile(records, names)) {
+            Leaderboard reloaded = new Leaderboard(file, 3);
+            assertEquals(top, reloaded.getTop(3), "Saved scores should be read back from the file");
+            assertEquals(9, reloaded.getRecordCount(), "Same-millisecond scores should all be kept");
+            assertEquals(8, Files.readAllLines(names).size(), "Each name should be stored once");
+        }
+    }
+
+    @Test
+    void testBinaryScoreFileChecksNames() throws IOException {
+        Path records = tempDir.resolve("scores.bin");
+        Path names = tempDir.resolve("names.txt");
+        try (BinaryScoreFile file = new BinaryScoreFile(records, names)) {
+            file.append("ann", 10, 1);
+            file.append("bob", 20, 2);
+        }
+        // A name cut short by a crash was never handed out, so it is dropped
+        Files.writeString(names, "car", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        try (BinaryScoreFile file = new BinaryScoreFile(records, names)) {
+            assertEquals(2, file.getRecordCount(), "Records should be kept");
+            assertEquals(2, file.getNameId("car"), "A torn name should not take an id");
+        }
+        assertEquals(List.of("ann", "bob", "car"), Files.readAllLines(names), "A torn name should be replaced");
+
+        // Records referring to names the table lost make the file corrupt
+        Files.writeString(names, "ann\n", StandardCharsets.UTF_8);
+        assertThrows(IOException.class, () -> new BinaryScoreFile(records, names).close(),
+            "A record with an unknown name should be reported as a corrupt file");
+    }
+
+    @Test
+    void testScoreWriterDrainsOnClose() throws IOException, InterruptedException {
+        final int scores = 2000;
+        Path records = tempDir.resolve("scores.bin");
+        Path names = tempDir.resolve("names.txt");
+        try (BinaryScoreFile file = new BinaryScoreFile(records, names)) {
+            ScoreWriter writer = new ScoreWriter(file, scores, ScoreWriter.SyncPolicy.ON_SHUTDOWN, 0);
+            // Holding the file keeps the writer from committing, so the scores pile up in the queue
+            synchronized (file) {
+                for (int i = 0; i < scores; i++) {
+                    writer.submit("p" + (i % 7), i, i);
+                }
+            }
+            writer.close();
+            assertEquals(0, writer.getQueueDepth(), "Closing should write every queued score");
+            assertEquals(scores, writer.getCommittedScores(), "Every score should be committed");
+            assertTrue(writer.getCommitCount() < scores / 100, "Queued scores should be committed in batches");
+            assertThrows(IllegalStateException.class, () -> writer.submit("late", 0, 0),
+                "A closed writer should not accept scores");
+        }
+        try (BinaryScoreFile file = new BinaryScoreFile(records, names)) {
+            long[] next = {0};
+            file.scan((nameId, name, score, timestamp) -> {
+                assertEquals(next[0]++, score, "Scores should be written in the order they were submitted");
+                assertEquals("p" + (score % 7), name, "Names should be read back");
+                assertEquals(name, file.getName(nameId), "Names should be found by id");
+            });
+            assertEquals(scores, next[0], "Every score should be on the disk");
+        }
+    }
+
+    @Test
+    void testScoreWriterCountsFailedWrites() throws IOException, InterruptedException {
+        BinaryScoreFile file = new BinaryScoreFile(tempDir.resolve("scores.bin"), tempDir.resolve("names.txt"));
+        ScoreWriter writer = new ScoreWriter(file, 16, ScoreWriter.SyncPolicy.ON_SHUTDOWN, 0);
+        try {
+            assertTrue(writer.write("ann", 10, 1, 0), "A score should be written");
+            // A new name cannot be added to a closed name table
+            file.close();
+            assertFalse(writer.write("bob", 20, 2, 0), "A score that cannot be written should be reported");
+            assertEquals(1, writer.getCommittedScores(), "Only written scores should count as committed");
+            assertEquals(1, writer.getFailedScores(), "Failed writes should be counted");
+        } finally {
+            writer.close();
+            file.close();
+        }
+    }
+
+    @Test
+    void testRankIndexMatchesSortedScores() {
+        SplittableRandom random = new SplittableRandom(7);
+        RankIndex index = new RankIndex();
+        List<Integer> scores = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            // Spread scores widely, so the tree has to grow
+            int score = random.nextInt(1 << (1 + random.nextInt(18)));
+            index.add(score);
+            scores.add(score);
+        }
+        scores.sort((a, b) -> Integer.compare(b, a));
+
+        assertEquals(scores.size(), index.size(), "Every score should be counted");
+        for (int rank = 1; rank <= scores.size(); rank += 37) {
+            int score = scores.get(rank - 1);
+            assertEquals(score, index.scoreAt(rank), "The score at a rank should match the sorted scores");
+            assertEquals(scores.indexOf(score) + 1, index.rankOf(score), "Equal scores should share their rank");
+        }
+        assertEquals(1, index.rankOf(Integer.MAX_VALUE), "A score above all should rank first");
+        assertEquals(index.rankOf(0), index.rankOf(-1), "Negative scores should rank as 0");
+        assertArrayEquals(new int[] {scores.get(0), scores.get(1), scores.get(2)}, index.scoresAround(1, 2),
+            "The window should stop at the first rank");
+
+        index.add(RankIndex.MAX_SCORE);
+        assertEquals(RankIndex.MAX_SCORE, index.scoreAt(1), "Scores added after a query should be counted");
+        assertEquals(2, index.rankOf(scores.get(0)), "Ranks should follow the scores added after a query");
+    }
+
+    @Test
+    void testPeriodTopScoresByDayAndWeek() {
+        ZoneId zone = ZoneId.of("Europe/Rome");
+        PeriodTopScores daily = PeriodTopScores.daily(2, 2, zone);
+        PeriodTopScores weekly = PeriodTopScores.weekly(2, 2, zone);
+        // Sunday 30 March 2025 is both the last day of an ISO week and a daylight saving change in Rome
+        long sundayLate = ZonedDateTime.of(2025, 3, 30, 23, 30, 0, 0, zone).toInstant().toEpochMilli();
+        long mondayEarly = ZonedDateTime.of(2025, 3, 31, 0, 30, 0, 0, zone).toInstant().toEpochMilli();
+        long tuesday = ZonedDateTime.of(2025, 4, 1, 12, 0, 0, 0, zone).toInstant().toEpochMilli();
+        for (PeriodTopScores periods : List.of(daily, weekly)) {
+            periods.offer("sun", 50, sundayLate);
+            periods.offer("mon", 10, mondayEarly);
+        }
+        assertEquals(List.of(Map.entry("sun", 50)), daily.get(sundayLate, 5), "Days should start at local midnight");
+        assertEquals(List.of(Map.entry("mon", 10)), daily.get(mondayEarly, 5), "Each day should keep its own scores");
+
+        daily.offer("tue", 30, tuesday);
+        weekly.offer("tue", 30, tuesday);
+        assertEquals(List.of(Map.entry("tue", 30), Map.entry("mon", 10)), weekly.get(tuesday, 5),
+            "Weeks should start on Monday");
+        assertEquals(List.of(Map.entry("sun", 50)), weekly.get(sundayLate, 5), "Sunday should end the previous week");
+        assertEquals(2, daily.getPeriodCount(), "Only the latest days should be kept");
+        assertTrue(daily.get(sundayLate, 5).isEmpty(), "Days out of the window should be evicted");
+        daily.offer("late", 99, sundayLate);
+        assertTrue(daily.get(sundayLate, 5).isEmpty(), "Late scores for evicted days should be ignored");
+    }
+
+    @Test
+    void testPlayerStatsStoreUpdatesAndPersists() throws IOException {
+        Path records = tempDir.resolve("scores.bin");
+        Path names = tempDir.resolve("names.txt");
+        Path stats = tempDir.resolve("stats.bin");
+        try (BinaryScoreFile file = new BinaryScoreFile(records, names)) {
+            file.append("ann", 300, 1000);
+            file.append("bob", 50, 2000);
+            file.append("ann", 100, 3000);
+            try (PlayerStatsStore store = PlayerStatsStore.rebuildFrom(file, stats)) {
+                PlayerStats ann = store.get(file.findNameId("ann"));
+                assertEquals(2, ann.getGamesPlayed(), "Stats should be rebuilt from the saved scores");
+                assertEquals(300, ann.getBestScore(), "The best score should be kept");
+                assertEquals(100, ann.getLastScore(), "The last score should follow the saving order");
+                assertEquals(200, ann.getMeanScore(), 1e-9, "The mean should average every game");
+                assertEquals(0, ann.getPlayTimeMillis(), "Rebuilt games should have no play time");
+
+                store.record(file.getNameId("bob"), 80, 45_000);
+                // Enough players to make the file grow
+                for (int i = 0; i < 1000; i++) {
+                    store.record(file.getNameId("p" + i), i, 1000);
+                }
+                assertNull(store.get(file.findNameId("nobody")), "Unknown players should have no stats");
+            }
+        }
+
+        try (BinaryScoreFile file = new BinaryScoreFile(records, names);
+            PlayerStatsStore store = new PlayerStatsStore(stats)) {
+            PlayerStats bob = store.get(file.findNameId("bob"));
+            assertEquals(2, bob.getGamesPlayed(), "Stats should be read back from the file");
+            assertEquals(80, bob.getBestScore(), "A higher score should become the best");
+            assertEquals(130, bob.getTotalScore(), "Scores should add up");
+            assertEquals(45_000, bob.getPlayTimeMillis(), "Play time should add up");
+            assertEquals(999, store.get(file.findNameId("p999")).getLastScore(), "Every player should be kept");
+        }
+    }
+
+    @Test
+    void testPlayerStatsFollowTheScoresAfterACrash() throws IOException, InterruptedException {
+        Path other = tempDir.resolve("other");
+        Files.createDirectory(other);
+        try (ScoreStore store = new ScoreStore(tempDir, 10, 16, ScoreWriter.SyncPolicy.EVERY_COMMIT, 0);
+            ScoreStore ahead = new ScoreStore(other, 10, 16, ScoreWriter.SyncPolicy.EVERY_COMMIT, 0)) {
+            store.saveScore("ann", 100, 1000);
+            for (int i = 0; i < 5; i++) {
+                ahead.saveScore("bob", i, 1000);
+            }
+        }
+        // Records flushed by a commit whose statistics never reached the disk
+        try (BinaryScoreFile file = new BinaryScoreFile(tempDir.resolve(ScoreStore.RECORDS_FILE),
+            tempDir.resolve(ScoreStore.NAMES_FILE))) {
+            file.append("ann", 300, 2000);
+            file.append("cat", 50, 3000);
+        }
+        try (ScoreStore store = new ScoreStore(tempDir, 10, 16, ScoreWriter.SyncPolicy.EVERY_COMMIT, 0)) {
+            PlayerStats ann = store.getPlayerStats("ann");
+            assertEquals(2, ann.getGamesPlayed(), "Records missing from the statistics should be replayed");
+            assertEquals(300, ann.getBestScore(), "Replayed records should count");
+            assertEquals(1000, ann.getPlayTimeMillis(), "Games already recorded should keep their play time");
+            assertEquals(1, store.getPlayerStats("cat").getGamesPlayed(), "New players should be replayed");
+        }
+
+        // Statistics holding more records than the score file cannot be trusted
+        Files.copy(other.resolve(ScoreStore.STATS_FILE), tempDir.resolve(ScoreStore.STATS_FILE),
+            StandardCopyOption.REPLACE_EXISTING);
+        try (ScoreStore store = new ScoreStore(tempDir, 10, 16, ScoreWriter.SyncPolicy.EVERY_COMMIT, 0)) {
+            // Without the rebuild, ann would get the five games of bob, whose name had the same id
+            assertEquals(2, store.getPlayerStats("ann").getGamesPlayed(), "The statistics should be rebuilt");
+        }
+        try (PlayerStatsStore stats = new PlayerStatsStore(tempDir.resolve(ScoreStore.STATS_FILE))) {
+            assertEquals(3, stats.getAppliedCount(), "The applied records should be stored");
+        }
+    }
 }
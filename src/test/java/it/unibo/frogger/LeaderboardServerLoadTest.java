@@ -0,0 +1,391 @@
+package it.unibo.frogger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import it.unibo.frogger.core.BinaryScoreFile;
+import it.unibo.frogger.core.LeaderboardServer;
+import it.unibo.frogger.core.PlayerStats;
+import it.unibo.frogger.core.ScoreService;
+import it.unibo.frogger.core.ScoreStore;
+import it.unibo.frogger.core.ScoreWriter;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+class LeaderboardServerLoadTest {
+
+    private static final int PLAYERS = 500;
+    private static final int CLIENTS = 8;
+    private static final long LOAD_MILLIS = 2_000;
+    private static final int SUBMIT_EVERY = 50;
+    private static final double MIN_REQUESTS_PER_SECOND = 10_000;
+    private static final int LEADERBOARD_CAPACITY = 100;
+    private static final int QUEUE_CAPACITY = 1024;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testQueriesAndRevalidation() throws IOException {
+        try (ScoreStore scores = openScores(); LeaderboardServer server = startServer(scores)) {
+            try (Client client = new Client(server.getPort())) {
+                Response top = client.send("GET", "/top?limit=3", null, null);
+                assertEquals(200, top.status, "Top scores should be served");
+                assertTrue(top.body.startsWith("[{\"name\":\"p499\",\"score\":4990}"),
+                    "Top scores should come from the highest: " + top.body);
+
+                Response again = client.send("GET", "/top?limit=3", top.etag, null);
+                assertEquals(304, again.status, "A matching tag should be revalidated");
+                assertEquals(top.etag, again.etag, "The tag should stay the same until a score is saved");
+
+                Response rank = client.send("GET", "/rank?score=4985", null, null);
+                assertEquals("{\"score\":4985,\"rank\":2,\"total\":500}", rank.body, "The rank should be served");
+
+                Response player = client.send("GET", "/player?name=p7", null, null);
+                assertTrue(player.body.contains("\"games\":1,\"best\":70"), "Player stats should be served");
+                assertEquals(404, client.send("GET", "/player?name=nobody", null, null).status,
+                    "Unknown players should not be found");
+                assertEquals(400, client.send("GET", "/top?limit=x", null, null).status,
+                    "Malformed queries should be refused");
+
+                Response saved = client.send("POST", "/scores", null, "name=new%20one&score=9000&playTimeMillis=5");
+                assertEquals(202, saved.status, "Scores should be accepted");
+                Response changed = client.send("GET", "/top?limit=3", top.etag, null);
+                assertEquals(200, changed.status, "A saved score should change the tag");
+                assertTrue(changed.body.startsWith("[{\"name\":\"new one\",\"score\":9000}"),
+                    "A saved score should show up at once: " + changed.body);
+                assertEquals(400, client.send("POST", "/scores", null, "name=x").status,
+                    "Scores without a value should be refused");
+
+                String batch = "id=a&name=b1&score=1\nid=b&name=b2&score=2\n";
+                assertEquals(202, client.send("POST", "/scores", null, batch).status, "Batches should be accepted");
+                assertEquals(202, client.send("POST", "/scores", null, batch).status, "Batches can be sent again");
+                assertEquals(2, server.getDuplicateScoreCount(), "Scores sent again should be skipped");
+                assertEquals(503, scores.getScoreCount(), "Each score of a batch should be saved once");
+            }
+            assertEquals(0, server.getCacheHitCount(), "Every query above asked for something new");
+        }
+    }
+
+    @Test
+    void testFullQueueIsRefused() throws IOException {
+        try (LeaderboardServer server = startServer(new NoScores()); Client client = new Client(server.getPort())) {
+            Response refused = client.send("POST", "/scores", null, "name=a&score=1");
+            assertEquals(503, refused.status, "Scores should be refused when the queue is full");
+            assertEquals("1", refused.retryAfter, "Clients should be told when to send the score again");
+            assertEquals(1, server.getRejectedScoreCount(), "Refused scores should be counted");
+        }
+    }
+
+    @Test
+    void testRetryWhileFirstAttemptRunsIsSaved() throws IOException, InterruptedException {
+        CountDownLatch firstStarted = new CountDownLatch(1);
+        CountDownLatch firstMayFail = new CountDownLatch(1);
+        AtomicLong saved = new AtomicLong();
+        ScoreService scores = new NoScores() {
+            private final AtomicLong offers = new AtomicLong();
+
+            @Override
+            public boolean offerScore(final String playerName, final int score, final long timestamp,
+                final long playTimeMillis) {
+                if (offers.getAndIncrement() == 0) {
+                    // The first attempt is refused, but only after the retry came in
+                    firstStarted.countDown();
+                    try {
+                        firstMayFail.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return false;
+                }
+                saved.incrementAndGet();
+                return true;
+            }
+        };
+        try (LeaderboardServer server = startServer(scores)) {
+            int[] firstStatus = new int[1];
+            Thread first = new Thread(() -> {
+                try (Client client = new Client(server.getPort())) {
+                    firstStatus[0] = client.send("POST", "/scores", null, "id=x&name=a&score=1").status;
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            });
+            first.start();
+            firstStarted.await();
+            Thread release = new Thread(() -> {
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                firstMayFail.countDown();
+            });
+            release.start();
+            try (Client client = new Client(server.getPort())) {
+                Response retry = client.send("POST", "/scores", null, "id=x&name=a&score=1");
+                first.join();
+                release.join();
+                assertEquals(503, firstStatus[0], "The first attempt should be refused");
+                assertEquals(202, retry.status, "The retry should be accepted");
+            }
+            assertEquals(1, saved.get(), "The retry should save the score the first attempt could not");
+            assertEquals(0, server.getDuplicateScoreCount(), "The retry should not be taken for a duplicate");
+        }
+    }
+
+    /**
+     * Measures the throughput of the server, run with {@code ./gradlew benchmark} rather than with the unit tests:
+     * clients and server share the machine, which should have at least four idle cores.
+     */
+    @Test
+    @Tag("benchmark")
+    void testLoadOnLocalhost() throws IOException, InterruptedException {
+        try (ScoreStore scores = openScores(); LeaderboardServer server = startServer(scores)) {
+            AtomicLong completed = new AtomicLong();
+            AtomicLong failed = new AtomicLong();
+            List<Thread> clients = new ArrayList<>();
+            long deadline = System.nanoTime() + LOAD_MILLIS * 1_000_000L;
+            long start = System.nanoTime();
+            for (int c = 0; c < CLIENTS; c++) {
+                final int id = c;
+                Thread thread = new Thread(() -> runClient(server.getPort(), id, deadline, completed, failed));
+                clients.add(thread);
+                thread.start();
+            }
+            for (Thread thread : clients) {
+                thread.join();
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            double perSecond = completed.get() / seconds;
+            System.out.printf(Locale.ROOT, "%d requests in %.2f s: %.0f requests/s, %d cache hits, %d not modified%n",
+                completed.get(), seconds, perSecond, server.getCacheHitCount(), server.getNotModifiedCount());
+
+            assertEquals(0, failed.get(), "Every request should succeed");
+            assertTrue(perSecond >= MIN_REQUESTS_PER_SECOND,
+                String.format(Locale.ROOT, "Only %.0f requests/s", perSecond));
+        }
+    }
+
+    /**
+     * Sends requests over a keep-alive connection until the deadline, mostly queries
+     * revalidated with the last tag seen, and a score now and then.
+     *
+     * @param port      the port of the server
+     * @param id        the number of the client
+     * @param deadline  when to stop, in nanoseconds
+     * @param completed the number of requests answered as expected
+     * @param failed    the number of requests answered otherwise
+     */
+    private static void runClient(final int port, final int id, final long deadline, final AtomicLong completed,
+        final AtomicLong failed) {
+        String[] queries = {"/top?limit=10", "/rank?score=" + id * 100, "/player?name=p" + id};
+        String[] tags = new String[queries.length];
+        try (Client client = new Client(port)) {
+            for (int i = 0; System.nanoTime() < deadline; i++) {
+                Response response;
+                if (i % SUBMIT_EVERY == 0) {
+                    response = client.send("POST", "/scores", null, "name=p" + id + "&score=" + i);
+                } else {
+                    int q = i % queries.length;
+                    response = client.send("GET", queries[q], tags[q], null);
+                    tags[q] = response.etag;
+                }
+                if (response.status == 200 || response.status == 202 || response.status == 304) {
+                    completed.incrementAndGet();
+                } else {
+                    failed.incrementAndGet();
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            failed.incrementAndGet();
+        }
+    }
+
+    /**
+     * Opens the scores of the temporary directory, with one score of 10 times its number for each player.
+     *
+     * @return the opened scores
+     * @throws IOException if the files cannot be written
+     */
+    private ScoreStore openScores() throws IOException {
+        try (BinaryScoreFile file = new BinaryScoreFile(tempDir.resolve(ScoreStore.RECORDS_FILE),
+            tempDir.resolve(ScoreStore.NAMES_FILE))) {
+            for (int i = 0; i < PLAYERS; i++) {
+                file.append("p" + i, i * 10, i);
+            }
+        }
+        return new ScoreStore(tempDir, LEADERBOARD_CAPACITY, QUEUE_CAPACITY, ScoreWriter.SyncPolicy.ON_SHUTDOWN, 0);
+    }
+
+    /**
+     * Starts a server on a free port of localhost.
+     *
+     * @param scores the scores to serve
+     * @return the started server
+     * @throws IOException if the server cannot be started
+     */
+    private static LeaderboardServer startServer(final ScoreService scores) throws IOException {
+        LeaderboardServer server = new LeaderboardServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+            scores);
+        server.start();
+        return server;
+    }
+
+    /**
+     * Scores that hold nothing and refuse every new score.
+     */
+    private static class NoScores implements ScoreService {
+        @Override
+        public List<Map.Entry<String, Integer>> getTopScores(final int limit) {
+            return List.of();
+        }
+
+        @Override
+        public long getRank(final int score) {
+            return 1;
+        }
+
+        @Override
+        public long getScoreCount() {
+            return 0;
+        }
+
+        @Override
+        public PlayerStats getPlayerStats(final String playerName) {
+            return null;
+        }
+
+        @Override
+        public boolean offerScore(final String playerName, final int score, final long timestamp,
+            final long playTimeMillis) {
+            return false;
+        }
+
+        @Override
+        public long getVersion() {
+            return 0;
+        }
+    }
+
+    /**
+     * The answer to a request, with the headers the tests look at.
+     */
+    private static final class Response {
+        private int status;
+        private String etag;
+        private String retryAfter;
+        private String body = "";
+    }
+
+    /**
+     * A minimal HTTP/1.1 client keeping its connection alive, so that the load measures the server
+     * rather than the cost of opening connections.
+     */
+    private static final class Client implements AutoCloseable {
+        private final Socket socket;
+        private final InputStream input;
+        private final OutputStream output;
+
+        /**
+         * Connects to the server.
+         *
+         * @param port the port of the server
+         * @throws IOException if the server cannot be reached
+         */
+        Client(final int port) throws IOException {
+            socket = new Socket(InetAddress.getLoopbackAddress(), port);
+            socket.setTcpNoDelay(true);
+            input = new BufferedInputStream(socket.getInputStream());
+            output = socket.getOutputStream();
+        }
+
+        /**
+         * Sends a request and reads its answer.
+         *
+         * @param method      the method of the request
+         * @param target      the path and query of the request
+         * @param ifNoneMatch the tag to revalidate, or null
+         * @param form        the URL-encoded body, or null
+         * @return the answer
+         * @throws IOException if the connection fails
+         */
+        Response send(final String method, final String target, final String ifNoneMatch, final String form)
+            throws IOException {
+            byte[] body = form == null ? new byte[0] : form.getBytes(StandardCharsets.UTF_8);
+            StringBuilder request = new StringBuilder()
+                .append(method).append(' ').append(target).append(" HTTP/1.1\r\nHost: localhost\r\n");
+            if (ifNoneMatch != null) {
+                request.append("If-None-Match: ").append(ifNoneMatch).append("\r\n");
+            }
+            if (form != null) {
+                request.append("Content-Type: application/x-www-form-urlencoded\r\n")
+                    .append("Content-Length: ").append(body.length).append("\r\n");
+            }
+            output.write(request.append("\r\n").toString().getBytes(StandardCharsets.US_ASCII));
+            output.write(body);
+            output.flush();
+
+            Response response = new Response();
+            String statusLine = readLine();
+            response.status = Integer.parseInt(statusLine.split(" ")[1]);
+            int length = 0;
+            for (String line = readLine(); !line.isEmpty(); line = readLine()) {
+                int colon = line.indexOf(':');
+                String name = line.substring(0, colon).trim().toLowerCase(Locale.ROOT);
+                String value = line.substring(colon + 1).trim();
+                if ("content-length".equals(name)) {
+                    length = Integer.parseInt(value);
+                } else if ("etag".equals(name)) {
+                    response.etag = value;
+                } else if ("retry-after".equals(name)) {
+                    response.retryAfter = value;
+                }
+            }
+            response.body = new String(input.readNBytes(length), StandardCharsets.UTF_8);
+            return response;
+        }
+
+        /**
+         * Reads a line of the answer, without its line break.
+         *
+         * @return the line
+         * @throws IOException if the connection is closed
+         */
+        private String readLine() throws IOException {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            for (int b = input.read(); b != '\n'; b = input.read()) {
+                if (b < 0) {
+                    throw new IOException("Connection closed");
+                }
+                if (b != '\r') {
+                    line.write(b);
+                }
+            }
+            return line.toString(StandardCharsets.US_ASCII);
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+}
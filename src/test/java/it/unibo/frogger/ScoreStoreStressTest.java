@@ -0,0 +1,168 @@
+package it.unibo.frogger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import it.unibo.frogger.core.BinaryScoreFile;
+import it.unibo.frogger.core.PlayerStats;
+import it.unibo.frogger.core.ScoreStore;
+import it.unibo.frogger.core.ScoreWriter;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+class ScoreStoreStressTest {
+
+    private static final int WRITERS = 8;
+    private static final int READERS = 2;
+    private static final int SCORES_PER_WRITER = 5_000;
+    private static final int SCORES_PER_THREAD_ID = 1_000_000;
+    private static final int LEADERBOARD_CAPACITY = 100;
+    private static final int QUEUE_CAPACITY = 256;
+    private static final long SYNC_INTERVAL_MILLIS = 50;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testNoScoreIsLostOrTornUnderConcurrentInserts() throws IOException, InterruptedException {
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        AtomicBoolean writing = new AtomicBoolean(true);
+        try (ScoreStore store = new ScoreStore(tempDir, LEADERBOARD_CAPACITY, QUEUE_CAPACITY,
+            ScoreWriter.SyncPolicy.INTERVAL, SYNC_INTERVAL_MILLIS)) {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Thread> writers = new ArrayList<>();
+            for (int t = 0; t < WRITERS; t++) {
+                int thread = t;
+                writers.add(new Thread(() -> insert(store, thread, start, failure)));
+            }
+            List<Thread> readers = new ArrayList<>();
+            for (int r = 0; r < READERS; r++) {
+                readers.add(new Thread(() -> read(store, writing, failure)));
+            }
+            writers.forEach(Thread::start);
+            readers.forEach(Thread::start);
+            start.countDown();
+            for (Thread writer : writers) {
+                writer.join();
+            }
+            writing.set(false);
+            for (Thread reader : readers) {
+                reader.join();
+            }
+            assertNull(failure.get(), "No thread should fail");
+            assertEquals((long) WRITERS * SCORES_PER_WRITER, store.getScoreCount(),
+                "Every score should be counted");
+            int best = (WRITERS - 1) * SCORES_PER_THREAD_ID + SCORES_PER_WRITER - 1;
+            assertEquals(best, (int) store.getTopScores(1).get(0).getValue(), "The best score should be on top");
+            for (int t = 0; t < WRITERS; t++) {
+                PlayerStats stats = store.getPlayerStats("t" + t);
+                assertEquals(SCORES_PER_WRITER, stats.getGamesPlayed(), "Every game should be counted");
+                assertEquals(t * SCORES_PER_THREAD_ID + SCORES_PER_WRITER - 1, stats.getBestScore(),
+                    "The best score of each player should be kept");
+            }
+        }
+
+        // Every record on the disk should be whole and written exactly once
+        boolean[][] seen = new boolean[WRITERS][SCORES_PER_WRITER];
+        AtomicLong problems = new AtomicLong();
+        try (BinaryScoreFile file = new BinaryScoreFile(tempDir.resolve(ScoreStore.RECORDS_FILE),
+            tempDir.resolve(ScoreStore.NAMES_FILE))) {
+            file.scan((nameId, name, score, timestamp) -> {
+                int thread = score / SCORES_PER_THREAD_ID;
+                int seq = score % SCORES_PER_THREAD_ID;
+                if (!name.equals("t" + thread) || seq >= SCORES_PER_WRITER || seen[thread][seq]) {
+                    problems.incrementAndGet();
+                } else {
+                    seen[thread][seq] = true;
+                }
+            });
+        }
+        assertEquals(0, problems.get(), "No record should be torn or written twice");
+        for (int t = 0; t < WRITERS; t++) {
+            for (int seq = 0; seq < SCORES_PER_WRITER; seq++) {
+                assertTrue(seen[t][seq], "Score " + seq + " of thread " + t + " should be written");
+            }
+        }
+
+        try (ScoreStore reopened = new ScoreStore(tempDir, LEADERBOARD_CAPACITY, QUEUE_CAPACITY,
+            ScoreWriter.SyncPolicy.INTERVAL, SYNC_INTERVAL_MILLIS)) {
+            assertEquals((long) WRITERS * SCORES_PER_WRITER, reopened.getScoreCount(),
+                "Every score should survive a restart");
+            assertEquals(SCORES_PER_WRITER, reopened.getPlayerStats("t0").getGamesPlayed(),
+                "The statistics should survive a restart");
+        }
+    }
+
+    /**
+     * Inserts the scores of a writer thread, whose scores tell the thread and the order they were made in.
+     * Odd threads use the non-blocking insert, retrying while the queue is full.
+     *
+     * @param store   the store
+     * @param thread  the number of the thread
+     * @param start   the latch releasing every writer together
+     * @param failure where to put the first failure
+     */
+    private static void insert(final ScoreStore store, final int thread, final CountDownLatch start,
+        final AtomicReference<Throwable> failure) {
+        try {
+            start.await();
+            for (int seq = 0; seq < SCORES_PER_WRITER; seq++) {
+                int score = thread * SCORES_PER_THREAD_ID + seq;
+                if (thread % 2 == 0) {
+                    store.saveScore("t" + thread, score, seq);
+                } else {
+                    while (!store.offerScore("t" + thread, score, System.currentTimeMillis(), seq)) {
+                        Thread.onSpinWait();
+                    }
+                }
+            }
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            failure.compareAndSet(null, e);
+        }
+    }
+
+    /**
+     * Reads the best scores while the writers run, checking they are sorted, each belongs to its player
+     * and the statistics of the best player are already up to date.
+     *
+     * @param store   the store
+     * @param writing whether the writers still run
+     * @param failure where to put the first failure
+     */
+    private static void read(final ScoreStore store, final AtomicBoolean writing,
+        final AtomicReference<Throwable> failure) {
+        try {
+            while (writing.get()) {
+                List<Map.Entry<String, Integer>> top = store.getTopScores(LEADERBOARD_CAPACITY);
+                for (int i = 0; i < top.size(); i++) {
+                    Map.Entry<String, Integer> entry = top.get(i);
+                    if (!entry.getKey().equals("t" + entry.getValue() / SCORES_PER_THREAD_ID)) {
+                        throw new IllegalStateException("Torn entry " + entry);
+                    }
+                    if (i > 0 && top.get(i - 1).getValue() < entry.getValue()) {
+                        throw new IllegalStateException("Unsorted top scores " + top);
+                    }
+                }
+                // Statistics are updated before the leaderboard, so they already hold the best score
+                if (!top.isEmpty()) {
+                    Map.Entry<String, Integer> best = top.get(0);
+                    PlayerStats stats = store.getPlayerStats(best.getKey());
+                    if (stats == null || stats.getBestScore() < best.getValue()) {
+                        throw new IllegalStateException("Statistics behind the leaderboard for " + best);
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            failure.compareAndSet(null, e);
+        }
+    }
+}
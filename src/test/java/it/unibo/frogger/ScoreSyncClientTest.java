@@ -0,0 +1,331 @@
+package it.unibo.frogger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import it.unibo.frogger.core.LeaderboardServer;
+import it.unibo.frogger.core.ScoreStore;
+import it.unibo.frogger.core.ScoreSyncClient;
+import it.unibo.frogger.core.ScoreWriter;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+class ScoreSyncClientTest {
+
+    private static final int SCORES = 2_000;
+    private static final int SCORES_PER_PAUSE = 4;
+    private static final int BATCH_SIZE = 50;
+    private static final long INITIAL_BACKOFF_MILLIS = 5;
+    private static final long MAX_BACKOFF_MILLIS = 100;
+    private static final long UPLOAD_TIMEOUT_MILLIS = 60_000;
+    private static final int BENCHMARK_SCORES = 20_000;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testEveryScoreArrivesOnceDespiteFailures() throws IOException, InterruptedException {
+        Path outbox = tempDir.resolve("outbox.txt");
+        try (FakeServer server = new FakeServer(0.2, 0.1, 0.05, 5)) {
+            try (ScoreSyncClient client = new ScoreSyncClient(server.getEndpoint(), outbox, BATCH_SIZE,
+                INITIAL_BACKOFF_MILLIS, MAX_BACKOFF_MILLIS)) {
+                for (int i = 0; i < SCORES; i++) {
+                    client.submit("p " + i % 13 + "&=", i, System.currentTimeMillis(), i);
+                    if (i % SCORES_PER_PAUSE == 0) {
+                        // Scores come in over time, as games end
+                        Thread.sleep(1);
+                    }
+                }
+                assertTrue(client.awaitUploaded(UPLOAD_TIMEOUT_MILLIS), "Every score should be uploaded");
+                assertEquals(SCORES, client.getUploadedCount(), "Every score should be acknowledged");
+                assertTrue(client.getFailedAttempts() > 0, "The fake server should have failed some uploads");
+                assertTrue(client.getBatchCount() <= SCORES / BATCH_SIZE * 5,
+                    "Scores waiting during an upload should share the next batch");
+                assertTrue(client.getMaxLagMillis() > 0, "The lag should be measured");
+                assertTrue(client.getMaxLagMillis() < UPLOAD_TIMEOUT_MILLIS,
+                    "No score should wait longer than the upload took");
+                assertTrue(client.getScoresPerSecond() > 0, "The throughput should be measured");
+            }
+            assertEquals(SCORES, server.saved.size(), "Every score should be saved once");
+            for (Map<String, String> score : server.saved.values()) {
+                int value = Integer.parseInt(score.get("score"));
+                assertEquals("p " + value % 13 + "&=", score.get("name"), "Names should be sent intact");
+                assertEquals(String.valueOf(value), score.get("playTimeMillis"), "Play time should be sent");
+            }
+            assertTrue(server.duplicates.get() > 0, "Batches whose answer was lost should have been sent again");
+        }
+    }
+
+    /**
+     * Measures the throughput and the end-to-end lag of the uploads, run with {@code ./gradlew benchmark}
+     * rather than with the unit tests: scores are submitted as fast as the outbox takes them, to a server
+     * failing as often as in the test above.
+     */
+    @Test
+    @Tag("benchmark")
+    void testUploadThroughput() throws IOException, InterruptedException {
+        try (FakeServer server = new FakeServer(0.2, 0.1, 0.05, 5);
+            ScoreSyncClient client = new ScoreSyncClient(server.getEndpoint(), tempDir.resolve("outbox.txt"),
+                BATCH_SIZE, INITIAL_BACKOFF_MILLIS, MAX_BACKOFF_MILLIS)) {
+            long slowestSubmit = 0;
+            for (int i = 0; i < BENCHMARK_SCORES; i++) {
+                long before = System.nanoTime();
+                client.submit("p" + i % 13, i, System.currentTimeMillis(), i);
+                slowestSubmit = Math.max(slowestSubmit, System.nanoTime() - before);
+            }
+            assertTrue(client.awaitUploaded(UPLOAD_TIMEOUT_MILLIS), "Every score should be uploaded");
+            System.out.printf(Locale.ROOT, "%d scores: %.0f scores/s in %d batches, %d failed attempts, "
+                + "lag %.1f ms on average and %d ms at most, slowest submit %.2f ms%n",
+                client.getUploadedCount(), client.getScoresPerSecond(), client.getBatchCount(),
+                client.getFailedAttempts(), client.getAverageLagMillis(), client.getMaxLagMillis(),
+                slowestSubmit / 1e6);
+            assertEquals(BENCHMARK_SCORES, server.saved.size(), "Every score should be saved once");
+        }
+    }
+
+    @Test
+    void testOutboxSurvivesRestart() throws IOException, InterruptedException {
+        Path outbox = tempDir.resolve("outbox.txt");
+        try (FakeServer server = new FakeServer(0, 0, 0, 0)) {
+            URI unreachable = URI.create("http://127.0.0.1:1/scores");
+            try (ScoreSyncClient offline = new ScoreSyncClient(unreachable, outbox, BATCH_SIZE,
+                INITIAL_BACKOFF_MILLIS, MAX_BACKOFF_MILLIS)) {
+                for (int i = 0; i < 10; i++) {
+                    offline.submit("p" + i, i, System.currentTimeMillis(), 0);
+                }
+                assertFalse(offline.awaitUploaded(200), "Nothing should be uploaded while offline");
+            }
+            // A line cut short by a crash should be dropped, not merged with the next score
+            Files.writeString(outbox, "id=torn&name=x&sc", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+            try (ScoreSyncClient online = new ScoreSyncClient(server.getEndpoint(), outbox, BATCH_SIZE,
+                INITIAL_BACKOFF_MILLIS, MAX_BACKOFF_MILLIS)) {
+                online.submit("late", 99, System.currentTimeMillis(), 0);
+                assertTrue(online.awaitUploaded(UPLOAD_TIMEOUT_MILLIS),
+                    "The outbox should be uploaded after a restart");
+                assertEquals(11, online.getUploadedCount(), "Scores from the earlier run should be uploaded");
+            }
+            try (ScoreSyncClient reopened = new ScoreSyncClient(server.getEndpoint(), outbox, BATCH_SIZE,
+                INITIAL_BACKOFF_MILLIS, MAX_BACKOFF_MILLIS)) {
+                assertEquals(0, reopened.getPendingCount(), "Uploaded scores should not be sent again");
+            }
+            assertEquals(11, server.saved.size(), "Every score should be saved once");
+        }
+    }
+
+    @Test
+    void testLateScoresKeepTheirDayOnTheLeaderboardServer() throws IOException, InterruptedException {
+        long now = System.currentTimeMillis();
+        long threeDaysAgo = now - TimeUnit.DAYS.toMillis(3);
+        try (ScoreStore store = new ScoreStore(tempDir, 10, 16, ScoreWriter.SyncPolicy.ON_SHUTDOWN, 0);
+            LeaderboardServer server = new LeaderboardServer(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), store)) {
+            server.start();
+            URI endpoint = URI.create("http://127.0.0.1:" + server.getPort() + "/scores");
+            try (ScoreSyncClient client = new ScoreSyncClient(endpoint, tempDir.resolve("outbox.txt"), BATCH_SIZE,
+                INITIAL_BACKOFF_MILLIS, MAX_BACKOFF_MILLIS)) {
+                // Made while the cabinet was offline, and uploaded only now
+                client.submit("early bird", 300, threeDaysAgo, 1000);
+                client.submit("early bird", 200, threeDaysAgo + 1, 1000);
+                client.submit("today", 100, now, 1000);
+                assertTrue(client.awaitUploaded(UPLOAD_TIMEOUT_MILLIS), "Every score should be uploaded");
+            }
+            assertEquals(3, store.getScoreCount(), "Every score should be saved");
+            assertEquals(List.of(Map.entry("early bird", 300), Map.entry("early bird", 200)),
+                store.getDailyTopScores(threeDaysAgo, 10), "Late scores should count for the day they were made");
+            assertEquals(List.of(Map.entry("today", 100)), store.getDailyTopScores(now, 10),
+                "Late scores should not count for the day they were uploaded");
+            assertEquals(2, store.getPlayerStats("early bird").getGamesPlayed(), "Statistics should be kept");
+        }
+    }
+
+    @Test
+    void testStaleAcknowledgmentIsReset() throws IOException, InterruptedException {
+        Path outbox = tempDir.resolve("outbox.txt");
+        URI unreachable = URI.create("http://127.0.0.1:1/scores");
+        // A crash while emptying the outbox used to leave a count of lines it no longer holds
+        Files.write(tempDir.resolve("outbox.txt.ack"), ByteBuffer.allocate(Long.BYTES).putLong(50).array());
+        Files.write(outbox, new byte[0]);
+        try (ScoreSyncClient client = new ScoreSyncClient(unreachable, outbox, BATCH_SIZE,
+            INITIAL_BACKOFF_MILLIS, MAX_BACKOFF_MILLIS)) {
+            client.submit("a", 1, System.currentTimeMillis(), 0);
+            client.submit("b", 2, System.currentTimeMillis(), 0);
+            assertEquals(2, client.getPendingCount(), "New scores should wait to be uploaded");
+        }
+        try (ScoreSyncClient reopened = new ScoreSyncClient(unreachable, outbox, BATCH_SIZE,
+            INITIAL_BACKOFF_MILLIS, MAX_BACKOFF_MILLIS)) {
+            assertEquals(2, reopened.getPendingCount(), "New scores should not be taken as acknowledged");
+        }
+    }
+
+    @Test
+    void testOnlyMalformedBatchesLeaveTheOutbox() throws IOException, InterruptedException {
+        Path outbox = tempDir.resolve("outbox.txt");
+        try (FakeServer server = new FakeServer(0, 0, 0, 0)) {
+            try (ScoreSyncClient client = new ScoreSyncClient(server.getEndpoint(), outbox, BATCH_SIZE,
+                INITIAL_BACKOFF_MILLIS, MAX_BACKOFF_MILLIS)) {
+                server.forcedStatus = 404;
+                client.submit("kept", 1, System.currentTimeMillis(), 0);
+                assertFalse(client.awaitUploaded(200), "A wrong endpoint should not drop the scores");
+                assertEquals(1, client.getPendingCount(), "The score should wait for the endpoint to be fixed");
+
+                server.forcedStatus = 0;
+                assertTrue(client.awaitUploaded(UPLOAD_TIMEOUT_MILLIS), "The score should be uploaded at last");
+
+                server.forcedStatus = 400;
+                client.submit("bad", 2, System.currentTimeMillis(), 0);
+                assertTrue(client.awaitUploaded(UPLOAD_TIMEOUT_MILLIS), "A malformed batch should leave the outbox");
+                assertEquals(1, client.getDroppedCount(), "The malformed score should be counted");
+            }
+            assertEquals(1, server.saved.size(), "Only the well-formed score should be saved");
+            List<String> dead = Files.readAllLines(tempDir.resolve("outbox.txt.dead"));
+            assertEquals(1, dead.size(), "The malformed score should be kept aside");
+            assertTrue(dead.get(0).contains("name=bad"), "The malformed score should be kept as it was sent");
+        }
+    }
+
+    /**
+     * A leaderboard endpoint on localhost that saves each score id once, answering late and failing on purpose.
+     */
+    private static final class FakeServer implements AutoCloseable {
+        private final Map<String, Map<String, String>> saved = new ConcurrentHashMap<>();
+        private final AtomicLong duplicates = new AtomicLong();
+        private final HttpServer server;
+        private final ExecutorService executor = Executors.newFixedThreadPool(4);
+        private final double refuseRate;
+        private final double loseAnswerRate;
+        private final double dropRate;
+        private final int maxLatencyMillis;
+        private final SplittableRandom random = new SplittableRandom(1);
+        // When set, every request is answered with it and nothing is saved
+        private volatile int forcedStatus;
+
+        /**
+         * Starts the server.
+         *
+         * @param refuseRate       the share of requests answered 503 without saving anything
+         * @param loseAnswerRate   the share of requests answered 500 after saving their scores
+         * @param dropRate         the share of connections closed without an answer, after saving
+         * @param maxLatencyMillis the longest time to wait before handling a request
+         * @throws IOException if the server cannot be started
+         */
+        FakeServer(final double refuseRate, final double loseAnswerRate, final double dropRate,
+            final int maxLatencyMillis) throws IOException {
+            this.refuseRate = refuseRate;
+            this.loseAnswerRate = loseAnswerRate;
+            this.dropRate = dropRate;
+            this.maxLatencyMillis = maxLatencyMillis;
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+            server.setExecutor(executor);
+            server.createContext("/scores", this::handle);
+            server.start();
+        }
+
+        /**
+         * Gets the URL of the endpoint.
+         *
+         * @return the endpoint
+         */
+        URI getEndpoint() {
+            return URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/scores");
+        }
+
+        /**
+         * Saves the new scores of a batch, unless this request is picked to fail first.
+         *
+         * @param exchange the request and its response
+         * @throws IOException if the response cannot be sent
+         */
+        private void handle(final HttpExchange exchange) throws IOException {
+            double roll;
+            int latency;
+            synchronized (random) {
+                roll = random.nextDouble();
+                latency = maxLatencyMillis == 0 ? 0 : random.nextInt(maxLatencyMillis + 1);
+            }
+            try {
+                Thread.sleep(latency);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            String body;
+            try (InputStream input = exchange.getRequestBody()) {
+                body = new String(input.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            if (forcedStatus != 0) {
+                exchange.sendResponseHeaders(forcedStatus, -1);
+                exchange.close();
+                return;
+            }
+            if (roll < refuseRate) {
+                exchange.sendResponseHeaders(503, -1);
+                exchange.close();
+                return;
+            }
+            for (String line : body.split("\n")) {
+                if (!line.isEmpty()) {
+                    Map<String, String> form = parseForm(line);
+                    if (saved.putIfAbsent(form.get("id"), form) != null) {
+                        duplicates.incrementAndGet();
+                    }
+                }
+            }
+            if (roll < refuseRate + loseAnswerRate) {
+                exchange.sendResponseHeaders(500, -1);
+            } else if (roll < refuseRate + loseAnswerRate + dropRate) {
+                // The JDK server closes the connection when a handler fails
+                throw new IOException("Dropped on purpose");
+            } else {
+                exchange.sendResponseHeaders(202, -1);
+            }
+            exchange.close();
+        }
+
+        /**
+         * Parses a URL-encoded form.
+         *
+         * @param line the form
+         * @return the values of the fields, by name
+         */
+        private static Map<String, String> parseForm(final String line) {
+            Map<String, String> form = new HashMap<>();
+            for (String field : line.split("&")) {
+                int equals = field.indexOf('=');
+                form.put(field.substring(0, equals),
+                    URLDecoder.decode(field.substring(equals + 1), StandardCharsets.UTF_8));
+            }
+            return form;
+        }
+
+        @Override
+        public void close() {
+            server.stop(0);
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package it.unibo.frogger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import org.junit.jupiter.api.Test;
+
+import it.unibo.frogger.controller.MatchSimulation;
+import it.unibo.frogger.core.Direction;
+import it.unibo.frogger.core.Match;
+import it.unibo.frogger.core.SoundPlayer;
+
+import java.lang.management.ManagementFactory;
+
+class SimulationAllocationTest {
+
+    private static final int TICK_RATE = 120;
+    private static final long SEED = 42;
+    private static final int TICKS = 4_000;
+    private static final int MOVE_INTERVAL = 15;
+    private static final int EXTRA_LIVES = 1_000;
+    private static final int CALIBRATION_ROUNDS = 100;
+
+    @Test
+    void testTickAllocatesNothing() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        assumeTrue(threads instanceof com.sun.management.ThreadMXBean, "Allocation counters are not available");
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) threads;
+        assumeTrue(bean.isThreadAllocatedMemorySupported(), "Allocation counters are not supported");
+        bean.setThreadAllocatedMemoryEnabled(true);
+
+        // Calibrate the cost of reading the counter itself
+        long overhead = Long.MAX_VALUE;
+        for (int i = 0; i < CALIBRATION_ROUNDS; i++) {
+            long before = bean.getCurrentThreadAllocatedBytes();
+            long after = bean.getCurrentThreadAllocatedBytes();
+            overhead = Math.min(overhead, after - before);
+        }
+
+        // The first match runs every code path once, loading classes and resolving constants
+        playMatch(bean, overhead, false);
+        playMatch(bean, overhead, true);
+    }
+
+    /**
+     * Plays the same match hopping up through traffic and river, dying and respawning.
+     *
+     * @param bean     the allocation counters
+     * @param overhead the bytes allocated by reading the counters
+     * @param check    whether to fail on ticks allocating memory
+     */
+    private static void playMatch(final com.sun.management.ThreadMXBean bean, final long overhead, final boolean check) {
+        Match match = new Match(TICK_RATE, SEED);
+        MatchSimulation simulation = new MatchSimulation(match, SoundPlayer.SILENT);
+        // Enough lives to keep playing for the whole test
+        for (int i = 0; i < EXTRA_LIVES; i++) {
+            match.getFrog().gainLife();
+        }
+
+        for (int tick = 0; tick < TICKS; tick++) {
+            if (tick % MOVE_INTERVAL == 0) {
+                simulation.move(Direction.UP);
+            }
+            int level = simulation.getLevel();
+            long before = bean.getCurrentThreadAllocatedBytes();
+            simulation.tick();
+            long allocated = bean.getCurrentThreadAllocatedBytes() - before - overhead;
+
+            // The first tick sizes the scratch buffers of the collision detector,
+            // and completing a level places a new token: neither is part of the steady state
+            if (check && tick > 0 && simulation.getLevel() == level) {
+                assertEquals(0, allocated, "Tick " + tick + " allocated " + allocated + " bytes");
+            }
+        }
+        assertFalse(simulation.isOver(), "The match should still be running");
+    }
+}